@@ -50,4 +50,86 @@ public class AsyncConfig {
 
     return executor;
   }
+
+  @Bean(name = "transcodeTaskExecutor")
+  public ThreadPoolTaskExecutor transcodeTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    // 每个线程对应一个 ffmpeg 进程，已满时请求回退到原始文件，不排队等待
+    executor.setCorePoolSize(2);
+    executor.setMaxPoolSize(2);
+    executor.setQueueCapacity(0);
+    executor.setThreadNamePrefix("PP-Transcode-");
+    executor.setKeepAliveSeconds(60);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.initialize();
+
+    log.info("转码线程池已配置: 核心线程数={}, 最大线程数={}, 队列容量={}",
+        executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+
+    return executor;
+  }
+
+  @Bean(name = "reencodeTaskExecutor")
+  public ThreadPoolTaskExecutor reencodeTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    // 同一时间只运行一轮存储重新编码，ffmpeg 进程以低优先级逐个执行
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(0);
+    executor.setThreadNamePrefix("PP-Reencode-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.initialize();
+
+    log.info("存储重新编码线程池已配置: 核心线程数={}, 最大线程数={}",
+        executor.getCorePoolSize(), executor.getMaxPoolSize());
+
+    return executor;
+  }
+
+  @Bean(name = "audioExtractTaskExecutor")
+  public ThreadPoolTaskExecutor audioExtractTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    // 音轨复制以磁盘读写为主，单线程按订阅源依次处理；同一订阅源已去重，队列不设上限
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setThreadNamePrefix("PP-AudioExtract-");
+    executor.initialize();
+
+    log.info("音频提取线程池已配置: 核心线程数={}, 最大线程数={}",
+        executor.getCorePoolSize(), executor.getMaxPoolSize());
+
+    return executor;
+  }
+
+  @Bean(name = "rssItemTaskExecutor")
+  public ThreadPoolTaskExecutor rssItemTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    // RSS 片段写回不在请求中进行；队列已满时拒绝，由调用方放弃本次写回，下次生成时重试
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(32);
+    executor.setThreadNamePrefix("PP-RssItem-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.initialize();
+
+    log.info("RSS 片段写回线程池已配置: 核心线程数={}, 队列容量={}",
+        executor.getCorePoolSize(), executor.getQueueCapacity());
+
+    return executor;
+  }
+
+  @Bean(name = "artworkTaskExecutor")
+  public ThreadPoolTaskExecutor artworkTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    // 封面缩放占用 CPU 与内存，单线程依次处理；任务已去重，队列不设上限
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setThreadNamePrefix("PP-Artwork-");
+    executor.initialize();
+
+    log.info("封面处理线程池已配置: 核心线程数={}, 最大线程数={}",
+        executor.getCorePoolSize(), executor.getMaxPoolSize());
+
+    return executor;
+  }
 }
@@ -0,0 +1,14 @@
+package top.asimov.pigeon.constant;
+
+/**
+ * 访问统计的类别，对应 access_stats.kind
+ */
+public enum AccessKind {
+
+  // 订阅源 RSS 被拉取，target_id 为订阅源 ID
+  FEED_POLL,
+  // 节目媒体文件被下载，target_id 为节目 ID，bytes 为发送的字节数
+  EPISODE_DOWNLOAD,
+  // 访问 RSS 与媒体文件的客户端，target_id 为 User-Agent
+  USER_AGENT
+}
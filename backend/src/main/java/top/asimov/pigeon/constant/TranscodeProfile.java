@@ -0,0 +1,68 @@
+package top.asimov.pigeon.constant;
+
+import java.util.List;
+
+/**
+ * 媒体地址 ?profile= 可选的低码率版本。输出格式均可边转码边播放（ADTS / Ogg），无需等待文件写完
+ */
+public enum TranscodeProfile {
+
+  AAC48("aac48", 48, "aac", "audio/aac",
+      List.of("-c:a", "aac", "-b:a", "48k", "-ac", "1", "-f", "adts")),
+  OPUS48("opus48", 48, "opus", "audio/ogg",
+      List.of("-c:a", "libopus", "-b:a", "48k", "-f", "ogg"));
+
+  private final String key;
+  private final int bitrateKbps;
+  private final String extension;
+  private final String mimeType;
+  private final List<String> ffmpegArgs;
+
+  TranscodeProfile(String key, int bitrateKbps, String extension, String mimeType,
+      List<String> ffmpegArgs) {
+    this.key = key;
+    this.bitrateKbps = bitrateKbps;
+    this.extension = extension;
+    this.mimeType = mimeType;
+    this.ffmpegArgs = ffmpegArgs;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public String getMimeType() {
+    return mimeType;
+  }
+
+  public List<String> getFfmpegArgs() {
+    return ffmpegArgs;
+  }
+
+  /**
+   * 按码率估算转码后的大小，用于 RSS enclosure 的 length
+   */
+  public long estimateSize(int durationSeconds) {
+    return (long) durationSeconds * bitrateKbps * 1000 / 8;
+  }
+
+  /**
+   * @return 对应的配置，参数为空时返回 null
+   * @throws IllegalArgumentException 未知的配置
+   */
+  public static TranscodeProfile fromKey(String key) {
+    if (key == null || key.isBlank()) {
+      return null;
+    }
+    for (TranscodeProfile profile : values()) {
+      if (profile.key.equalsIgnoreCase(key)) {
+        return profile;
+      }
+    }
+    throw new IllegalArgumentException("unknown transcode profile: " + key);
+  }
+}
@@ -0,0 +1,81 @@
+package top.asimov.pigeon.controller;
+
+import cn.dev33.satoken.annotation.SaCheckLogin;
+import cn.dev33.satoken.util.SaResult;
+import java.io.IOException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import top.asimov.pigeon.constant.AccessKind;
+import top.asimov.pigeon.service.AccessStatsService;
+import top.asimov.pigeon.service.BackupService;
+import top.asimov.pigeon.service.MediaBandwidthLimiter;
+import top.asimov.pigeon.service.ReencodeService;
+import top.asimov.pigeon.service.StaticPublishService;
+
+@SaCheckLogin
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+  private final BackupService backupService;
+  private final StaticPublishService staticPublishService;
+  private final ReencodeService reencodeService;
+  private final MediaBandwidthLimiter bandwidthLimiter;
+  private final AccessStatsService accessStatsService;
+
+  public AdminController(BackupService backupService,
+      StaticPublishService staticPublishService, ReencodeService reencodeService,
+      MediaBandwidthLimiter bandwidthLimiter, AccessStatsService accessStatsService) {
+    this.backupService = backupService;
+    this.staticPublishService = staticPublishService;
+    this.reencodeService = reencodeService;
+    this.bandwidthLimiter = bandwidthLimiter;
+    this.accessStatsService = accessStatsService;
+  }
+
+  @PostMapping("/backup")
+  public SaResult backup() {
+    return SaResult.data(backupService.backup());
+  }
+
+  @GetMapping("/backups")
+  public SaResult listBackups() throws IOException {
+    return SaResult.data(backupService.listBackups());
+  }
+
+  @GetMapping("/static-feed/{feedId}")
+  public SaResult getPublishedFeedUrl(@PathVariable String feedId) {
+    return SaResult.data(staticPublishService.getPublishedFeedUrl(feedId));
+  }
+
+  @PostMapping("/reencode")
+  public SaResult startReencode() {
+    reencodeService.start();
+    return SaResult.ok();
+  }
+
+  @GetMapping("/reencode")
+  public SaResult getReencodeResult() {
+    return SaResult.data(reencodeService.getLastResult());
+  }
+
+  @GetMapping("/bandwidth")
+  public SaResult getClientBandwidth() {
+    return SaResult.data(bandwidthLimiter.getClientStats());
+  }
+
+  /**
+   * 最近 hours 小时内访问最多的订阅源、节目或客户端，sort=bytes 时按流量排序
+   */
+  @GetMapping("/access-stats")
+  public SaResult getAccessStats(@RequestParam AccessKind kind,
+      @RequestParam(defaultValue = "168") int hours,
+      @RequestParam(defaultValue = "hits") String sort,
+      @RequestParam(defaultValue = "20") int limit) {
+    return SaResult.data(accessStatsService.getTop(kind, hours, "bytes".equals(sort), limit));
+  }
+}
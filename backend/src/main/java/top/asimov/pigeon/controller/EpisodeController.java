@@ -2,7 +2,6 @@ package top.asimov.pigeon.controller;
 
 import cn.dev33.satoken.annotation.SaCheckLogin;
 import cn.dev33.satoken.util.SaResult;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import java.util.List;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,7 +11,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import top.asimov.pigeon.model.CursorPage;
 import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.service.EpisodeSearchService;
 import top.asimov.pigeon.service.EpisodeService;
 
 @SaCheckLogin
@@ -21,19 +22,30 @@ import top.asimov.pigeon.service.EpisodeService;
 public class EpisodeController {
 
   private final EpisodeService episodeService;
+  private final EpisodeSearchService episodeSearchService;
 
-  public EpisodeController(EpisodeService episodeService) {
+  public EpisodeController(EpisodeService episodeService,
+      EpisodeSearchService episodeSearchService) {
     this.episodeService = episodeService;
+    this.episodeSearchService = episodeSearchService;
   }
 
   @GetMapping("/list/{feedId}")
   public SaResult programsOfChannel(@PathVariable(name = "feedId") String feedId,
-      @RequestParam(defaultValue = "1") Integer page,
+      @RequestParam(required = false) String cursor,
       @RequestParam(defaultValue = "10") Integer size) {
-    Page<Episode> episodeList = episodeService.episodePage(feedId, new Page<>(page, size));
+    CursorPage<Episode> episodeList = episodeService.episodePage(feedId, cursor, size);
     return SaResult.data(episodeList);
   }
 
+  @GetMapping("/search")
+  public SaResult search(@RequestParam(name = "q") String query,
+      @RequestParam(required = false) String feedId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") Integer size) {
+    return SaResult.data(episodeSearchService.search(query, feedId, cursor, size));
+  }
+
   @DeleteMapping("/{id}")
   public SaResult deleteEpisode(@PathVariable(name = "id") String id) {
     return SaResult.data(episodeService.deleteEpisodeById(id));
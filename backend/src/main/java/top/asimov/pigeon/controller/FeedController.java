@@ -33,6 +33,25 @@ public class FeedController {
     return SaResult.data(feedService.listAll());
   }
 
+  @GetMapping("/{type}/page")
+  public SaResult page(@PathVariable String type,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") Integer size) {
+    FeedType feedType = feedService.resolveType(type);
+    return SaResult.data(feedService.page(feedType, cursor, size));
+  }
+
+  @GetMapping("/stats")
+  public SaResult listStats() {
+    return SaResult.data(feedService.listStats());
+  }
+
+  @GetMapping("/{type}/stats/{id}")
+  public SaResult stats(@PathVariable String type, @PathVariable String id) {
+    FeedType feedType = feedService.resolveType(type);
+    return SaResult.data(feedService.stats(feedType, id));
+  }
+
   @GetMapping("/{type}/detail/{id}")
   public SaResult detail(@PathVariable String type, @PathVariable String id) {
     FeedType feedType = feedService.resolveType(type);
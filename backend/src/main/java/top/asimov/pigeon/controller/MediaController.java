@@ -1,24 +1,34 @@
 package top.asimov.pigeon.controller;
 
 import cn.dev33.satoken.util.SaResult;
-import java.io.File;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import top.asimov.pigeon.constant.TranscodeProfile;
 import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.service.AccessStatsService;
+import top.asimov.pigeon.service.ArtworkService;
+import top.asimov.pigeon.service.MediaBandwidthLimiter;
 import top.asimov.pigeon.service.MediaService;
+import top.asimov.pigeon.service.TranscodeService;
+import top.asimov.pigeon.service.UrlSignatureService;
+import top.asimov.pigeon.util.MediaFileSender;
+import top.asimov.pigeon.util.MediaPathIndex;
 
 @Log4j2
 @RestController
@@ -26,57 +36,158 @@ import top.asimov.pigeon.service.MediaService;
 public class MediaController {
 
   private final MediaService mediaService;
+  private final UrlSignatureService urlSignatureService;
+  private final ArtworkService artworkService;
+  private final TranscodeService transcodeService;
+  private final MediaBandwidthLimiter bandwidthLimiter;
+  private final AccessStatsService accessStatsService;
 
-  public MediaController(MediaService mediaService) {
+  public MediaController(MediaService mediaService, UrlSignatureService urlSignatureService,
+      ArtworkService artworkService, TranscodeService transcodeService,
+      MediaBandwidthLimiter bandwidthLimiter, AccessStatsService accessStatsService) {
     this.mediaService = mediaService;
+    this.urlSignatureService = urlSignatureService;
+    this.artworkService = artworkService;
+    this.transcodeService = transcodeService;
+    this.bandwidthLimiter = bandwidthLimiter;
+    this.accessStatsService = accessStatsService;
   }
 
-  @GetMapping("/feed/{feedId}/cover")
-  public ResponseEntity<Resource> getFeedCover(@PathVariable String feedId) {
+  /**
+   * 地址中的 v 与当前封面版本一致时允许永久缓存，否则每次使用 ETag 校验
+   */
+  @RequestMapping(value = "/feed/{feedId}/cover", method = {RequestMethod.GET,
+      RequestMethod.HEAD})
+  public void getFeedCover(@PathVariable String feedId,
+      @RequestParam(required = false) Long v, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    MediaService.CoverFile cover = mediaService.getCachedFeedCover(feedId);
+    if (cover == null) {
+      response.setStatus(HttpStatus.NOT_FOUND.value());
+      return;
+    }
+    String cacheControl = v != null && v == cover.lastModified() / 1000
+        ? MediaFileSender.IMMUTABLE_CACHE_CONTROL : "no-cache";
     try {
-      File coverFile = mediaService.getFeedCover(feedId);
-      if (coverFile == null) {
-        return ResponseEntity.notFound().build();
+      MediaFileSender.send(request, response, cover.path(), cover.size(), cover.lastModified(),
+          getMediaTypeByFileName(cover.path().getFileName().toString()).toString(), null,
+          cacheControl);
+    } catch (NoSuchFileException e) {
+      mediaService.evictFeedCover(feedId);
+      if (!response.isCommitted()) {
+        response.reset();
+        response.setStatus(HttpStatus.NOT_FOUND.value());
       }
-      Resource resource = new FileSystemResource(coverFile);
-      MediaType mediaType = getMediaTypeByFileName(coverFile.getName());
-      return ResponseEntity.ok()
-          .contentType(mediaType)
-          .body(resource);
-    } catch (Exception e) {
-      return ResponseEntity.notFound().build();
     }
   }
 
-  @GetMapping({"/{episodeId}.mp3", "/{episodeId}.mp4","/{episodeId}.m4a"})
-  public ResponseEntity<Resource> getMediaFile(@PathVariable String episodeId) {
+  /**
+   * 本地生成的封面，文件名包含内容版本，可以永久缓存
+   */
+  @RequestMapping(value = "/artwork/{kind}/{fileName}", method = {RequestMethod.GET,
+      RequestMethod.HEAD})
+  public void getArtwork(@PathVariable String kind, @PathVariable String fileName,
+      HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Path artwork = artworkService.getArtworkFile(kind, fileName);
+    if (artwork == null) {
+      response.setStatus(HttpStatus.NOT_FOUND.value());
+      return;
+    }
     try {
-      log.info("请求媒体文件，episode ID: {}", episodeId);
-
-      File audioFile = mediaService.getAudioFile(episodeId);
-
-      Resource resource = new FileSystemResource(audioFile);
+      MediaFileSender.send(request, response, artwork, MediaType.IMAGE_JPEG_VALUE, null,
+          MediaFileSender.IMMUTABLE_CACHE_CONTROL);
+    } catch (NoSuchFileException e) {
+      if (!response.isCommitted()) {
+        response.reset();
+        response.setStatus(HttpStatus.NOT_FOUND.value());
+      }
+    }
+  }
 
-      HttpHeaders headers = new HttpHeaders();
-      String encodedFileName = URLEncoder.encode(audioFile.getName(), StandardCharsets.UTF_8)
-          .replace("+", "%20");
-      headers.add(HttpHeaders.CONTENT_DISPOSITION,
-          "inline; filename*=UTF-8''" + encodedFileName);
+  /**
+   * 带 profile 时返回低码率版本，转码任务已满时回退到原始文件。
+   * 启用带宽限制时按客户端限速，并发传输超出上限时返回 429；
+   * 访问统计在发送结束后只做内存计数
+   */
+  @RequestMapping(value = {"/{episodeId}.mp3", "/{episodeId}.mp4", "/{episodeId}.m4a",
+      "/{episodeId}.opus", "/{episodeId}.ogg"},
+      method = {RequestMethod.GET, RequestMethod.HEAD})
+  public void getMediaFile(@PathVariable String episodeId,
+      @RequestParam(required = false) String sig,
+      @RequestParam(required = false) String profile, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    if (!urlSignatureService.isMediaAccessAllowed(episodeId, sig)) {
+      response.setStatus(HttpStatus.FORBIDDEN.value());
+      return;
+    }
+    TranscodeProfile transcodeProfile;
+    try {
+      transcodeProfile = TranscodeProfile.fromKey(profile);
+    } catch (IllegalArgumentException e) {
+      response.setStatus(HttpStatus.BAD_REQUEST.value());
+      return;
+    }
+    MediaPathIndex.Entry media;
+    try {
+      media = mediaService.getMediaFile(episodeId);
+    } catch (BusinessException e) {
+      log.warn("媒体文件不可用: {}", e.getMessage());
+      response.setStatus(HttpStatus.NOT_FOUND.value());
+      return;
+    }
 
-      MediaType mediaType = getMediaTypeByFileName(audioFile.getName());
+    if (accessStatsService.isEnabled()) {
+      AccessStatsService.TrackedResponse tracked = accessStatsService.track(response);
+      try {
+        sendMedia(episodeId, media, transcodeProfile, request, tracked);
+      } finally {
+        accessStatsService.recordMediaServed(episodeId, request, tracked);
+      }
+      return;
+    }
+    sendMedia(episodeId, media, transcodeProfile, request, response);
+  }
 
-      return ResponseEntity.ok()
-          .headers(headers)
-          .contentLength(audioFile.length())
-          .contentType(mediaType)
-          .body(resource);
+  private void sendMedia(String episodeId, MediaPathIndex.Entry media,
+      TranscodeProfile transcodeProfile, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    if (!bandwidthLimiter.isEnabled() || HttpMethod.HEAD.matches(request.getMethod())) {
+      sendMediaFile(episodeId, media, transcodeProfile, request, response);
+      return;
+    }
+    MediaBandwidthLimiter.Lease lease = bandwidthLimiter.acquire(request);
+    if (lease == null) {
+      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER,
+          String.valueOf(bandwidthLimiter.getRetryAfterSeconds()));
+      return;
+    }
+    try (lease) {
+      sendMediaFile(episodeId, media, transcodeProfile, lease.request(request),
+          lease.response(response));
+    }
+  }
 
-    } catch (BusinessException e) {
-      log.error("业务异常: {}", e.getMessage());
-      return ResponseEntity.notFound().build();
-    } catch (Exception e) {
-      log.error("处理媒体文件请求时发生错误", e);
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+  private void sendMediaFile(String episodeId, MediaPathIndex.Entry media,
+      TranscodeProfile transcodeProfile, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    String encodedFileName = URLEncoder.encode(media.path().getFileName().toString(),
+        StandardCharsets.UTF_8).replace("+", "%20");
+    try {
+      if (transcodeProfile != null && transcodeService.isEnabled()
+          && transcodeService.send(episodeId, media, transcodeProfile, request, response)) {
+        return;
+      }
+      MediaFileSender.send(request, response, media.path(), media.size(), media.lastModified(),
+          media.mediaType(), "inline; filename*=UTF-8''" + encodedFileName,
+          MediaFileSender.MEDIA_CACHE_CONTROL);
+    } catch (NoSuchFileException e) {
+      // 文件已被外部删除，移出索引
+      mediaService.evictMediaFile(episodeId);
+      if (!response.isCommitted()) {
+        response.reset();
+        response.setStatus(HttpStatus.NOT_FOUND.value());
+      }
     }
   }
 
@@ -86,7 +197,7 @@ public class MediaController {
       case "mp3" -> MediaType.valueOf("audio/mpeg");
       case "m4a" -> MediaType.valueOf("audio/aac");
       case "wav" -> MediaType.valueOf("audio/wav");
-      case "ogg" -> MediaType.valueOf("audio/ogg");
+      case "ogg", "opus" -> MediaType.valueOf("audio/ogg");
       case "mp4" -> MediaType.valueOf("video/mp4");
       case "jpg", "jpeg" -> MediaType.IMAGE_JPEG;
       case "png" -> MediaType.IMAGE_PNG;
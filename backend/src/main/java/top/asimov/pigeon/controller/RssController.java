@@ -1,43 +1,186 @@
 package top.asimov.pigeon.controller;
 
-import cn.dev33.satoken.apikey.annotation.SaCheckApiKey;
+import cn.dev33.satoken.apikey.template.SaApiKeyUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import top.asimov.pigeon.constant.TranscodeProfile;
+import top.asimov.pigeon.exception.InvalidCursorException;
+import top.asimov.pigeon.model.RenderedFeed;
+import top.asimov.pigeon.service.AccessStatsService;
 import top.asimov.pigeon.service.RssService;
+import top.asimov.pigeon.service.UrlSignatureService;
 
+@Log4j2
 @RestController
 @RequestMapping("/api/rss")
-@SaCheckApiKey
 public class RssController {
 
+  private static final MediaType RSS_MEDIA_TYPE = new MediaType(MediaType.APPLICATION_XML,
+      StandardCharsets.UTF_8);
+
   private final RssService rssService;
+  private final UrlSignatureService urlSignatureService;
+  private final AccessStatsService accessStatsService;
 
-  public RssController(RssService rssService) {
+  public RssController(RssService rssService, UrlSignatureService urlSignatureService,
+      AccessStatsService accessStatsService) {
     this.rssService = rssService;
+    this.urlSignatureService = urlSignatureService;
+    this.accessStatsService = accessStatsService;
   }
 
   @GetMapping(value = "/{channelIdentification}.xml", produces = MediaType.APPLICATION_XML_VALUE)
-  public ResponseEntity<String> getRssFeed(@PathVariable String channelIdentification) {
+  public ResponseEntity<byte[]> getRssFeed(@PathVariable String channelIdentification,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String sig,
+      @RequestParam(required = false) String apikey,
+      @RequestParam(required = false) String profile,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      HttpServletRequest request) {
+    String authQuery = authorize(channelIdentification, sig, apikey);
+    TranscodeProfile transcodeProfile;
+    try {
+      transcodeProfile = TranscodeProfile.fromKey(profile);
+    } catch (IllegalArgumentException e) {
+      return invalidProfile();
+    }
     try {
-      String rssXml = rssService.generateRssFeed(channelIdentification);
-      return ResponseEntity.ok(rssXml);
+      RenderedFeed feed = rssService.getChannelFeed(channelIdentification, limit, before,
+          authQuery, transcodeProfile);
+      // 按解析后的频道ID统计，handler 与频道ID的请求计入同一订阅源
+      accessStatsService.recordFeedPoll(feed.getFeedId(), request);
+      return toResponse(feed, acceptEncoding);
+    } catch (InvalidCursorException e) {
+      return invalidPageCursor();
     } catch (Exception e) {
-      return ResponseEntity.internalServerError().body("无法生成 RSS feed。");
+      log.error("生成 RSS feed 失败: {}", channelIdentification, e);
+      return generateFailed();
     }
   }
 
   @GetMapping(value = "/playlist/{playlistId}.xml", produces = MediaType.APPLICATION_XML_VALUE)
-  public ResponseEntity<String> getPlaylistRssFeed(@PathVariable String playlistId) {
+  public ResponseEntity<byte[]> getPlaylistRssFeed(@PathVariable String playlistId,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String sig,
+      @RequestParam(required = false) String apikey,
+      @RequestParam(required = false) String profile,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      HttpServletRequest request) {
+    String authQuery = authorize(playlistId, sig, apikey);
+    TranscodeProfile transcodeProfile;
     try {
-      String rssXml = rssService.generatePlaylistRssFeed(playlistId);
-      return ResponseEntity.ok(rssXml);
+      transcodeProfile = TranscodeProfile.fromKey(profile);
+    } catch (IllegalArgumentException e) {
+      return invalidProfile();
+    }
+    try {
+      RenderedFeed feed = rssService.getPlaylistFeed(playlistId, limit, before, authQuery,
+          transcodeProfile);
+      accessStatsService.recordFeedPoll(feed.getFeedId(), request);
+      return toResponse(feed, acceptEncoding);
+    } catch (InvalidCursorException e) {
+      return invalidPageCursor();
     } catch (Exception e) {
-      return ResponseEntity.internalServerError().body("无法生成 RSS feed。");
+      log.error("生成 RSS feed 失败: {}", playlistId, e);
+      return generateFailed();
+    }
+  }
+
+  /**
+   * 优先校验订阅地址中的签名，只用内存中的密钥，无需查询数据库；
+   * 没有有效签名时回退到 API Key，兼容旧的订阅地址
+   *
+   * @return 写入翻页链接的认证参数
+   */
+  private String authorize(String feedId, String sig, String apikey) {
+    if (urlSignatureService.verifyFeed(feedId, sig)) {
+      return "sig=" + sig;
+    }
+    SaApiKeyUtil.checkApiKey(apikey);
+    return "apikey=" + URLEncoder.encode(apikey, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 带上 ETag 与 Last-Modified，Spring 会根据 If-None-Match / If-Modified-Since 自动返回 304。
+   * 客户端接受 gzip 时直接返回预先压缩的版本，不在请求时压缩
+   */
+  private ResponseEntity<byte[]> toResponse(RenderedFeed feed, String acceptEncoding) {
+    ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+        .contentType(RSS_MEDIA_TYPE)
+        .cacheControl(CacheControl.noCache())
+        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+        .lastModified(feed.getLastModified());
+    if (acceptsGzip(acceptEncoding)) {
+      return builder.eTag(feed.getGzipEtag())
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .body(feed.getGzipBody());
+    }
+    return builder.eTag(feed.getEtag()).body(feed.getBody());
+  }
+
+  /**
+   * 明确列出的 gzip 优先于通配符 *，q=0 表示拒绝
+   */
+  private boolean acceptsGzip(String acceptEncoding) {
+    if (!StringUtils.hasText(acceptEncoding)) {
+      return false;
+    }
+    Boolean wildcard = null;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      String name = parts[0].trim();
+      if ("gzip".equalsIgnoreCase(name)) {
+        return qualityOf(parts) > 0;
+      }
+      if ("*".equals(name)) {
+        wildcard = qualityOf(parts) > 0;
+      }
+    }
+    return Boolean.TRUE.equals(wildcard);
+  }
+
+  private double qualityOf(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String param = parts[i].trim();
+      if (param.startsWith("q=")) {
+        try {
+          return Double.parseDouble(param.substring(2));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
     }
+    return 1;
+  }
+
+  /**
+   * 翻页游标无法解析
+   */
+  private ResponseEntity<byte[]> invalidPageCursor() {
+    return ResponseEntity.badRequest().body("无效的翻页参数。".getBytes(StandardCharsets.UTF_8));
+  }
+
+  private ResponseEntity<byte[]> invalidProfile() {
+    return ResponseEntity.badRequest().body("无效的转码版本。".getBytes(StandardCharsets.UTF_8));
+  }
+
+  private ResponseEntity<byte[]> generateFailed() {
+    return ResponseEntity.internalServerError().body("无法生成 RSS feed。".getBytes(StandardCharsets.UTF_8));
   }
 
 }
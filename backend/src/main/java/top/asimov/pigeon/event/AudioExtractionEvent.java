@@ -0,0 +1,19 @@
+package top.asimov.pigeon.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 订阅源的下载类型由视频改为音频，需要从已下载的视频中提取音轨
+ */
+@Getter
+public class AudioExtractionEvent extends ApplicationEvent {
+
+  private final String feedId;
+
+  public AudioExtractionEvent(Object source, String feedId) {
+    super(source);
+    this.feedId = feedId;
+  }
+
+}
@@ -0,0 +1,31 @@
+package top.asimov.pigeon.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 订阅源内容发生变化（节目增删、下载完成、配置修改），用于失效 RSS 缓存。
+ * feedIds 为空表示所有订阅源都可能受影响。
+ */
+@Getter
+public class FeedContentChangedEvent extends ApplicationEvent {
+
+  private final Set<String> feedIds;
+
+  public FeedContentChangedEvent(Object source, Collection<String> feedIds) {
+    super(source);
+    this.feedIds = Set.copyOf(feedIds);
+  }
+
+  public static FeedContentChangedEvent allFeeds(Object source) {
+    return new FeedContentChangedEvent(source, Collections.emptySet());
+  }
+
+  public boolean isAllFeeds() {
+    return feedIds.isEmpty();
+  }
+
+}
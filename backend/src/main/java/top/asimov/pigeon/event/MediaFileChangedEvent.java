@@ -0,0 +1,31 @@
+package top.asimov.pigeon.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 节目的媒体文件发生变化（下载完成、删除、重新下载），用于更新媒体路径索引。
+ * episodeIds 为空表示需要与数据库整体核对。
+ */
+@Getter
+public class MediaFileChangedEvent extends ApplicationEvent {
+
+  private final Set<String> episodeIds;
+
+  public MediaFileChangedEvent(Object source, Collection<String> episodeIds) {
+    super(source);
+    this.episodeIds = Set.copyOf(episodeIds);
+  }
+
+  public static MediaFileChangedEvent allEpisodes(Object source) {
+    return new MediaFileChangedEvent(source, Collections.emptySet());
+  }
+
+  public boolean isAllEpisodes() {
+    return episodeIds.isEmpty();
+  }
+
+}
@@ -0,0 +1,16 @@
+package top.asimov.pigeon.exception;
+
+/**
+ * 分页游标无法解析
+ */
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+
+  public InvalidCursorException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+}
@@ -0,0 +1,53 @@
+package top.asimov.pigeon.mapper;
+
+import java.util.List;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import top.asimov.pigeon.model.AccessStat;
+import top.asimov.pigeon.model.AccessStatSummary;
+
+public interface AccessStatMapper {
+
+  /**
+   * 累加到对应小时的汇总行
+   */
+  @Insert("<script>"
+      + "INSERT INTO access_stats (kind, target_id, bucket_hour, hits, bytes) VALUES "
+      + "<foreach collection='stats' item='s' separator=','>"
+      + "(#{s.kind}, #{s.targetId}, #{s.bucketHour}, #{s.hits}, #{s.bytes})"
+      + "</foreach> "
+      + "ON CONFLICT(kind, target_id, bucket_hour) DO UPDATE SET "
+      + "hits = hits + excluded.hits, bytes = bytes + excluded.bytes"
+      + "</script>")
+  int upsertBatch(@Param("stats") List<AccessStat> stats);
+
+  /**
+   * 时间窗口内访问最多的对象，按 hits 或 bytes 降序
+   */
+  @Select("<script>"
+      + "SELECT s.target_id, SUM(s.hits) AS hits, SUM(s.bytes) AS bytes, "
+      + "<choose>"
+      + "<when test=\"kind == 'FEED_POLL'\">"
+      + "COALESCE((SELECT c.title FROM channel c WHERE c.id = s.target_id), "
+      + "(SELECT p.title FROM playlist p WHERE p.id = s.target_id)) "
+      + "</when>"
+      + "<when test=\"kind == 'EPISODE_DOWNLOAD'\">"
+      + "(SELECT e.title FROM episode e WHERE e.id = s.target_id) "
+      + "</when>"
+      + "<otherwise>NULL </otherwise>"
+      + "</choose>"
+      + "AS title "
+      + "FROM access_stats s "
+      + "WHERE s.kind = #{kind} AND s.bucket_hour &gt;= #{fromHour} "
+      + "GROUP BY s.target_id "
+      + "ORDER BY <if test='orderByBytes'>bytes DESC, </if>hits DESC, s.target_id "
+      + "LIMIT #{limit}"
+      + "</script>")
+  List<AccessStatSummary> selectTop(@Param("kind") String kind, @Param("fromHour") long fromHour,
+      @Param("orderByBytes") boolean orderByBytes, @Param("limit") int limit);
+
+  @Delete("DELETE FROM access_stats WHERE bucket_hour < #{beforeHour}")
+  int deleteBefore(@Param("beforeHour") long beforeHour);
+}
@@ -1,16 +1,37 @@
 package top.asimov.pigeon.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import top.asimov.pigeon.model.Channel;
 
 public interface ChannelMapper extends BaseMapper<Channel> {
 
   @Select("SELECT c.id, c.handler, c.custom_title, c.title, c.cover_url, c.custom_cover_ext, c.description, c.source, c.audio_quality, c.last_updated_at, " +
-      "max(e.published_at) as last_published_at " +
-      "FROM channel c LEFT JOIN episode e ON c.id = e.channel_id " +
-      "GROUP BY c.id, c.handler, c.custom_title, c.title, c.cover_url, c.description, c.source, c.audio_quality, c.last_updated_at " +
-      "ORDER BY (CASE WHEN last_published_at IS NULL THEN '9999' ELSE last_published_at END) DESC")
+      "s.last_published_at " +
+      "FROM channel c LEFT JOIN feed_stats s ON s.feed_type = 'CHANNEL' AND s.feed_id = c.id " +
+      "ORDER BY (CASE WHEN s.last_published_at IS NULL THEN '9999' ELSE s.last_published_at END) DESC")
   List<Channel> selectChannelsByLastUploadedAt();
+
+  @Select("<script>"
+      + "SELECT c.id, c.handler, c.custom_title, c.title, c.cover_url, c.custom_cover_ext, c.description, c.source, c.audio_quality, c.last_updated_at, "
+      + "s.last_published_at "
+      + "FROM channel c LEFT JOIN feed_stats s ON s.feed_type = 'CHANNEL' AND s.feed_id = c.id "
+      + "<if test='afterId != null'>"
+      + "<choose>"
+      + "<when test='afterPublishedAt != null'>"
+      + "WHERE s.last_published_at &lt; #{afterPublishedAt} "
+      + "OR (s.last_published_at = #{afterPublishedAt} AND c.id &lt; #{afterId}) "
+      + "</when>"
+      + "<otherwise>WHERE s.last_published_at IS NOT NULL OR c.id &lt; #{afterId} </otherwise>"
+      + "</choose>"
+      + "</if>"
+      + "ORDER BY (s.last_published_at IS NULL) DESC, s.last_published_at DESC, c.id DESC "
+      + "LIMIT #{limit}"
+      + "</script>")
+  List<Channel> selectChannelPageByLastUploadedAt(
+      @Param("afterPublishedAt") LocalDateTime afterPublishedAt, @Param("afterId") String afterId,
+      @Param("limit") int limit);
 }
@@ -0,0 +1,24 @@
+package top.asimov.pigeon.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+import top.asimov.pigeon.model.EpisodeDetail;
+
+public interface EpisodeDetailMapper extends BaseMapper<EpisodeDetail> {
+
+  @Insert("INSERT INTO episode_detail (episode_id, description) VALUES (#{episodeId}, #{description}) "
+      + "ON CONFLICT(episode_id) DO UPDATE SET description = excluded.description")
+  int upsertDescription(@Param("episodeId") String episodeId,
+      @Param("description") String description);
+
+  @Insert("INSERT INTO episode_detail (episode_id, error_log) "
+      + "VALUES (#{episodeId}, #{errorLog,typeHandler=top.asimov.pigeon.config.DeflatedStringTypeHandler}) "
+      + "ON CONFLICT(episode_id) DO UPDATE SET error_log = excluded.error_log")
+  int upsertErrorLog(@Param("episodeId") String episodeId, @Param("errorLog") String errorLog);
+
+  @Update("UPDATE episode_detail SET error_log = NULL "
+      + "WHERE episode_id = #{episodeId} AND error_log IS NOT NULL")
+  int clearErrorLog(@Param("episodeId") String episodeId);
+}
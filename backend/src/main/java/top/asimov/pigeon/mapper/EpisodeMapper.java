@@ -1,10 +1,17 @@
 package top.asimov.pigeon.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import java.time.LocalDateTime;
+import java.util.List;
 import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
 import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.model.EpisodeSearchHit;
+import top.asimov.pigeon.model.RssEpisode;
 
 public interface EpisodeMapper extends BaseMapper<Episode> {
 
@@ -25,7 +32,7 @@ public interface EpisodeMapper extends BaseMapper<Episode> {
       + "                           where a.channel_cnt > b.maximum_episodes) n"
       + "                          on m.channel_id = n.channel_id"
       + "             where m.rn <= n.minus_num)")
-  void deleteEpisodesOverChannelMaximum();
+  int deleteEpisodesOverChannelMaximum();
 
   @Update("update episode set download_status = #{downloadStatus} where id = #{id}")
   void updateDownloadStatus(String id, String downloadStatus);
@@ -42,5 +49,202 @@ public interface EpisodeMapper extends BaseMapper<Episode> {
       + "JOIN episode e ON pe.episode_id = e.id "
       + "WHERE pe.playlist_id = #{playlistId} "
       + "ORDER BY pe.published_at DESC")
-  java.util.List<Episode> selectEpisodesByPlaylistId(String playlistId);
+  List<Episode> selectEpisodesByPlaylistId(String playlistId);
+
+  /**
+   * 读取指定节目的 RSS 字段与简介，用于后台写回 item 片段
+   */
+  @Select("<script>"
+      + "SELECT e.*, d.description AS description "
+      + "FROM episode e "
+      + "LEFT JOIN episode_detail d ON d.episode_id = e.id "
+      + "WHERE e.published_at IS NOT NULL AND e.media_file_path IS NOT NULL AND e.id IN "
+      + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+      + "</script>")
+  List<RssEpisode> selectRssEpisodesByIds(@Param("ids") List<String> ids);
+
+  /**
+   * 流式读取频道下可发布到 RSS 的节目（已下载且有发布时间），可按游标与条数取窗口。
+   * 片段缓存有效时直接返回 rss_item，不再读取简介
+   */
+  @Select("<script>"
+      + "SELECT e.*, e.published_at AS sort_published_at, e.id AS sort_id, "
+      + "CASE WHEN f.render_key = #{renderKey} THEN f.xml END AS rss_item, "
+      + "CASE WHEN f.render_key = #{renderKey} THEN NULL ELSE d.description END AS description "
+      + "FROM episode e "
+      + "LEFT JOIN episode_rss_item f ON f.episode_id = e.id "
+      + "LEFT JOIN episode_detail d ON d.episode_id = e.id "
+      + "WHERE e.channel_id = #{channelId} "
+      + "AND e.published_at IS NOT NULL AND e.media_file_path IS NOT NULL "
+      + "<if test='beforeId != null'>"
+      + "AND (e.published_at &lt; #{beforePublishedAt} "
+      + "OR (e.published_at = #{beforePublishedAt} AND e.id &lt; #{beforeId})) "
+      + "</if>"
+      + "ORDER BY e.published_at DESC, e.id DESC "
+      + "<if test='limit != null'>LIMIT #{limit}</if>"
+      + "</script>")
+  @Options(fetchSize = 200)
+  Cursor<RssEpisode> cursorRssEpisodesByChannelId(@Param("channelId") String channelId,
+      @Param("renderKey") String renderKey,
+      @Param("beforePublishedAt") LocalDateTime beforePublishedAt,
+      @Param("beforeId") String beforeId, @Param("limit") Integer limit);
+
+  /**
+   * 流式读取播放列表中可发布到 RSS 的节目，按播放列表中的时间排序
+   */
+  @Select("<script>"
+      + "SELECT e.*, pe.published_at AS sort_published_at, pe.id AS sort_id, "
+      + "CASE WHEN f.render_key = #{renderKey} THEN f.xml END AS rss_item, "
+      + "CASE WHEN f.render_key = #{renderKey} THEN NULL ELSE d.description END AS description "
+      + "FROM playlist_episode pe "
+      + "JOIN episode e ON pe.episode_id = e.id "
+      + "LEFT JOIN episode_rss_item f ON f.episode_id = e.id "
+      + "LEFT JOIN episode_detail d ON d.episode_id = e.id "
+      + "WHERE pe.playlist_id = #{playlistId} "
+      + "AND e.published_at IS NOT NULL AND e.media_file_path IS NOT NULL "
+      + "<if test='beforeId != null'>"
+      + "<choose>"
+      + "<when test='beforePublishedAt != null'>"
+      + "AND (pe.published_at &lt; #{beforePublishedAt} "
+      + "OR (pe.published_at = #{beforePublishedAt} AND pe.id &lt; #{beforeId}) "
+      + "OR pe.published_at IS NULL) "
+      + "</when>"
+      + "<otherwise>AND pe.published_at IS NULL AND pe.id &lt; #{beforeId} </otherwise>"
+      + "</choose>"
+      + "</if>"
+      + "ORDER BY pe.published_at DESC, pe.id DESC "
+      + "<if test='limit != null'>LIMIT #{limit}</if>"
+      + "</script>")
+  @Options(fetchSize = 200)
+  Cursor<RssEpisode> cursorRssEpisodesByPlaylistId(@Param("playlistId") String playlistId,
+      @Param("renderKey") String renderKey,
+      @Param("beforePublishedAt") LocalDateTime beforePublishedAt,
+      @Param("beforeId") Long beforeId, @Param("limit") Integer limit);
+
+  @Select("SELECT id, duration, download_status, media_file_path, media_type, duration_seconds, "
+      + "media_size_bytes "
+      + "FROM episode "
+      + "WHERE id > #{afterId} "
+      + "AND ((duration_seconds IS NULL AND duration IS NOT NULL) "
+      + "OR ((media_size_bytes IS NULL OR media_type IS NULL) "
+      + "AND download_status = 'COMPLETED' AND media_file_path IS NOT NULL)) "
+      + "ORDER BY id LIMIT #{limit}")
+  List<Episode> selectMetadataBackfillBatch(@Param("afterId") String afterId,
+      @Param("limit") int limit);
+
+  @Update("update episode set duration_seconds = COALESCE(#{durationSeconds}, duration_seconds), "
+      + "media_size_bytes = COALESCE(#{mediaSizeBytes}, media_size_bytes), "
+      + "media_type = COALESCE(#{mediaType}, media_type) where id = #{id}")
+  int updateMediaMetadata(@Param("id") String id, @Param("durationSeconds") Integer durationSeconds,
+      @Param("mediaSizeBytes") Long mediaSizeBytes, @Param("mediaType") String mediaType);
+
+  /**
+   * 查找码率高于阈值的已下载音频：发布早于 publishedBefore，或所属订阅源占用超过 quotaBytes。
+   * 按发布时间从旧到新排列
+   */
+  @Select("<script>"
+      + "SELECT id, channel_id, title, published_at, duration_seconds, download_status, "
+      + "media_file_path, media_type, media_size_bytes "
+      + "FROM episode e "
+      + "WHERE download_status = 'COMPLETED' AND media_file_path IS NOT NULL "
+      + "AND media_type LIKE 'audio/%' AND duration_seconds &gt; 0 "
+      + "AND media_size_bytes * 8 &gt; duration_seconds * #{minBitsPerSecond} "
+      + "AND (COALESCE(published_at, created_at) &lt; #{publishedBefore} "
+      + "<if test='quotaBytes != null'>"
+      + "OR channel_id IN (SELECT feed_id FROM feed_stats "
+      + "WHERE feed_type = 'CHANNEL' AND total_bytes &gt; #{quotaBytes}) "
+      + "OR id IN (SELECT pe.episode_id FROM playlist_episode pe JOIN feed_stats s "
+      + "ON s.feed_type = 'PLAYLIST' AND s.feed_id = pe.playlist_id "
+      + "WHERE s.total_bytes &gt; #{quotaBytes}) "
+      + "</if>"
+      + ") "
+      + "ORDER BY COALESCE(published_at, created_at) LIMIT #{limit}"
+      + "</script>")
+  List<Episode> selectReencodeCandidates(@Param("publishedBefore") LocalDateTime publishedBefore,
+      @Param("quotaBytes") Long quotaBytes, @Param("minBitsPerSecond") long minBitsPerSecond,
+      @Param("limit") int limit);
+
+  /**
+   * 查找订阅源中已下载为视频的节目，用于下载类型改为音频后从本地视频提取音轨。
+   * 频道与播放列表共用同一节目的媒体文件，仍被视频类型订阅源引用的节目不返回
+   */
+  @Select("SELECT id, channel_id, title, download_status, media_file_path, media_type, "
+      + "media_size_bytes FROM episode "
+      + "WHERE download_status = 'COMPLETED' AND media_file_path IS NOT NULL "
+      + "AND media_type LIKE 'video/%' "
+      + "AND (channel_id = #{feedId} "
+      + "OR id IN (SELECT episode_id FROM playlist_episode WHERE playlist_id = #{feedId})) "
+      + "AND NOT EXISTS (SELECT 1 FROM channel c "
+      + "WHERE c.id = episode.channel_id AND c.download_type = 'VIDEO') "
+      + "AND NOT EXISTS (SELECT 1 FROM playlist_episode pe JOIN playlist p ON p.id = pe.playlist_id "
+      + "WHERE pe.episode_id = episode.id AND p.download_type = 'VIDEO')")
+  List<Episode> selectCompletedVideoEpisodes(@Param("feedId") String feedId);
+
+  /**
+   * 统计仍以视频类型引用该节目的频道与播放列表数量
+   */
+  @Select("SELECT (SELECT COUNT(1) FROM channel c JOIN episode e ON e.channel_id = c.id "
+      + "WHERE e.id = #{episodeId} AND c.download_type = 'VIDEO') "
+      + "+ (SELECT COUNT(1) FROM playlist_episode pe JOIN playlist p ON p.id = pe.playlist_id "
+      + "WHERE pe.episode_id = #{episodeId} AND p.download_type = 'VIDEO')")
+  int countVideoFeedReferences(@Param("episodeId") String episodeId);
+
+  /**
+   * 替换节目的媒体文件（重新编码、从视频提取音频），仅在文件路径未被其他操作修改时生效
+   */
+  @Update("update episode set media_file_path = #{mediaFilePath}, media_type = #{mediaType}, "
+      + "media_size_bytes = #{mediaSizeBytes} "
+      + "where id = #{id} and media_file_path = #{previousPath}")
+  int replaceMediaFile(@Param("id") String id, @Param("previousPath") String previousPath,
+      @Param("mediaFilePath") String mediaFilePath, @Param("mediaType") String mediaType,
+      @Param("mediaSizeBytes") long mediaSizeBytes);
+
+  @Select("<script>"
+      + "SELECT * FROM ("
+      + "SELECT e.id, e.channel_id, e.title, e.published_at, e.default_cover_url, e.max_cover_url, "
+      + "e.duration, e.download_status, e.media_type, "
+      + "snippet(episode_fts, 1, #{markOpen}, #{markClose}, '…', 16) AS title_snippet, "
+      + "snippet(episode_fts, 2, #{markOpen}, #{markClose}, '…', 32) AS description_snippet, "
+      + "bm25(episode_fts, 0.0, 10.0, 1.0) AS score, episode_fts.rowid AS search_rowid "
+      + "FROM episode_fts JOIN episode e ON e.rowid = episode_fts.rowid "
+      + "WHERE episode_fts MATCH #{match} "
+      + "<if test='feedId != null'>"
+      + "AND (e.channel_id = #{feedId} "
+      + "OR e.id IN (SELECT episode_id FROM playlist_episode WHERE playlist_id = #{feedId})) "
+      + "</if>"
+      + ") "
+      + "<if test='afterRowid != null'>"
+      + "WHERE score &gt; #{afterScore} OR (score = #{afterScore} AND search_rowid &gt; #{afterRowid}) "
+      + "</if>"
+      + "ORDER BY score, search_rowid LIMIT #{limit}"
+      + "</script>")
+  List<EpisodeSearchHit> searchByMatch(@Param("match") String match,
+      @Param("feedId") String feedId, @Param("markOpen") String markOpen,
+      @Param("markClose") String markClose, @Param("afterScore") Double afterScore,
+      @Param("afterRowid") Long afterRowid, @Param("limit") int limit);
+
+  /**
+   * 少于 3 个字符的词无法走 trigram 索引，退化为 LIKE 扫描，按 rowid 排序
+   */
+  @Select("<script>"
+      + "SELECT e.id, e.channel_id, e.title, e.published_at, e.default_cover_url, e.max_cover_url, "
+      + "e.duration, e.download_status, e.media_type, "
+      + "episode_fts.title AS title_snippet, episode_fts.description AS description_snippet, "
+      + "0.0 AS score, episode_fts.rowid AS search_rowid "
+      + "FROM episode_fts JOIN episode e ON e.rowid = episode_fts.rowid "
+      + "WHERE 1 = 1 "
+      + "<foreach collection='patterns' item='pattern'>"
+      + "AND (episode_fts.title LIKE #{pattern} ESCAPE '!' "
+      + "OR episode_fts.description LIKE #{pattern} ESCAPE '!') "
+      + "</foreach>"
+      + "<if test='feedId != null'>"
+      + "AND (e.channel_id = #{feedId} "
+      + "OR e.id IN (SELECT episode_id FROM playlist_episode WHERE playlist_id = #{feedId})) "
+      + "</if>"
+      + "<if test='afterRowid != null'>AND episode_fts.rowid &gt; #{afterRowid} </if>"
+      + "ORDER BY episode_fts.rowid LIMIT #{limit}"
+      + "</script>")
+  List<EpisodeSearchHit> searchByLike(@Param("patterns") List<String> patterns,
+      @Param("feedId") String feedId, @Param("afterRowid") Long afterRowid,
+      @Param("limit") int limit);
 }
@@ -0,0 +1,13 @@
+package top.asimov.pigeon.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import top.asimov.pigeon.model.EpisodeRssItem;
+
+public interface EpisodeRssItemMapper extends BaseMapper<EpisodeRssItem> {
+
+  @Insert("INSERT INTO episode_rss_item (episode_id, render_key, xml) "
+      + "VALUES (#{episodeId}, #{renderKey}, #{xml}) "
+      + "ON CONFLICT(episode_id) DO UPDATE SET render_key = excluded.render_key, xml = excluded.xml")
+  int upsert(EpisodeRssItem item);
+}
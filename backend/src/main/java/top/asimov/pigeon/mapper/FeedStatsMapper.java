@@ -0,0 +1,25 @@
+package top.asimov.pigeon.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import java.util.List;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import top.asimov.pigeon.model.FeedStats;
+
+public interface FeedStatsMapper extends BaseMapper<FeedStats> {
+
+  @Select("SELECT s.* FROM feed_stats s "
+      + "WHERE s.feed_type = #{feedType} AND s.feed_id = #{feedId}")
+  FeedStats selectByFeed(@Param("feedType") String feedType, @Param("feedId") String feedId);
+
+  @Select("SELECT s.* FROM feed_stats s JOIN channel c "
+      + "ON s.feed_type = 'CHANNEL' AND s.feed_id = c.id "
+      + "UNION ALL "
+      + "SELECT s.* FROM feed_stats s JOIN playlist p "
+      + "ON s.feed_type = 'PLAYLIST' AND s.feed_id = p.id")
+  List<FeedStats> selectSubscribed();
+
+  @Select("SELECT CASE #{feedType} WHEN 'CHANNEL' THEN (SELECT COUNT(1) FROM channel) "
+      + "ELSE (SELECT COUNT(1) FROM playlist) END")
+  long countFeeds(@Param("feedType") String feedType);
+}
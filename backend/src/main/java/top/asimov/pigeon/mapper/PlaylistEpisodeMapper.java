@@ -2,32 +2,49 @@ package top.asimov.pigeon.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
-import top.asimov.pigeon.model.Episode;
 import top.asimov.pigeon.model.PlaylistEpisode;
 
 public interface PlaylistEpisodeMapper extends BaseMapper<PlaylistEpisode> {
 
-  @Select("SELECT COUNT(1) FROM playlist_episode WHERE playlist_id = #{playlistId}")
-  long countByPlaylistId(String playlistId);
-
-  @Select("SELECT e.* FROM playlist_episode pe "
-      + "JOIN episode e ON pe.episode_id = e.id "
-      + "WHERE pe.playlist_id = #{playlistId} "
-      + "ORDER BY pe.published_at DESC "
-      + "LIMIT #{offset}, #{pageSize}")
-  List<Episode> selectEpisodePageByPlaylistId(@Param("playlistId") String playlistId,
-      @Param("offset") long offset, @Param("pageSize") long pageSize);
+  @Select("<script>"
+      + "SELECT id, playlist_id, episode_id, published_at FROM playlist_episode "
+      + "WHERE playlist_id = #{playlistId} "
+      + "<if test='afterId != null'>"
+      + "<choose>"
+      + "<when test='afterPublishedAt != null'>"
+      + "AND (published_at &lt; #{afterPublishedAt} "
+      + "OR (published_at = #{afterPublishedAt} AND id &lt; #{afterId}) "
+      + "OR published_at IS NULL) "
+      + "</when>"
+      + "<otherwise>AND published_at IS NULL AND id &lt; #{afterId} </otherwise>"
+      + "</choose>"
+      + "</if>"
+      + "ORDER BY published_at DESC, id DESC "
+      + "LIMIT #{limit}"
+      + "</script>")
+  List<PlaylistEpisode> selectKeysetByPlaylistId(@Param("playlistId") String playlistId,
+      @Param("afterPublishedAt") LocalDateTime afterPublishedAt, @Param("afterId") Long afterId,
+      @Param("limit") int limit);
 
   @Select("SELECT * FROM playlist_episode WHERE episode_id = #{episodeId} "
       + "ORDER BY published_at DESC LIMIT 1")
   PlaylistEpisode selectLatestByEpisodeId(String episodeId);
 
+  @Select("<script>"
+      + "SELECT DISTINCT playlist_id FROM playlist_episode WHERE episode_id IN "
+      + "<foreach collection='episodeIds' item='episodeId' open='(' separator=',' close=')'>"
+      + "#{episodeId}"
+      + "</foreach>"
+      + "</script>")
+  List<String> selectPlaylistIdsByEpisodeIds(@Param("episodeIds") Collection<String> episodeIds);
+
   @Select("select count(1) "
       + "from episode "
       + "where id = #{episodeId} "
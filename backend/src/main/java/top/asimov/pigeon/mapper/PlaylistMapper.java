@@ -1,7 +1,9 @@
 package top.asimov.pigeon.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import top.asimov.pigeon.model.Playlist;
 
@@ -11,16 +13,36 @@ public interface PlaylistMapper extends BaseMapper<Playlist> {
       + "p.contain_keywords, p.exclude_keywords, p.minimum_duration, p.initial_episodes, "
       + "p.maximum_episodes, p.last_sync_video_id, p.last_sync_timestamp, p.subscribed_at, "
       + "p.episode_sort, "
-      + "MAX(pe.published_at) AS last_published_at "
+      + "s.last_published_at "
       + "FROM playlist p "
-      + "LEFT JOIN playlist_episode pe ON p.id = pe.playlist_id "
-      + "GROUP BY p.id, p.owner_id, p.custom_title, p.title, p.custom_cover_ext, p.cover_url, p.description, p.source, "
-      + "p.contain_keywords, p.exclude_keywords, p.minimum_duration, p.initial_episodes, "
-      + "p.maximum_episodes, p.last_sync_video_id, p.last_sync_timestamp, p.subscribed_at, p.audio_quality, p.last_updated_at, "
-      + "p.episode_sort "
-      + "ORDER BY CASE WHEN last_published_at IS NULL THEN '9999' ELSE last_published_at END DESC")
+      + "LEFT JOIN feed_stats s ON s.feed_type = 'PLAYLIST' AND s.feed_id = p.id "
+      + "ORDER BY CASE WHEN s.last_published_at IS NULL THEN '9999' ELSE s.last_published_at END DESC")
   List<Playlist> selectPlaylistsByLastPublishedAt();
 
+  @Select("<script>"
+      + "SELECT p.id, p.owner_id, p.custom_title, p.title, p.custom_cover_ext, p.cover_url, p.description, p.source, p.audio_quality, p.last_updated_at, "
+      + "p.contain_keywords, p.exclude_keywords, p.minimum_duration, p.initial_episodes, "
+      + "p.maximum_episodes, p.last_sync_video_id, p.last_sync_timestamp, p.subscribed_at, "
+      + "p.episode_sort, "
+      + "s.last_published_at "
+      + "FROM playlist p "
+      + "LEFT JOIN feed_stats s ON s.feed_type = 'PLAYLIST' AND s.feed_id = p.id "
+      + "<if test='afterId != null'>"
+      + "<choose>"
+      + "<when test='afterPublishedAt != null'>"
+      + "WHERE s.last_published_at &lt; #{afterPublishedAt} "
+      + "OR (s.last_published_at = #{afterPublishedAt} AND p.id &lt; #{afterId}) "
+      + "</when>"
+      + "<otherwise>WHERE s.last_published_at IS NOT NULL OR p.id &lt; #{afterId} </otherwise>"
+      + "</choose>"
+      + "</if>"
+      + "ORDER BY (s.last_published_at IS NULL) DESC, s.last_published_at DESC, p.id DESC "
+      + "LIMIT #{limit}"
+      + "</script>")
+  List<Playlist> selectPlaylistPageByLastPublishedAt(
+      @Param("afterPublishedAt") LocalDateTime afterPublishedAt, @Param("afterId") String afterId,
+      @Param("limit") int limit);
+
   @Select("SELECT p.* FROM playlist p "
       + "INNER JOIN playlist_episode pe ON p.id = pe.playlist_id "
       + "WHERE pe.episode_id = #{episodeId} "
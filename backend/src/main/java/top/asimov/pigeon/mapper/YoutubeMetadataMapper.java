@@ -0,0 +1,38 @@
+package top.asimov.pigeon.mapper;
+
+import java.util.Collection;
+import java.util.List;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import top.asimov.pigeon.model.YoutubeMetadata;
+
+public interface YoutubeMetadataMapper {
+
+  /**
+   * 查询未过期的缓存
+   */
+  @Select("<script>"
+      + "SELECT resource, resource_id, payload, fetched_at, expires_at "
+      + "FROM youtube_metadata_cache "
+      + "WHERE resource = #{resource} AND expires_at &gt; #{now} AND resource_id IN "
+      + "<foreach collection='resourceIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+      + "</script>")
+  List<YoutubeMetadata> selectValid(@Param("resource") String resource,
+      @Param("resourceIds") Collection<String> resourceIds, @Param("now") long now);
+
+  @Insert("<script>"
+      + "INSERT INTO youtube_metadata_cache (resource, resource_id, payload, fetched_at, expires_at) "
+      + "VALUES "
+      + "<foreach collection='entries' item='e' separator=','>"
+      + "(#{e.resource}, #{e.resourceId}, #{e.payload}, #{e.fetchedAt}, #{e.expiresAt})"
+      + "</foreach> "
+      + "ON CONFLICT(resource, resource_id) DO UPDATE SET payload = excluded.payload, "
+      + "fetched_at = excluded.fetched_at, expires_at = excluded.expires_at"
+      + "</script>")
+  int upsertBatch(@Param("entries") List<YoutubeMetadata> entries);
+
+  @Delete("DELETE FROM youtube_metadata_cache WHERE expires_at <= #{now}")
+  int deleteExpired(@Param("now") long now);
+}
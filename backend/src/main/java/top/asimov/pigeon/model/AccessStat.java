@@ -0,0 +1,23 @@
+package top.asimov.pigeon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 按小时汇总的访问计数，对应 access_stats 表的一行
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessStat {
+
+  private String kind;
+  private String targetId;
+  private long bucketHour;
+  private long hits;
+  private long bytes;
+
+}
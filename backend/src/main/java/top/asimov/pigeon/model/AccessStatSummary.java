@@ -0,0 +1,22 @@
+package top.asimov.pigeon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 时间窗口内单个对象的访问合计，title 为订阅源或节目标题
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessStatSummary {
+
+  private String targetId;
+  private String title;
+  private long hits;
+  private long bytes;
+
+}
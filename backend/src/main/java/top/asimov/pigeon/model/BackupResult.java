@@ -0,0 +1,22 @@
+package top.asimov.pigeon.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackupResult {
+
+  private String fileName;
+  private long databaseBytes;
+  private long compressedBytes;
+  private long durationMillis;
+  private int restarts;
+  private LocalDateTime createdAt;
+
+}
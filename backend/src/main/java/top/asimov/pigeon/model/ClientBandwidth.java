@@ -0,0 +1,27 @@
+package top.asimov.pigeon.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单个客户端的媒体传输统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientBandwidth {
+
+  private String client;
+  private int activeStreams;
+  private long bytesSent;
+  // 最近一秒左右的发送速率，没有进行中的传输时为 0
+  private long bytesPerSecond;
+  // 因限速累计等待的时间
+  private long throttledMillis;
+  private LocalDateTime lastSeenAt;
+
+}
@@ -0,0 +1,19 @@
+package top.asimov.pigeon.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+  private List<T> records;
+  private String nextCursor;
+  private boolean hasMore;
+  private Long total; // 来自 feed_stats 等缓存计数，不做实时 COUNT；搜索结果不提供
+}
@@ -1,5 +1,6 @@
 package top.asimov.pigeon.model;
 
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import java.time.LocalDateTime;
@@ -19,16 +20,28 @@ public class Episode {
   private String id;
   private String channelId;
   private String title;
-  private String description;
   private LocalDateTime publishedAt;
   private String defaultCoverUrl;
   private String maxCoverUrl;
   private String duration; // in ISO 8601 format
+  private Integer durationSeconds;
   private String downloadStatus;
   private String mediaFilePath;
   private String mediaType;
-  private String errorLog;
+  private Long mediaSizeBytes;
+  private String artworkVersion;
   private Integer retryNumber;
   private LocalDateTime createdAt;
 
+  // 冷数据存放在 episode_detail，按需加载
+  @TableField(exist = false)
+  private transient String description;
+
+  @TableField(exist = false)
+  private transient String errorLog;
+
+  // 本地生成的封面缩略图地址，尚未生成时为 null
+  @TableField(exist = false)
+  private transient String artworkUrl;
+
 }
@@ -0,0 +1,30 @@
+package top.asimov.pigeon.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import top.asimov.pigeon.config.DeflatedStringTypeHandler;
+
+/**
+ * 节目的冷数据（简介、错误日志），与 episode 表一对一，按需加载
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName(value = "episode_detail", autoResultMap = true)
+public class EpisodeDetail {
+
+  @TableId(type = IdType.INPUT)
+  private String episodeId;
+  private String description;
+
+  @TableField(typeHandler = DeflatedStringTypeHandler.class)
+  private String errorLog;
+
+}
@@ -0,0 +1,26 @@
+package top.asimov.pigeon.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 已渲染的单个节目 RSS &lt;item&gt; 片段，生成订阅源时按顺序拼接
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("episode_rss_item")
+public class EpisodeRssItem {
+
+  @TableId(type = IdType.INPUT)
+  private String episodeId;
+  private String renderKey;
+  private byte[] xml;
+
+}
@@ -0,0 +1,35 @@
+package top.asimov.pigeon.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 全文搜索命中结果，snippet 字段为已转义的 HTML，命中部分以 mark 标签包裹
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EpisodeSearchHit {
+
+  private String id;
+  private String channelId;
+  private String title;
+  private LocalDateTime publishedAt;
+  private String defaultCoverUrl;
+  private String maxCoverUrl;
+  private String duration;
+  private String downloadStatus;
+  private String mediaType;
+  private String titleSnippet;
+  private String descriptionSnippet;
+  private Double score;
+
+  @JsonIgnore
+  private Long searchRowid;
+
+}
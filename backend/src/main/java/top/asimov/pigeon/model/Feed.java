@@ -24,6 +24,7 @@ public abstract class Feed {
   private String customTitle;
   private String coverUrl;
   private String customCoverExt;
+  private String artworkVersion;
   private String source;
   private String description;
   private String containKeywords;
@@ -31,6 +32,7 @@ public abstract class Feed {
   private Integer minimumDuration;
   private Integer initialEpisodes;
   private Integer maximumEpisodes;
+  private Integer rssItemLimit;
   private Integer audioQuality;
   private DownloadType downloadType;
   private String videoQuality;
@@ -53,5 +55,8 @@ public abstract class Feed {
   @TableField(exist = false)
   private transient String customCoverUrl;
 
+  @TableField(exist = false)
+  private transient String artworkUrl;
+
   public abstract FeedType getType();
 }
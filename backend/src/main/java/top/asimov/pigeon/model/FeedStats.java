@@ -0,0 +1,31 @@
+package top.asimov.pigeon.model;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 订阅源聚合统计，由 episode / playlist_episode 上的触发器随写入同步维护
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("feed_stats")
+public class FeedStats {
+
+  private String feedId;
+  private String feedType;
+  private Long episodeCount;
+  private Long pendingCount;
+  private Long downloadingCount;
+  private Long completedCount;
+  private Long failedCount;
+  private Long totalBytes;
+  private Long totalDurationSeconds;
+  private LocalDateTime lastPublishedAt;
+
+}
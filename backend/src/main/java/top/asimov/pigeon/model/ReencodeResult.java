@@ -0,0 +1,29 @@
+package top.asimov.pigeon.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 存储重新编码的执行结果，执行过程中随每个节目更新
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReencodeResult {
+
+  private boolean running;
+  private int candidates;
+  private int reencoded;
+  private int skipped;
+  private int failed;
+  private long bytesBefore;
+  private long bytesAfter;
+  private long reclaimedBytes;
+  private long durationMillis;
+  private LocalDateTime startedAt;
+
+}
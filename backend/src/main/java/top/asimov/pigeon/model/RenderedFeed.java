@@ -0,0 +1,22 @@
+package top.asimov.pigeon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 已渲染的 RSS 文档及其缓存校验信息，同时保存预先压缩的 gzip 版本
+ */
+@Getter
+@AllArgsConstructor
+public class RenderedFeed {
+
+  // 频道请求可使用 handler，这里是解析后的频道或播放列表ID
+  private final String feedId;
+  private final byte[] body;
+  private final String etag;
+  private final byte[] gzipBody;
+  private final String gzipEtag;
+  private final long lastModified;
+  private final long version;
+
+}
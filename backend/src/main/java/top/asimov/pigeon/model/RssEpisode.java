@@ -0,0 +1,19 @@
+package top.asimov.pigeon.model;
+
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 生成 RSS 时读取的节目行，片段缓存有效时附带已渲染的 &lt;item&gt;
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class RssEpisode extends Episode {
+
+  private byte[] rssItem;
+  // 分页排序键：频道为节目自身的发布时间与ID，播放列表为 playlist_episode 的发布时间与ID
+  private LocalDateTime sortPublishedAt;
+  private String sortId;
+
+}
@@ -30,6 +30,10 @@ public class User {
   @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
   private String cookiesContent;
 
+  @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+  private String urlSigningKey;
+  private Integer urlSigningVersion;
+
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
 
@@ -0,0 +1,23 @@
+package top.asimov.pigeon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缓存的 YouTube API 数据，对应 youtube_metadata_cache 表的一行
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class YoutubeMetadata {
+
+  private String resource;
+  private String resourceId;
+  private String payload;
+  private long fetchedAt;
+  private long expiresAt;
+
+}
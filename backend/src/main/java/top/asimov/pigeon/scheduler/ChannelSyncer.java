@@ -8,6 +8,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import top.asimov.pigeon.model.Channel;
 import top.asimov.pigeon.service.ChannelService;
+import top.asimov.pigeon.util.YoutubeVideoHelper;
 
 @Log4j2
 @Component
@@ -34,13 +35,16 @@ public class ChannelSyncer {
     }
 
     log.info("发现 {} 个需要同步的频道。", dueChannels.size());
-    for (Channel channel : dueChannels) {
-      try {
-        // 对每个频道执行单独的同步逻辑
-        channelService.refreshChannel(channel);
-      } catch (Exception e) {
-        log.error("同步频道 {} (ID: {}) 时发生错误。", channel.getTitle(), channel.getId(), e);
-        // 即使一个频道失败，也不应中断整个任务
+    // 先跨频道批量获取新视频的详情，各频道同步时直接复用
+    try (YoutubeVideoHelper.SyncBatch ignored = channelService.beginSyncBatch(dueChannels)) {
+      for (Channel channel : dueChannels) {
+        try {
+          // 对每个频道执行单独的同步逻辑
+          channelService.refreshChannel(channel);
+        } catch (Exception e) {
+          log.error("同步频道 {} (ID: {}) 时发生错误。", channel.getTitle(), channel.getId(), e);
+          // 即使一个频道失败，也不应中断整个任务
+        }
       }
     }
     log.info("定时同步任务执行完毕。");
@@ -0,0 +1,37 @@
+package top.asimov.pigeon.scheduler;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.service.BackupService;
+
+/**
+ * 定时生成数据库备份快照
+ */
+@Log4j2
+@Component
+public class DatabaseBackupScheduler {
+
+  private final BackupService backupService;
+
+  @Value("${pigeon.backup.enabled:true}")
+  private boolean enabled;
+
+  public DatabaseBackupScheduler(BackupService backupService) {
+    this.backupService = backupService;
+  }
+
+  @Scheduled(cron = "${pigeon.backup.cron:0 30 3 * * *}")
+  public void backup() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      backupService.backup();
+    } catch (BusinessException e) {
+      log.warn("定时数据库备份未完成: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package top.asimov.pigeon.scheduler;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQLite 定期维护：WAL 检查点截断、增量回收空闲页、刷新查询统计信息。
+ * 仅在没有下载任务运行时执行，避免长时间持有写锁。
+ */
+@Log4j2
+@Component
+public class DatabaseMaintenanceScheduler {
+
+  private static final int AUTO_VACUUM_INCREMENTAL = 2;
+  // 每个事务回收的页数与事务之间的间隔，让等待写锁的请求有机会执行
+  private static final int VACUUM_CHUNK_PAGES = 256;
+  private static final long VACUUM_CHUNK_PAUSE_MILLIS = 50;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ThreadPoolTaskExecutor downloadTaskExecutor;
+
+  @Value("${pigeon.maintenance.enabled:true}")
+  private boolean enabled;
+
+  @Value("${pigeon.maintenance.interval-hours:6}")
+  private long intervalHours;
+
+  @Value("${pigeon.maintenance.max-vacuum-pages:20000}")
+  private long maxVacuumPages;
+
+  @Value("${pigeon.maintenance.analysis-limit:400}")
+  private int analysisLimit;
+
+  private volatile Instant lastRunAt;
+
+  public DatabaseMaintenanceScheduler(JdbcTemplate jdbcTemplate,
+      @Qualifier("downloadTaskExecutor") ThreadPoolTaskExecutor downloadTaskExecutor) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.downloadTaskExecutor = downloadTaskExecutor;
+  }
+
+  /**
+   * 每30分钟检查一次，距上次维护超过配置间隔且当前空闲时执行
+   */
+  @Scheduled(fixedDelay = 30, initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+  public void maintainWhenQuiet() {
+    if (!enabled) {
+      return;
+    }
+    if (lastRunAt != null
+        && Duration.between(lastRunAt, Instant.now()).toHours() < intervalHours) {
+      return;
+    }
+    if (downloadTaskExecutor.getActiveCount() > 0) {
+      log.debug("存在进行中的下载任务，推迟数据库维护");
+      return;
+    }
+    runMaintenance();
+  }
+
+  public synchronized void runMaintenance() {
+    try {
+      jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+        maintain(connection);
+        return null;
+      });
+      lastRunAt = Instant.now();
+    } catch (Exception e) {
+      log.error("数据库维护失败: {}", e.getMessage(), e);
+    }
+  }
+
+  private void maintain(Connection connection) throws SQLException {
+    long startedAt = System.currentTimeMillis();
+    try (Statement statement = connection.createStatement()) {
+      String dbPath = queryString(statement, "PRAGMA database_list", "file");
+      long pageSize = queryLong(statement, "PRAGMA page_size");
+      long pagesBefore = queryLong(statement, "PRAGMA page_count");
+      long freeBefore = queryLong(statement, "PRAGMA freelist_count");
+      long walBefore = fileSize(dbPath + "-wal");
+
+      long reclaimedPages;
+      if (queryLong(statement, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+        // 一次性迁移：auto_vacuum 模式只能通过一次完整 VACUUM 生效
+        log.info("数据库尚未启用增量回收，执行一次性 VACUUM 迁移...");
+        statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+        statement.execute("VACUUM");
+        rebuildFullTextIndex(connection, statement);
+        reclaimedPages = Math.max(0, pagesBefore - queryLong(statement, "PRAGMA page_count"));
+      } else {
+        reclaimedPages = incrementalVacuum(connection, statement, freeBefore);
+      }
+
+      statement.execute("PRAGMA analysis_limit = " + analysisLimit);
+      statement.execute("ANALYZE");
+      statement.execute("INSERT INTO episode_fts(episode_fts) VALUES ('optimize')");
+
+      // 最后执行检查点，把本次维护产生的写入一并截断
+      try (ResultSet rs = statement.executeQuery("PRAGMA wal_checkpoint(TRUNCATE)")) {
+        if (rs.next() && rs.getInt(1) != 0) {
+          log.warn("WAL 检查点被阻塞，未能完全截断");
+        }
+      }
+
+      long pagesAfter = queryLong(statement, "PRAGMA page_count");
+      log.info("数据库维护完成，耗时 {} ms: 数据库 {} -> {} 字节, WAL {} -> {} 字节, 空闲页 {}, 回收页 {}",
+          System.currentTimeMillis() - startedAt, pagesBefore * pageSize, pagesAfter * pageSize,
+          walBefore, fileSize(dbPath + "-wal"), freeBefore, reclaimedPages);
+    }
+  }
+
+  /**
+   * 回收空闲页。JDBC 执行 incremental_vacuum 时每次 step 只回收一页，
+   * 因此循环执行，每 VACUUM_CHUNK_PAGES 页提交一次并短暂停顿，避免长时间占用写锁
+   */
+  private long incrementalVacuum(Connection connection, Statement statement, long freePages)
+      throws SQLException {
+    long pages = Math.min(freePages, maxVacuumPages);
+    for (long done = 0; done < pages; done += VACUUM_CHUNK_PAGES) {
+      if (done > 0 && !pause()) {
+        break;
+      }
+      long chunk = Math.min(VACUUM_CHUNK_PAGES, pages - done);
+      inTransaction(connection, () -> {
+        // 语句在返回一行后仍处于执行中，提交前必须关闭
+        try (Statement vacuum = connection.createStatement()) {
+          for (long i = 0; i < chunk; i++) {
+            vacuum.execute("PRAGMA incremental_vacuum(1)");
+          }
+        }
+      });
+    }
+    return pages <= 0 ? 0 : freePages - queryLong(statement, "PRAGMA freelist_count");
+  }
+
+  private boolean pause() {
+    try {
+      Thread.sleep(VACUUM_CHUNK_PAUSE_MILLIS);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * VACUUM 可能重排未声明 INTEGER PRIMARY KEY 的表的 rowid，episode_fts 以 episode.rowid 关联，需要重建
+   */
+  private void rebuildFullTextIndex(Connection connection, Statement statement)
+      throws SQLException {
+    inTransaction(connection, () -> {
+      statement.execute("DELETE FROM episode_fts");
+      statement.execute("INSERT INTO episode_fts (rowid, episode_id, title, description) "
+          + "SELECT e.rowid, e.id, e.title, d.description FROM episode e "
+          + "LEFT JOIN episode_detail d ON d.episode_id = e.id");
+    });
+  }
+
+  private void inTransaction(Connection connection, SqlWork work) throws SQLException {
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try {
+      work.run();
+      connection.commit();
+    } catch (SQLException | RuntimeException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  @FunctionalInterface
+  private interface SqlWork {
+
+    void run() throws SQLException;
+  }
+
+  private long queryLong(Statement statement, String sql) throws SQLException {
+    try (ResultSet rs = statement.executeQuery(sql)) {
+      return rs.next() ? rs.getLong(1) : 0;
+    }
+  }
+
+  private String queryString(Statement statement, String sql, String column) throws SQLException {
+    try (ResultSet rs = statement.executeQuery(sql)) {
+      return rs.next() ? rs.getString(column) : null;
+    }
+  }
+
+  private long fileSize(String path) {
+    if (path == null || path.isEmpty()) {
+      return 0;
+    }
+    File file = new File(path);
+    return file.isFile() ? file.length() : 0;
+  }
+}
@@ -2,8 +2,11 @@ package top.asimov.pigeon.scheduler;
 
 import java.util.concurrent.TimeUnit;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
+import top.asimov.pigeon.event.MediaFileChangedEvent;
 import top.asimov.pigeon.mapper.EpisodeMapper;
 
 @Log4j2
@@ -11,9 +14,11 @@ import top.asimov.pigeon.mapper.EpisodeMapper;
 public class EpisodeCleaner {
 
   private final EpisodeMapper episodeMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public EpisodeCleaner(EpisodeMapper episodeMapper) {
+  public EpisodeCleaner(EpisodeMapper episodeMapper, ApplicationEventPublisher eventPublisher) {
     this.episodeMapper = episodeMapper;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -22,7 +27,11 @@ public class EpisodeCleaner {
   @Scheduled(fixedRate = 2, timeUnit = TimeUnit.HOURS)
   public void syncDueChannels() {
     log.info("开始执行清理任务...");
-    episodeMapper.deleteEpisodesOverChannelMaximum();
+    int deleted = episodeMapper.deleteEpisodesOverChannelMaximum();
+    if (deleted > 0) {
+      eventPublisher.publishEvent(FeedContentChangedEvent.allFeeds(this));
+      eventPublisher.publishEvent(MediaFileChangedEvent.allEpisodes(this));
+    }
     log.info("清理任务执行完毕。");
   }
 }
@@ -0,0 +1,79 @@
+package top.asimov.pigeon.scheduler;
+
+import java.io.File;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.constant.EpisodeStatus;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
+import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.util.FeedEpisodeUtils;
+
+/**
+ * 启动后为历史节目补齐时长秒数、媒体文件大小与 MIME 类型，供 feed_stats 聚合与 RSS 直接使用
+ */
+@Log4j2
+@Component
+public class EpisodeMetadataBackfiller {
+
+  private static final int BATCH_SIZE = 200;
+
+  private final EpisodeMapper episodeMapper;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public EpisodeMetadataBackfiller(EpisodeMapper episodeMapper,
+      ApplicationEventPublisher eventPublisher) {
+    this.episodeMapper = episodeMapper;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    String lastId = "";
+    int updated = 0;
+    List<Episode> batch;
+    do {
+      batch = episodeMapper.selectMetadataBackfillBatch(lastId, BATCH_SIZE);
+      for (Episode episode : batch) {
+        lastId = episode.getId();
+        Integer durationSeconds = episode.getDurationSeconds() == null
+            ? FeedEpisodeUtils.parseDurationSeconds(episode.getDuration()) : null;
+        Long mediaSizeBytes = episode.getMediaSizeBytes() == null
+            ? resolveFileSize(episode.getMediaFilePath()) : null;
+        String mediaType = episode.getMediaType() == null
+            && EpisodeStatus.COMPLETED.name().equals(episode.getDownloadStatus())
+            ? FeedEpisodeUtils.resolveMediaType(episode.getMediaFilePath()) : null;
+        if (durationSeconds == null && mediaSizeBytes == null && mediaType == null) {
+          continue;
+        }
+        try {
+          updated += episodeMapper.updateMediaMetadata(episode.getId(), durationSeconds,
+              mediaSizeBytes, mediaType);
+        } catch (Exception e) {
+          log.warn("补齐节目 {} 元数据失败: {}", episode.getId(), e.getMessage());
+        }
+      }
+    } while (batch.size() == BATCH_SIZE);
+
+    if (updated > 0) {
+      log.info("已为 {} 个历史节目补齐时长、文件大小与媒体类型", updated);
+      // RSS 中的 enclosure 与时长可能随之变化
+      eventPublisher.publishEvent(FeedContentChangedEvent.allFeeds(this));
+    }
+  }
+
+  private Long resolveFileSize(String mediaFilePath) {
+    if (!StringUtils.hasText(mediaFilePath)) {
+      return null;
+    }
+    File file = new File(mediaFilePath);
+    return file.isFile() ? file.length() : null;
+  }
+}
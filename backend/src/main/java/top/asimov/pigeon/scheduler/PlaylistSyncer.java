@@ -8,6 +8,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import top.asimov.pigeon.model.Playlist;
 import top.asimov.pigeon.service.PlaylistService;
+import top.asimov.pigeon.util.YoutubeVideoHelper;
 
 @Log4j2
 @Component
@@ -30,11 +31,14 @@ public class PlaylistSyncer {
     }
 
     log.info("发现 {} 个需要同步的播放列表。", duePlaylists.size());
-    for (Playlist playlist : duePlaylists) {
-      try {
-        playlistService.refreshPlaylist(playlist);
-      } catch (Exception e) {
-        log.error("同步播放列表 {} (ID: {}) 时发生错误。", playlist.getTitle(), playlist.getId(), e);
+    try (YoutubeVideoHelper.SyncBatch ignored = playlistService.beginSyncBatch(duePlaylists)) {
+      for (Playlist playlist : duePlaylists) {
+        try {
+          playlistService.refreshPlaylist(playlist);
+        } catch (Exception e) {
+          log.error("同步播放列表 {} (ID: {}) 时发生错误。", playlist.getTitle(), playlist.getId(),
+              e);
+        }
       }
     }
     log.info("播放列表定时同步任务执行完毕。");
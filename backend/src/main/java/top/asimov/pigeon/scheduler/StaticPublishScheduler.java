@@ -0,0 +1,24 @@
+package top.asimov.pigeon.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import top.asimov.pigeon.service.StaticPublishService;
+
+/**
+ * 合并一段时间内的订阅源变化后统一写入静态发布目录，启动后的第一次执行会完整发布
+ */
+@Component
+public class StaticPublishScheduler {
+
+  private final StaticPublishService staticPublishService;
+
+  public StaticPublishScheduler(StaticPublishService staticPublishService) {
+    this.staticPublishService = staticPublishService;
+  }
+
+  @Scheduled(fixedDelayString = "${pigeon.static-publish.interval-millis:10000}",
+      initialDelay = 30000)
+  public void publish() {
+    staticPublishService.publishPending();
+  }
+}
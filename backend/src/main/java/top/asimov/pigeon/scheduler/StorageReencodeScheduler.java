@@ -0,0 +1,37 @@
+package top.asimov.pigeon.scheduler;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.service.ReencodeService;
+
+/**
+ * 定时将旧节目或超出配额订阅源中的高码率音频重新编码
+ */
+@Log4j2
+@Component
+public class StorageReencodeScheduler {
+
+  private final ReencodeService reencodeService;
+
+  @Value("${pigeon.reencode.enabled:false}")
+  private boolean enabled;
+
+  public StorageReencodeScheduler(ReencodeService reencodeService) {
+    this.reencodeService = reencodeService;
+  }
+
+  @Scheduled(cron = "${pigeon.reencode.cron:0 0 4 * * *}")
+  public void reencode() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      reencodeService.start();
+    } catch (BusinessException e) {
+      log.warn("定时存储重新编码未启动: {}", e.getMessage());
+    }
+  }
+}
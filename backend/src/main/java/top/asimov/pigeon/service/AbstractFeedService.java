@@ -1,6 +1,7 @@
 package top.asimov.pigeon.service;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.apache.logging.log4j.Logger;
@@ -10,9 +11,12 @@ import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
+import top.asimov.pigeon.constant.DownloadType;
+import top.asimov.pigeon.event.AudioExtractionEvent;
 import top.asimov.pigeon.event.DownloadTaskEvent;
 import top.asimov.pigeon.event.DownloadTaskEvent.DownloadAction;
 import top.asimov.pigeon.event.DownloadTaskEvent.DownloadTargetType;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
 import top.asimov.pigeon.exception.BusinessException;
 import top.asimov.pigeon.model.Episode;
 import top.asimov.pigeon.model.Feed;
@@ -68,6 +72,8 @@ public abstract class AbstractFeedService<F extends Feed> {
         ? DEFAULT_FETCH_NUM
         : existingFeed.getInitialEpisodes();
     Integer newInitialEpisodes = configuration.getInitialEpisodes();
+    boolean videoToAudio = existingFeed.getDownloadType() == DownloadType.VIDEO
+        && configuration.getDownloadType() == DownloadType.AUDIO;
 
     applyMutableFields(existingFeed, configuration);
 
@@ -78,6 +84,13 @@ public abstract class AbstractFeedService<F extends Feed> {
               LocaleContextHolder.getLocale()));
     }
 
+    eventPublisher().publishEvent(
+        new FeedContentChangedEvent(this, Collections.singletonList(feedId)));
+    if (videoToAudio) {
+      // 已下载的视频直接在本地提取音轨，无需重新下载
+      eventPublisher().publishEvent(new AudioExtractionEvent(this, feedId));
+    }
+
     boolean downloadHistory = newInitialEpisodes != null && newInitialEpisodes > oldInitialEpisodes;
     int downloadNumber = downloadHistory ? newInitialEpisodes - oldInitialEpisodes : 0;
     if (downloadHistory) {
@@ -95,6 +108,7 @@ public abstract class AbstractFeedService<F extends Feed> {
     existingFeed.setExcludeKeywords(configuration.getExcludeKeywords());
     existingFeed.setMinimumDuration(configuration.getMinimumDuration());
     existingFeed.setMaximumEpisodes(configuration.getMaximumEpisodes());
+    existingFeed.setRssItemLimit(configuration.getRssItemLimit());
     existingFeed.setInitialEpisodes(configuration.getInitialEpisodes());
     existingFeed.setAudioQuality(configuration.getAudioQuality());
     existingFeed.setCustomTitle(configuration.getCustomTitle());
@@ -161,6 +175,8 @@ public abstract class AbstractFeedService<F extends Feed> {
   protected void persistEpisodesAndPublish(F feed, List<Episode> episodes) {
     episodeService().saveEpisodes(prepareEpisodesForPersistence(episodes));
     afterEpisodesPersisted(feed, episodes);
+    eventPublisher().publishEvent(
+        new FeedContentChangedEvent(this, Collections.singletonList(feed.getId())));
     FeedEpisodeUtils.publishEpisodesCreated(eventPublisher(), this, episodes);
   }
 
@@ -0,0 +1,284 @@
+package top.asimov.pigeon.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.constant.AccessKind;
+import top.asimov.pigeon.mapper.AccessStatMapper;
+import top.asimov.pigeon.model.AccessStat;
+import top.asimov.pigeon.model.AccessStatSummary;
+
+/**
+ * RSS 与媒体访问统计：请求线程只对内存中的 LongAdder 计数，每分钟将增量累加到
+ * access_stats 中当前小时的汇总行，不在请求路径上访问数据库。
+ */
+@Log4j2
+@Service
+public class AccessStatsService {
+
+  private static final int FLUSH_BATCH_SIZE = 200;
+  private static final int MAX_USER_AGENT_LENGTH = 128;
+  // 内存中最多保留的计数键，超出后新的 User-Agent 合并为一项，避免被随机值撑大
+  private static final int MAX_KEYS = 10_000;
+  private static final String OTHER_USER_AGENT = "(other)";
+  private static final String UNKNOWN_USER_AGENT = "(unknown)";
+
+  private final AccessStatMapper accessStatMapper;
+  private final Map<StatKey, Counter> counters = new ConcurrentHashMap<>();
+  private volatile long lastPurgeHour;
+
+  @Value("${pigeon.analytics.enabled:true}")
+  private boolean enabled;
+
+  @Value("${pigeon.analytics.retention-days:90}")
+  private int retentionDays;
+
+  public AccessStatsService(AccessStatMapper accessStatMapper) {
+    this.accessStatMapper = accessStatMapper;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 记录一次订阅源 RSS 拉取（包括返回 304 的请求）
+   */
+  public void recordFeedPoll(String feedId, HttpServletRequest request) {
+    if (!enabled) {
+      return;
+    }
+    increment(AccessKind.FEED_POLL, feedId, 1, 0);
+    recordUserAgent(request);
+  }
+
+  /**
+   * 包装响应以统计实际发送的字节数；sendfile 发送时以 Content-Length 计
+   */
+  public TrackedResponse track(HttpServletResponse response) {
+    return new TrackedResponse(response);
+  }
+
+  /**
+   * 记录一次媒体请求。播放器会把一次收听拆成多个 Range 请求，
+   * 只有完整下载或从头开始的 Range 计为一次下载，字节数全部累计
+   */
+  public void recordMediaServed(String episodeId, HttpServletRequest request,
+      TrackedResponse response) {
+    if (!enabled || HttpMethod.HEAD.matches(request.getMethod())) {
+      return;
+    }
+    int status = response.getStatus();
+    if (status != HttpServletResponse.SC_OK && status != HttpServletResponse.SC_PARTIAL_CONTENT) {
+      return;
+    }
+    String range = request.getHeader(HttpHeaders.RANGE);
+    boolean downloadStart = status == HttpServletResponse.SC_OK
+        || (range != null && range.startsWith("bytes=0-"));
+    increment(AccessKind.EPISODE_DOWNLOAD, episodeId, downloadStart ? 1 : 0,
+        response.getBytesSent());
+    if (downloadStart) {
+      recordUserAgent(request);
+    }
+  }
+
+  /**
+   * @param hours        统计最近多少小时
+   * @param orderByBytes 按发送字节数排序，否则按次数
+   * @return 访问最多的前 limit 项
+   */
+  public List<AccessStatSummary> getTop(AccessKind kind, int hours, boolean orderByBytes,
+      int limit) {
+    // 尚未写入的增量先落库，保证结果包含最近一分钟
+    flush();
+    long fromHour = currentHour() - Math.max(1, hours) + 1;
+    return accessStatMapper.selectTop(kind.name(), fromHour, orderByBytes,
+        Math.min(Math.max(1, limit), 500));
+  }
+
+  /**
+   * 每分钟将内存计数累加到数据库，本轮没有变化的键从内存中移除
+   */
+  @Scheduled(fixedRate = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+  public synchronized void flush() {
+    if (!enabled) {
+      return;
+    }
+    long hour = currentHour();
+    List<AccessStat> stats = new ArrayList<>();
+    counters.forEach((key, counter) -> {
+      long hits = counter.hits.sumThenReset();
+      long bytes = counter.bytes.sumThenReset();
+      if (hits == 0 && bytes == 0) {
+        counters.remove(key, counter);
+        return;
+      }
+      stats.add(AccessStat.builder()
+          .kind(key.kind().name())
+          .targetId(key.targetId())
+          .bucketHour(hour)
+          .hits(hits)
+          .bytes(bytes)
+          .build());
+    });
+    try {
+      for (int from = 0; from < stats.size(); from += FLUSH_BATCH_SIZE) {
+        accessStatMapper.upsertBatch(
+            stats.subList(from, Math.min(from + FLUSH_BATCH_SIZE, stats.size())));
+      }
+      if (hour != lastPurgeHour) {
+        lastPurgeHour = hour;
+        accessStatMapper.deleteBefore(hour - (long) retentionDays * 24);
+      }
+    } catch (Exception e) {
+      // 写入失败的增量丢弃，统计数据允许少量误差
+      log.warn("写入访问统计失败，丢弃 {} 条增量: {}", stats.size(), e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  private void flushOnShutdown() {
+    flush();
+  }
+
+  private void recordUserAgent(HttpServletRequest request) {
+    String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+    if (!StringUtils.hasText(userAgent)) {
+      userAgent = UNKNOWN_USER_AGENT;
+    } else if (userAgent.length() > MAX_USER_AGENT_LENGTH) {
+      userAgent = userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+    }
+    StatKey key = new StatKey(AccessKind.USER_AGENT, userAgent);
+    if (counters.size() >= MAX_KEYS && !counters.containsKey(key)) {
+      key = new StatKey(AccessKind.USER_AGENT, OTHER_USER_AGENT);
+    }
+    add(key, 1, 0);
+  }
+
+  private void increment(AccessKind kind, String targetId, long hits, long bytes) {
+    if (targetId == null) {
+      return;
+    }
+    add(new StatKey(kind, targetId), hits, bytes);
+  }
+
+  private void add(StatKey key, long hits, long bytes) {
+    // 与 flush 移除空闲键并发时可能丢失一次计数，可以接受
+    Counter counter = counters.computeIfAbsent(key, k -> new Counter());
+    if (hits != 0) {
+      counter.hits.add(hits);
+    }
+    if (bytes != 0) {
+      counter.bytes.add(bytes);
+    }
+  }
+
+  private long currentHour() {
+    return Instant.now().getEpochSecond() / 3600;
+  }
+
+  private record StatKey(AccessKind kind, String targetId) {
+
+  }
+
+  private static final class Counter {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+  }
+
+  /**
+   * 记录 Content-Length 与经输出流写出的字节数
+   */
+  public static final class TrackedResponse extends HttpServletResponseWrapper {
+
+    private long contentLength = -1;
+    private long written;
+    private ServletOutputStream output;
+
+    private TrackedResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public void setContentLength(int len) {
+      super.setContentLength(len);
+      contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+      super.setContentLengthLong(len);
+      contentLength = len;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (output == null) {
+        ServletOutputStream delegate = super.getOutputStream();
+        output = new ServletOutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            delegate.write(b);
+            written++;
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            written += len;
+          }
+
+          @Override
+          public void flush() throws IOException {
+            delegate.flush();
+          }
+
+          @Override
+          public void close() throws IOException {
+            delegate.close();
+          }
+
+          @Override
+          public boolean isReady() {
+            return delegate.isReady();
+          }
+
+          @Override
+          public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+          }
+        };
+      }
+      return output;
+    }
+
+    /**
+     * 经输出流写出时取实际字节数，否则（sendfile）取 Content-Length
+     */
+    public long getBytesSent() {
+      if (written > 0) {
+        return written;
+      }
+      return Math.max(0, contentLength);
+    }
+  }
+}
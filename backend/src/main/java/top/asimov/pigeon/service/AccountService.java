@@ -19,10 +19,13 @@ import top.asimov.pigeon.util.PasswordUtil;
 public class AccountService {
 
   private final UserMapper userMapper;
+  private final UrlSignatureService urlSignatureService;
   private final MessageSource messageSource;
 
-  public AccountService(UserMapper userMapper, MessageSource messageSource) {
+  public AccountService(UserMapper userMapper, UrlSignatureService urlSignatureService,
+      MessageSource messageSource) {
     this.userMapper = userMapper;
+    this.urlSignatureService = urlSignatureService;
     this.messageSource = messageSource;
   }
 
@@ -53,6 +56,10 @@ public class AccountService {
     SaApiKeyUtil.saveApiKey(akModel);
     user.setApiKey(akModel.getApiKey());
     userMapper.updateById(user);
+    if (StringUtils.hasText(previousApiKey)) {
+      // 重新生成 API Key 时同时轮换 URL 签名，使已分发的订阅地址一并失效
+      urlSignatureService.rotate();
+    }
     return akModel.getApiKey();
   }
 
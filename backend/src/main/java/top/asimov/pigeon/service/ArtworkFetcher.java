@@ -0,0 +1,16 @@
+package top.asimov.pigeon.service;
+
+import java.io.IOException;
+
+/**
+ * 获取远程封面原图。默认通过 HTTP 直接下载，可注册 @Primary 的实现替换（例如经由代理或镜像站）
+ */
+public interface ArtworkFetcher {
+
+  /**
+   * @param url 封面地址
+   * @return 图片原始字节
+   * @throws IOException 下载失败或内容超出大小限制
+   */
+  byte[] fetch(String url) throws IOException;
+}
@@ -0,0 +1,445 @@
+package top.asimov.pigeon.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.PostConstruct;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.constant.FeedType;
+import top.asimov.pigeon.event.EpisodesCreatedEvent;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
+import top.asimov.pigeon.mapper.ChannelMapper;
+import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.mapper.PlaylistEpisodeMapper;
+import top.asimov.pigeon.mapper.PlaylistMapper;
+import top.asimov.pigeon.model.Channel;
+import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.model.Feed;
+import top.asimov.pigeon.model.Playlist;
+import top.asimov.pigeon.util.ImageResizer;
+
+/**
+ * 封面本地化：通过 {@link ArtworkFetcher} 下载节目与订阅源封面（自定义封面直接读取本地文件），
+ * 保存原图后生成符合播客规范的正方形大图与界面用的缩略图。
+ * <p>
+ * 文件名包含由图片来源计算出的版本，内容不变时地址不变，可以永久缓存；来源变化后版本随之变化。
+ * 生成完成后把版本写入 artwork_version，此前 RSS 与界面继续使用远程地址。
+ *
+ * <pre>
+ * {path}/episode/{节目ID}.{版本}.podcast.jpg
+ * {path}/feed/{订阅源ID}.{版本}.thumb.jpg
+ * </pre>
+ */
+@Log4j2
+@Service
+public class ArtworkService {
+
+  private static final String EPISODE = "episode";
+  private static final String FEED = "feed";
+  private static final String ORIGINAL_SUFFIX = "orig";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final Pattern OWNER_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+  private static final Pattern FILE_NAME_PATTERN = Pattern.compile(
+      "([A-Za-z0-9_-]+)\\.([0-9a-f]{12})\\.(podcast|thumb)\\.jpg");
+  private static final int VERSION_LENGTH = 12;
+  private static final float JPEG_QUALITY = 0.85f;
+  // 下载或解码失败后，在该时间内不再重试同一来源
+  private static final long RETRY_INTERVAL_MILLIS = 6 * 60 * 60 * 1000L;
+  // 累计到该数量或队列清空时，统一通知订阅源内容变化
+  private static final int PUBLISH_BATCH_SIZE = 100;
+
+  private final ArtworkFetcher artworkFetcher;
+  private final MediaService mediaService;
+  private final EpisodeMapper episodeMapper;
+  private final ChannelMapper channelMapper;
+  private final PlaylistMapper playlistMapper;
+  private final PlaylistEpisodeMapper playlistEpisodeMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TaskExecutor artworkTaskExecutor;
+
+  // 已提交尚未完成的任务，按 类型/ID/版本 去重
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+  private final Map<String, Long> failedAt = new ConcurrentHashMap<>();
+  private final Set<String> changedEpisodes = ConcurrentHashMap.newKeySet();
+  private final Set<String> changedFeeds = ConcurrentHashMap.newKeySet();
+
+  @Value("${pigeon.artwork.enabled:true}")
+  private boolean enabled;
+
+  @Value("${pigeon.artwork.path:}")
+  private String artworkPath;
+
+  @Value("${pigeon.cover-path}")
+  private String coverStoragePath;
+
+  private Path artworkRoot;
+
+  public ArtworkService(ArtworkFetcher artworkFetcher, MediaService mediaService,
+      EpisodeMapper episodeMapper, ChannelMapper channelMapper, PlaylistMapper playlistMapper,
+      PlaylistEpisodeMapper playlistEpisodeMapper, ApplicationEventPublisher eventPublisher,
+      @Qualifier("artworkTaskExecutor") TaskExecutor artworkTaskExecutor) {
+    this.artworkFetcher = artworkFetcher;
+    this.mediaService = mediaService;
+    this.episodeMapper = episodeMapper;
+    this.channelMapper = channelMapper;
+    this.playlistMapper = playlistMapper;
+    this.playlistEpisodeMapper = playlistEpisodeMapper;
+    this.eventPublisher = eventPublisher;
+    this.artworkTaskExecutor = artworkTaskExecutor;
+  }
+
+  @PostConstruct
+  private void init() {
+    artworkRoot = StringUtils.hasText(artworkPath) ? Paths.get(artworkPath)
+        : Paths.get(coverStoragePath, "artwork");
+  }
+
+  /**
+   * 节目封面的本地地址，尚未生成或来源已变化时提交生成任务并返回 null
+   *
+   * @param episode 节目，需要包含封面地址与 artworkVersion
+   * @param variant 封面尺寸
+   * @return 以 /media/artwork 开头的相对地址
+   */
+  public String getEpisodeArtworkUrl(Episode episode, Variant variant) {
+    if (!enabled) {
+      return null;
+    }
+    ArtworkJob job = episodeJob(episode);
+    return job == null ? null : resolve(job, episode.getArtworkVersion(), variant);
+  }
+
+  /**
+   * 订阅源封面的本地地址，自定义封面优先，尚未生成时提交生成任务并返回 null
+   */
+  public String getFeedArtworkUrl(Feed feed, Variant variant) {
+    if (!enabled) {
+      return null;
+    }
+    ArtworkJob job = feedJob(feed);
+    return job == null ? null : resolve(job, feed.getArtworkVersion(), variant);
+  }
+
+  public void applyArtworkUrl(Episode episode) {
+    episode.setArtworkUrl(getEpisodeArtworkUrl(episode, Variant.THUMB));
+  }
+
+  public void applyArtworkUrl(Feed feed) {
+    feed.setArtworkUrl(getFeedArtworkUrl(feed, Variant.THUMB));
+  }
+
+  /**
+   * 根据请求路径查找已生成的封面文件，文件名不合法或不存在时返回 null
+   */
+  public Path getArtworkFile(String kind, String fileName) {
+    if (!EPISODE.equals(kind) && !FEED.equals(kind)) {
+      return null;
+    }
+    if (!FILE_NAME_PATTERN.matcher(fileName).matches()) {
+      return null;
+    }
+    Path file = artworkRoot.resolve(kind).resolve(fileName);
+    return Files.isRegularFile(file) ? file : null;
+  }
+
+  /**
+   * 启动后为缺少本地封面的节目与订阅源提交生成任务，并清理已删除对象的封面文件
+   */
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void scheduleMissingArtwork() {
+    if (!enabled) {
+      return;
+    }
+    long snapshotAt = System.currentTimeMillis();
+    List<Episode> episodes = episodeMapper.selectList(new LambdaQueryWrapper<Episode>()
+        .select(Episode::getId, Episode::getMaxCoverUrl, Episode::getDefaultCoverUrl,
+            Episode::getArtworkVersion));
+    List<Feed> feeds = new ArrayList<>();
+    feeds.addAll(channelMapper.selectList(null));
+    feeds.addAll(playlistMapper.selectList(null));
+
+    Set<String> episodeIds = new HashSet<>();
+    for (Episode episode : episodes) {
+      episodeIds.add(episode.getId());
+      getEpisodeArtworkUrl(episode, Variant.PODCAST);
+    }
+    Set<String> feedIds = new HashSet<>();
+    for (Feed feed : feeds) {
+      feedIds.add(feed.getId());
+      getFeedArtworkUrl(feed, Variant.PODCAST);
+    }
+    pruneOrphans(EPISODE, episodeIds, snapshotAt);
+    pruneOrphans(FEED, feedIds, snapshotAt);
+    log.info("封面本地化任务已提交: 待处理 {} 个", pending.size());
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onEpisodesCreated(EpisodesCreatedEvent event) {
+    if (!enabled || event.getEpisodeIds().isEmpty()) {
+      return;
+    }
+    episodeMapper.selectList(new LambdaQueryWrapper<Episode>()
+            .select(Episode::getId, Episode::getMaxCoverUrl, Episode::getDefaultCoverUrl,
+                Episode::getArtworkVersion)
+            .in(Episode::getId, event.getEpisodeIds()))
+        .forEach(episode -> getEpisodeArtworkUrl(episode, Variant.PODCAST));
+  }
+
+  private ArtworkJob episodeJob(Episode episode) {
+    String url = StringUtils.hasText(episode.getMaxCoverUrl()) ? episode.getMaxCoverUrl()
+        : episode.getDefaultCoverUrl();
+    if (!StringUtils.hasText(url) || !isValidOwnerId(episode.getId())) {
+      return null;
+    }
+    return new ArtworkJob(EPISODE, episode.getId(), null, versionOf(url), url, null);
+  }
+
+  private ArtworkJob feedJob(Feed feed) {
+    if (!isValidOwnerId(feed.getId())) {
+      return null;
+    }
+    if (StringUtils.hasText(feed.getCustomCoverExt())) {
+      try {
+        MediaService.CoverFile cover = mediaService.getCachedFeedCover(feed.getId());
+        if (cover != null) {
+          // 自定义封面以修改时间区分版本，重新上传后生成新的文件
+          return new ArtworkJob(FEED, feed.getId(), feed.getType(),
+              versionOf("cover:" + cover.lastModified()), null, cover.path());
+        }
+      } catch (IOException e) {
+        log.warn("读取订阅源 {} 的自定义封面失败: {}", feed.getId(), e.getMessage());
+      }
+    }
+    if (!StringUtils.hasText(feed.getCoverUrl())) {
+      return null;
+    }
+    return new ArtworkJob(FEED, feed.getId(), feed.getType(), versionOf(feed.getCoverUrl()),
+        feed.getCoverUrl(), null);
+  }
+
+  private String resolve(ArtworkJob job, String readyVersion, Variant variant) {
+    if (job.version().equals(readyVersion)) {
+      return "/media/artwork/" + job.kind() + "/" + fileName(job, variant.suffix() + ".jpg");
+    }
+    schedule(job);
+    return null;
+  }
+
+  private void schedule(ArtworkJob job) {
+    String key = job.key();
+    Long failed = failedAt.get(key);
+    if (failed != null && System.currentTimeMillis() - failed < RETRY_INTERVAL_MILLIS) {
+      return;
+    }
+    if (!pending.add(key)) {
+      return;
+    }
+    try {
+      artworkTaskExecutor.execute(() -> process(job));
+    } catch (RejectedExecutionException e) {
+      pending.remove(key);
+    }
+  }
+
+  private void process(ArtworkJob job) {
+    try {
+      byte[] original = job.file() != null ? Files.readAllBytes(job.file())
+          : artworkFetcher.fetch(job.url());
+      BufferedImage image = ImageResizer.read(original);
+      Path dir = artworkRoot.resolve(job.kind());
+      Files.createDirectories(dir);
+      writeAtomically(dir.resolve(fileName(job, ORIGINAL_SUFFIX)), original);
+      for (Variant variant : Variant.values()) {
+        writeAtomically(dir.resolve(fileName(job, variant.suffix() + ".jpg")),
+            ImageResizer.writeJpeg(variant.resize(image), JPEG_QUALITY));
+      }
+      markReady(job);
+      deleteOtherVersions(dir, job);
+      failedAt.remove(job.key());
+      log.debug("封面已生成: {}/{}", job.kind(), job.ownerId());
+    } catch (Exception e) {
+      failedAt.put(job.key(), System.currentTimeMillis());
+      log.warn("封面生成失败 {}/{}: {}", job.kind(), job.ownerId(), e.getMessage());
+    } finally {
+      pending.remove(job.key());
+      if (pending.isEmpty() || changedEpisodes.size() + changedFeeds.size()
+          >= PUBLISH_BATCH_SIZE) {
+        publishChanges();
+      }
+    }
+  }
+
+  /**
+   * 写入版本号后，episode 上的触发器会删除该节目已缓存的 RSS 片段
+   */
+  private void markReady(ArtworkJob job) {
+    if (EPISODE.equals(job.kind())) {
+      episodeMapper.update(null, new LambdaUpdateWrapper<Episode>()
+          .eq(Episode::getId, job.ownerId())
+          .set(Episode::getArtworkVersion, job.version()));
+      changedEpisodes.add(job.ownerId());
+      return;
+    }
+    if (job.feedType() == FeedType.PLAYLIST) {
+      playlistMapper.update(null, new LambdaUpdateWrapper<Playlist>()
+          .eq(Playlist::getId, job.ownerId())
+          .set(Playlist::getArtworkVersion, job.version()));
+    } else {
+      channelMapper.update(null, new LambdaUpdateWrapper<Channel>()
+          .eq(Channel::getId, job.ownerId())
+          .set(Channel::getArtworkVersion, job.version()));
+    }
+    changedFeeds.add(job.ownerId());
+  }
+
+  /**
+   * 合并通知受影响的订阅源，避免批量生成时反复失效 RSS 缓存
+   */
+  private void publishChanges() {
+    Set<String> feedIds = new HashSet<>(changedFeeds);
+    changedFeeds.removeAll(feedIds);
+    List<String> episodeIds = new ArrayList<>(changedEpisodes);
+    changedEpisodes.removeAll(episodeIds);
+    try {
+      if (!episodeIds.isEmpty()) {
+        episodeMapper.selectList(new LambdaQueryWrapper<Episode>()
+                .select(Episode::getId, Episode::getChannelId)
+                .in(Episode::getId, episodeIds))
+            .forEach(episode -> {
+              if (StringUtils.hasText(episode.getChannelId())) {
+                feedIds.add(episode.getChannelId());
+              }
+            });
+        feedIds.addAll(playlistEpisodeMapper.selectPlaylistIdsByEpisodeIds(episodeIds));
+      }
+      if (!feedIds.isEmpty()) {
+        eventPublisher.publishEvent(new FeedContentChangedEvent(this, feedIds));
+      }
+    } catch (Exception e) {
+      log.warn("通知封面变化失败: {}", e.getMessage());
+    }
+  }
+
+  private void deleteOtherVersions(Path dir, ArtworkJob job) {
+    String current = job.ownerId() + "." + job.version() + ".";
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, job.ownerId() + ".*")) {
+      for (Path entry : stream) {
+        String name = entry.getFileName().toString();
+        // ID 中不含 '.'，前缀匹配不会误删其他对象的文件
+        if (!name.startsWith(current)) {
+          Files.deleteIfExists(entry);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("清理旧封面失败 {}/{}: {}", job.kind(), job.ownerId(), e.getMessage());
+    }
+  }
+
+  /**
+   * 只清理查询前已存在的文件，查询之后新增的节目可能已经生成了封面
+   */
+  private void pruneOrphans(String kind, Set<String> ownerIds, long snapshotAt) {
+    Path dir = artworkRoot.resolve(kind);
+    if (!Files.isDirectory(dir)) {
+      return;
+    }
+    int removed = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      for (Path entry : stream) {
+        String name = entry.getFileName().toString();
+        int dot = name.indexOf('.');
+        if (dot > 0 && !ownerIds.contains(name.substring(0, dot))
+            && Files.getLastModifiedTime(entry).toMillis() < snapshotAt) {
+          Files.deleteIfExists(entry);
+          removed++;
+        }
+      }
+    } catch (IOException e) {
+      log.warn("清理封面目录失败 {}: {}", dir, e.getMessage());
+    }
+    if (removed > 0) {
+      log.info("已清理 {} 个不再使用的封面文件: {}", removed, dir);
+    }
+  }
+
+  private void writeAtomically(Path target, byte[] content) throws IOException {
+    Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+    Files.write(temp, content);
+    try {
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static String fileName(ArtworkJob job, String suffix) {
+    return job.ownerId() + "." + job.version() + "." + suffix;
+  }
+
+  private static String versionOf(String source) {
+    return DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8))
+        .substring(0, VERSION_LENGTH);
+  }
+
+  private static boolean isValidOwnerId(String ownerId) {
+    return ownerId != null && OWNER_ID_PATTERN.matcher(ownerId).matches();
+  }
+
+  /**
+   * 封面尺寸。播客目录要求 1400 到 3000 像素的正方形图片，界面只需要较小的缩略图
+   */
+  public enum Variant {
+    PODCAST,
+    THUMB;
+
+    private String suffix() {
+      return name().toLowerCase();
+    }
+
+    private BufferedImage resize(BufferedImage source) {
+      return this == PODCAST ? ImageResizer.squareCrop(source, 1400, 3000)
+          : ImageResizer.fitWidth(source, 640);
+    }
+  }
+
+  /**
+   * 一次封面生成任务：url 与 file 二选一，feedType 仅订阅源使用
+   */
+  private record ArtworkJob(String kind, String ownerId, FeedType feedType, String version,
+      String url, Path file) {
+
+    String key() {
+      return kind + "/" + ownerId + "/" + version;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package top.asimov.pigeon.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import top.asimov.pigeon.event.AudioExtractionEvent;
+import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.model.Episode;
+
+/**
+ * 从本地已下载的视频中直接复制音轨（ffmpeg -vn -c:a copy）生成 m4a，不访问网络也不重新编码。
+ * 视频中的音轨不是 AAC 时无法复制到 m4a，保留原视频文件。
+ */
+@Log4j2
+@Service
+public class AudioExtractionService {
+
+  private static final String TEMP_SUFFIX = ".extract.tmp";
+  private static final String AUDIO_EXTENSION = "m4a";
+  private static final String AUDIO_MIME_TYPE = "audio/aac";
+
+  private final EpisodeMapper episodeMapper;
+  private final EpisodeService episodeService;
+  private final TaskExecutor audioExtractTaskExecutor;
+  // 已排队或正在处理的订阅源，避免重复提交
+  private final Set<String> pendingFeeds = ConcurrentHashMap.newKeySet();
+
+  public AudioExtractionService(EpisodeMapper episodeMapper, EpisodeService episodeService,
+      @Qualifier("audioExtractTaskExecutor") TaskExecutor audioExtractTaskExecutor) {
+    this.episodeMapper = episodeMapper;
+    this.episodeService = episodeService;
+    this.audioExtractTaskExecutor = audioExtractTaskExecutor;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onAudioExtraction(AudioExtractionEvent event) {
+    String feedId = event.getFeedId();
+    if (!pendingFeeds.add(feedId)) {
+      return;
+    }
+    audioExtractTaskExecutor.execute(() -> {
+      try {
+        extractFeed(feedId);
+      } finally {
+        pendingFeeds.remove(feedId);
+      }
+    });
+  }
+
+  /**
+   * 将视频的音轨复制为同名 m4a 文件
+   *
+   * @return 是否成功生成音频文件
+   */
+  public boolean extract(Path video, Path audio) {
+    Path temp = audio.resolveSibling(audio.getFileName() + TEMP_SUFFIX);
+    try {
+      List<String> command = List.of("ffmpeg", "-nostdin", "-hide_banner", "-loglevel", "error",
+          "-y", "-i", video.toString(), "-vn", "-map", "0:a:0", "-c:a", "copy",
+          "-map_metadata", "0", "-f", "ipod", "-movflags", "+faststart", temp.toString());
+      Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+      String output = new String(process.getInputStream().readAllBytes(),
+          StandardCharsets.UTF_8).trim();
+      int exitCode = process.waitFor();
+      if (exitCode != 0 || !Files.isRegularFile(temp) || Files.size(temp) == 0) {
+        log.warn("从视频提取音频失败，退出码 {}: {} {}", exitCode, video, output);
+        return false;
+      }
+      moveAtomically(temp, audio);
+      return true;
+    } catch (IOException e) {
+      log.warn("从视频提取音频失败: {} {}", video, e.getMessage());
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      try {
+        Files.deleteIfExists(temp);
+      } catch (IOException e) {
+        log.debug("删除临时文件失败: {}", temp);
+      }
+    }
+  }
+
+  /**
+   * 将订阅源中已下载为视频的节目逐个转换为音频，成功后删除原视频
+   */
+  private void extractFeed(String feedId) {
+    List<Episode> episodes = episodeMapper.selectCompletedVideoEpisodes(feedId);
+    if (episodes.isEmpty()) {
+      return;
+    }
+    log.info("开始从本地视频提取音频: 订阅源 {}，{} 个节目", feedId, episodes.size());
+    long startedAt = System.currentTimeMillis();
+    int converted = 0;
+    for (Episode episode : episodes) {
+      Path video = Paths.get(episode.getMediaFilePath());
+      if (!Files.isRegularFile(video)) {
+        continue;
+      }
+      Path audio = audioPathFor(video);
+      if (!extract(video, audio)) {
+        continue;
+      }
+      try {
+        int updated = episodeMapper.replaceMediaFile(episode.getId(),
+            episode.getMediaFilePath(), audio.toString(), AUDIO_MIME_TYPE, Files.size(audio));
+        if (updated == 0) {
+          // 节目在转换期间被删除或重新下载
+          Files.deleteIfExists(audio);
+          continue;
+        }
+        // 先更新媒体索引与 RSS，再删除原视频，避免继续指向已删除的文件
+        episodeService.publishFeedContentChanged(List.of(episode));
+        Files.deleteIfExists(video);
+        converted++;
+      } catch (IOException e) {
+        log.warn("替换节目 {} 的媒体文件失败: {}", episode.getId(), e.getMessage());
+      }
+    }
+    log.info("从本地视频提取音频完成: 订阅源 {}，成功 {}/{} 个，耗时 {} ms", feedId,
+        converted, episodes.size(), System.currentTimeMillis() - startedAt);
+  }
+
+  /**
+   * 与视频同目录、同名的 m4a 路径
+   */
+  private Path audioPathFor(Path video) {
+    String fileName = video.getFileName().toString();
+    int dot = fileName.lastIndexOf('.');
+    String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+    return video.resolveSibling(baseName + "." + AUDIO_EXTENSION);
+  }
+
+  private void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
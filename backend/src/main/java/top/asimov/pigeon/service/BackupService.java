@@ -0,0 +1,213 @@
+package top.asimov.pigeon.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.model.BackupResult;
+
+/**
+ * 基于 SQLite 在线备份 API 的数据库备份。
+ * 每次只复制少量页并在步骤之间让出，WAL 模式下读取源库不会阻塞写入。
+ */
+@Log4j2
+@Service
+public class BackupService {
+
+  private static final String FILE_PREFIX = "pigeon-pod-";
+  private static final String FILE_SUFFIX = ".db.gz";
+  private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern(
+      "yyyyMMdd-HHmmss");
+  // 源库被其他连接修改时备份会从头开始，超过该次数后不再让出，尽快完成
+  private static final int MAX_YIELDING_RESTARTS = 5;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final MessageSource messageSource;
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  @Value("${pigeon.backup.path:}")
+  private String backupPath;
+
+  @Value("${pigeon.backup.retention:7}")
+  private int retention;
+
+  @Value("${pigeon.backup.pages-per-step:256}")
+  private int pagesPerStep;
+
+  @Value("${pigeon.backup.step-pause-millis:20}")
+  private int stepPauseMillis;
+
+  public BackupService(JdbcTemplate jdbcTemplate, MessageSource messageSource) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.messageSource = messageSource;
+  }
+
+  /**
+   * 立即执行一次备份，生成带时间戳的 gzip 快照并按保留数量清理旧备份
+   *
+   * @return 备份结果
+   */
+  public BackupResult backup() {
+    if (!running.compareAndSet(false, true)) {
+      throw new BusinessException(messageSource.getMessage("backup.in.progress", null,
+          LocaleContextHolder.getLocale()));
+    }
+    try {
+      return doBackup();
+    } catch (BusinessException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("数据库备份失败: {}", e.getMessage(), e);
+      throw new BusinessException(messageSource.getMessage("backup.failed",
+          new Object[]{e.getMessage()}, LocaleContextHolder.getLocale()));
+    } finally {
+      running.set(false);
+    }
+  }
+
+  /**
+   * 列出已有备份，最新的在前
+   */
+  public List<BackupResult> listBackups() throws IOException {
+    Path directory = resolveBackupDirectory();
+    List<BackupResult> backups = new ArrayList<>();
+    for (Path file : listBackupFiles(directory)) {
+      backups.add(BackupResult.builder()
+          .fileName(file.getFileName().toString())
+          .compressedBytes(Files.size(file))
+          .createdAt(LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(),
+              ZoneId.systemDefault()))
+          .build());
+    }
+    return backups;
+  }
+
+  private BackupResult doBackup() throws IOException {
+    long startedAt = System.currentTimeMillis();
+    Path directory = resolveBackupDirectory();
+    Files.createDirectories(directory);
+
+    LocalDateTime now = LocalDateTime.now();
+    String baseName = FILE_PREFIX + TIMESTAMP.format(now);
+    Path snapshot = directory.resolve(baseName + ".db.tmp");
+    Path compressedPart = directory.resolve(baseName + FILE_SUFFIX + ".part");
+    Path target = directory.resolve(baseName + FILE_SUFFIX);
+
+    AtomicInteger restarts = new AtomicInteger();
+    try {
+      copyDatabase(snapshot, restarts);
+      long databaseBytes = Files.size(snapshot);
+
+      try (InputStream in = Files.newInputStream(snapshot);
+          OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedPart), 65536)) {
+        in.transferTo(out);
+      }
+      Files.move(compressedPart, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+
+      BackupResult result = BackupResult.builder()
+          .fileName(target.getFileName().toString())
+          .databaseBytes(databaseBytes)
+          .compressedBytes(Files.size(target))
+          .durationMillis(System.currentTimeMillis() - startedAt)
+          .restarts(restarts.get())
+          .createdAt(now)
+          .build();
+      log.info("数据库备份完成: {}, 原始 {} 字节, 压缩后 {} 字节, 耗时 {} ms, 重新开始 {} 次",
+          result.getFileName(), result.getDatabaseBytes(), result.getCompressedBytes(),
+          result.getDurationMillis(), result.getRestarts());
+      pruneOldBackups(directory);
+      return result;
+    } finally {
+      Files.deleteIfExists(snapshot);
+      Files.deleteIfExists(compressedPart);
+    }
+  }
+
+  private void copyDatabase(Path snapshot, AtomicInteger restarts) {
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      DB db = connection.unwrap(SQLiteConnection.class).getDatabase();
+      int[] lastRemaining = {Integer.MAX_VALUE};
+      DB.ProgressObserver observer = (remaining, pageCount) -> {
+        if (remaining > lastRemaining[0]) {
+          restarts.incrementAndGet();
+        }
+        lastRemaining[0] = remaining;
+        // 在两个步骤之间让出，给写入留出空隙
+        if (remaining > 0 && restarts.get() < MAX_YIELDING_RESTARTS && stepPauseMillis > 0) {
+          try {
+            Thread.sleep(stepPauseMillis);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      };
+      // busy 时每次等待 100ms，最多重试 50 次
+      int rc = db.backup("main", snapshot.toString(), observer, 100, 50, pagesPerStep);
+      if (rc != 0) {
+        throw new IllegalStateException("sqlite backup returned code " + rc);
+      }
+      return null;
+    });
+  }
+
+  private void pruneOldBackups(Path directory) throws IOException {
+    List<Path> backups = listBackupFiles(directory);
+    for (int i = Math.max(retention, 1); i < backups.size(); i++) {
+      Files.deleteIfExists(backups.get(i));
+      log.info("已删除过期备份: {}", backups.get(i).getFileName());
+    }
+  }
+
+  private List<Path> listBackupFiles(Path directory) throws IOException {
+    List<Path> files = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return files;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+        FILE_PREFIX + "*" + FILE_SUFFIX)) {
+      stream.forEach(files::add);
+    }
+    // 文件名中的时间戳可以直接按字典序排序
+    files.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed());
+    return files;
+  }
+
+  /**
+   * 未配置备份目录时，使用数据库文件所在目录下的 backup 子目录
+   */
+  private Path resolveBackupDirectory() {
+    if (StringUtils.hasText(backupPath)) {
+      return Paths.get(backupPath);
+    }
+    String databaseFile = jdbcTemplate.query("PRAGMA database_list",
+        rs -> rs.next() ? rs.getString("file") : null);
+    Path parent = StringUtils.hasText(databaseFile)
+        ? Paths.get(databaseFile).toAbsolutePath().getParent() : null;
+    return (parent != null ? parent : Paths.get(".")).resolve("backup");
+  }
+}
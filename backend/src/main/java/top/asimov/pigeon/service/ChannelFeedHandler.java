@@ -9,6 +9,7 @@ import top.asimov.pigeon.model.Channel;
 import top.asimov.pigeon.model.FeedConfigUpdateResult;
 import top.asimov.pigeon.model.FeedPack;
 import top.asimov.pigeon.model.FeedSaveResult;
+import top.asimov.pigeon.util.PageCursor;
 
 @Component
 public class ChannelFeedHandler extends AbstractFeedHandler<Channel> {
@@ -31,6 +32,11 @@ public class ChannelFeedHandler extends AbstractFeedHandler<Channel> {
     return channelService.selectChannelList();
   }
 
+  @Override
+  public List<Channel> page(PageCursor after, int limit) {
+    return channelService.selectChannelPage(after, limit);
+  }
+
   @Override
   public Channel detail(String id) {
     return channelService.channelDetail(id);
@@ -25,6 +25,7 @@ import top.asimov.pigeon.model.FeedConfigUpdateResult;
 import top.asimov.pigeon.model.FeedPack;
 import top.asimov.pigeon.model.FeedSaveResult;
 import top.asimov.pigeon.util.FeedEpisodeUtils;
+import top.asimov.pigeon.util.PageCursor;
 import top.asimov.pigeon.util.YoutubeHelper;
 import top.asimov.pigeon.util.YoutubeVideoHelper;
 
@@ -38,18 +39,18 @@ public class ChannelService extends AbstractFeedService<Channel> {
   private final ChannelMapper channelMapper;
   private final YoutubeHelper youtubeHelper;
   private final YoutubeVideoHelper youtubeVideoHelper;
-  private final AccountService accountService;
+  private final UrlSignatureService urlSignatureService;
   private final MessageSource messageSource;
 
   public ChannelService(ChannelMapper channelMapper, EpisodeService episodeService,
       ApplicationEventPublisher eventPublisher, YoutubeHelper youtubeHelper,
-      YoutubeVideoHelper youtubeVideoHelper, AccountService accountService,
+      YoutubeVideoHelper youtubeVideoHelper, UrlSignatureService urlSignatureService,
       MessageSource messageSource) {
     super(episodeService, eventPublisher, messageSource);
     this.channelMapper = channelMapper;
     this.youtubeHelper = youtubeHelper;
     this.youtubeVideoHelper = youtubeVideoHelper;
-    this.accountService = accountService;
+    this.urlSignatureService = urlSignatureService;
     this.messageSource = messageSource;
   }
 
@@ -70,6 +71,18 @@ public class ChannelService extends AbstractFeedService<Channel> {
     return channelMapper.selectChannelsByLastUploadedAt();
   }
 
+  /**
+   * 按最后上传时间游标分页获取频道列表
+   *
+   * @param after 上一页最后一个频道的游标，为 null 时从头开始
+   * @param limit 返回条数
+   * @return 频道列表
+   */
+  public List<Channel> selectChannelPage(PageCursor after, int limit) {
+    return channelMapper.selectChannelPageByLastUploadedAt(
+        after == null ? null : after.publishedAt(), after == null ? null : after.id(), limit);
+  }
+
   /**
    * 获取频道详情
    *
@@ -118,13 +131,9 @@ public class ChannelService extends AbstractFeedService<Channel> {
           messageSource.getMessage("channel.not.found", new Object[]{channelId},
               LocaleContextHolder.getLocale()));
     }
-    String apiKey = accountService.getApiKey();
-    if (ObjectUtils.isEmpty(apiKey)) {
-      throw new BusinessException(
-          messageSource.getMessage("channel.api.key.failed", null,
-              LocaleContextHolder.getLocale()));
-    }
-    return appBaseUrl + "/api/rss/" + channelId + ".xml?apikey=" + apiKey;
+    // 签名只依赖频道ID与密钥版本，校验时无需查询 API Key
+    return appBaseUrl + "/api/rss/" + channelId + ".xml?sig="
+        + urlSignatureService.signFeed(channelId);
   }
 
   /**
@@ -210,6 +219,15 @@ public class ChannelService extends AbstractFeedService<Channel> {
         .collect(Collectors.toList());
   }
 
+  /**
+   * 为本轮定时同步批量预取各频道的新视频，详见 {@link YoutubeVideoHelper#beginSyncBatch}
+   */
+  public YoutubeVideoHelper.SyncBatch beginSyncBatch(List<Channel> channels) {
+    return youtubeVideoHelper.beginSyncBatch(channels.stream()
+        .map(c -> new YoutubeVideoHelper.SyncSource(c.getId(), null, c.getLastSyncVideoId()))
+        .toList());
+  }
+
   /**
    * 删除频道及其所有关联资源
    *
@@ -0,0 +1,193 @@
+package top.asimov.pigeon.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.HtmlUtils;
+import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.exception.InvalidCursorException;
+import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.model.CursorPage;
+import top.asimov.pigeon.model.EpisodeSearchHit;
+import top.asimov.pigeon.util.SearchCursor;
+
+/**
+ * 基于 episode_fts（FTS5 trigram）的节目全文搜索
+ */
+@Log4j2
+@Service
+public class EpisodeSearchService {
+
+  private static final int MAX_PAGE_SIZE = 50;
+  private static final int MAX_TERMS = 8;
+  private static final int TRIGRAM_LENGTH = 3;
+  private static final int SNIPPET_CONTEXT = 48;
+  // 私有区字符作为高亮占位符，转义 HTML 后再替换为 mark 标签
+  private static final String MARK_OPEN = "\uE000";
+  private static final String MARK_CLOSE = "\uE001";
+
+  private final EpisodeMapper episodeMapper;
+  private final MessageSource messageSource;
+
+  public EpisodeSearchService(EpisodeMapper episodeMapper, MessageSource messageSource) {
+    this.episodeMapper = episodeMapper;
+    this.messageSource = messageSource;
+  }
+
+  /**
+   * 按相关度搜索节目
+   *
+   * @param query  搜索词，多个词以空格分隔，需同时命中
+   * @param feedId 可选，限定在某个频道或播放列表内
+   * @param cursor 上一页返回的游标
+   * @param size   每页条数
+   * @return 游标分页的搜索结果
+   */
+  public CursorPage<EpisodeSearchHit> search(String query, String feedId, String cursor,
+      int size) {
+    List<String> terms = parseTerms(query);
+    if (terms.isEmpty()) {
+      throw new BusinessException(messageSource.getMessage("search.query.empty", null,
+          LocaleContextHolder.getLocale()));
+    }
+    SearchCursor after;
+    try {
+      after = SearchCursor.decode(cursor);
+    } catch (InvalidCursorException e) {
+      throw new BusinessException(messageSource.getMessage("page.cursor.invalid",
+          new Object[]{cursor}, LocaleContextHolder.getLocale()));
+    }
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    String scope = StringUtils.hasText(feedId) ? feedId : null;
+    Long afterRowid = after == null ? null : after.rowid();
+
+    boolean indexed = terms.stream()
+        .allMatch(term -> term.codePointCount(0, term.length()) >= TRIGRAM_LENGTH);
+    List<EpisodeSearchHit> hits;
+    if (indexed) {
+      hits = episodeMapper.searchByMatch(buildMatchExpression(terms), scope, MARK_OPEN,
+          MARK_CLOSE, after == null ? null : after.score(), afterRowid, pageSize + 1);
+    } else {
+      List<String> patterns = terms.stream().map(this::toLikePattern).toList();
+      hits = episodeMapper.searchByLike(patterns, scope, afterRowid, pageSize + 1);
+    }
+
+    boolean hasMore = hits.size() > pageSize;
+    List<EpisodeSearchHit> records = hasMore ? hits.subList(0, pageSize) : hits;
+    for (EpisodeSearchHit hit : records) {
+      if (indexed) {
+        hit.setTitleSnippet(renderMarked(hit.getTitleSnippet()));
+        hit.setDescriptionSnippet(renderMarked(hit.getDescriptionSnippet()));
+      } else {
+        hit.setTitleSnippet(renderMarked(markTerms(hit.getTitleSnippet(), terms, false)));
+        hit.setDescriptionSnippet(
+            renderMarked(markTerms(hit.getDescriptionSnippet(), terms, true)));
+      }
+    }
+
+    String nextCursor = null;
+    if (hasMore) {
+      EpisodeSearchHit last = records.get(records.size() - 1);
+      nextCursor = new SearchCursor(last.getScore(), last.getSearchRowid()).encode();
+    }
+    return CursorPage.<EpisodeSearchHit>builder()
+        .records(records)
+        .nextCursor(nextCursor)
+        .hasMore(hasMore)
+        .build();
+  }
+
+  private List<String> parseTerms(String query) {
+    if (!StringUtils.hasText(query)) {
+      return List.of();
+    }
+    return Arrays.stream(query.trim().split("\\s+"))
+        .filter(StringUtils::hasText)
+        .distinct()
+        .limit(MAX_TERMS)
+        .toList();
+  }
+
+  /**
+   * 每个词作为 FTS5 短语（双引号转义），多个短语之间为隐式 AND
+   */
+  private String buildMatchExpression(List<String> terms) {
+    List<String> phrases = new ArrayList<>(terms.size());
+    for (String term : terms) {
+      phrases.add("\"" + term.replace("\"", "\"\"") + "\"");
+    }
+    return String.join(" ", phrases);
+  }
+
+  private String toLikePattern(String term) {
+    String escaped = term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    return "%" + escaped + "%";
+  }
+
+  /**
+   * LIKE 回退路径没有 snippet()，在 Java 中截取首个命中附近的片段并插入高亮占位符
+   */
+  private String markTerms(String text, List<String> terms, boolean truncate) {
+    if (!StringUtils.hasText(text)) {
+      return text;
+    }
+    String lower = text.toLowerCase(Locale.ROOT);
+    int start = 0;
+    int end = text.length();
+    if (truncate) {
+      int first = -1;
+      for (String term : terms) {
+        int index = lower.indexOf(term.toLowerCase(Locale.ROOT));
+        if (index >= 0 && (first < 0 || index < first)) {
+          first = index;
+        }
+      }
+      start = Math.max(0, (first < 0 ? 0 : first) - SNIPPET_CONTEXT);
+      end = Math.min(text.length(), start + SNIPPET_CONTEXT * 4);
+    }
+
+    StringBuilder result = new StringBuilder();
+    if (start > 0) {
+      result.append('…');
+    }
+    int position = start;
+    while (position < end) {
+      int matchStart = -1;
+      int matchLength = 0;
+      for (String term : terms) {
+        int index = lower.indexOf(term.toLowerCase(Locale.ROOT), position);
+        if (index >= 0 && index < end && (matchStart < 0 || index < matchStart)) {
+          matchStart = index;
+          matchLength = term.length();
+        }
+      }
+      if (matchStart < 0) {
+        result.append(text, position, end);
+        break;
+      }
+      int matchEnd = Math.min(end, matchStart + matchLength);
+      result.append(text, position, matchStart)
+          .append(MARK_OPEN).append(text, matchStart, matchEnd).append(MARK_CLOSE);
+      position = matchEnd;
+    }
+    if (end < text.length()) {
+      result.append('…');
+    }
+    return result.toString();
+  }
+
+  private String renderMarked(String text) {
+    if (text == null) {
+      return null;
+    }
+    return HtmlUtils.htmlEscape(text)
+        .replace(MARK_OPEN, "<mark>")
+        .replace(MARK_CLOSE, "</mark>");
+  }
+}
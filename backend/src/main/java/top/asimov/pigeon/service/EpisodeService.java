@@ -2,11 +2,18 @@ package top.asimov.pigeon.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
@@ -14,58 +21,157 @@ import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import top.asimov.pigeon.constant.EpisodeStatus;
+import top.asimov.pigeon.constant.FeedType;
 import top.asimov.pigeon.event.EpisodesCreatedEvent;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
+import top.asimov.pigeon.event.MediaFileChangedEvent;
 import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.exception.InvalidCursorException;
 import top.asimov.pigeon.mapper.ChannelMapper;
+import top.asimov.pigeon.mapper.EpisodeDetailMapper;
 import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.mapper.FeedStatsMapper;
 import top.asimov.pigeon.mapper.PlaylistEpisodeMapper;
 import top.asimov.pigeon.model.Channel;
+import top.asimov.pigeon.model.CursorPage;
 import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.model.EpisodeDetail;
+import top.asimov.pigeon.model.FeedStats;
+import top.asimov.pigeon.model.PlaylistEpisode;
+import top.asimov.pigeon.util.PageCursor;
 
 @Log4j2
 @Service
 public class EpisodeService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final int DETAIL_BATCH_SIZE = 500;
+
   private final EpisodeMapper episodeMapper;
   private final ApplicationEventPublisher eventPublisher;
   private final MessageSource messageSource;
   private final ChannelMapper channelMapper;
   private final PlaylistEpisodeMapper playlistEpisodeMapper;
+  private final FeedStatsMapper feedStatsMapper;
+  private final EpisodeDetailMapper episodeDetailMapper;
+  private final ArtworkService artworkService;
 
   public EpisodeService(EpisodeMapper episodeMapper, ApplicationEventPublisher eventPublisher,
       MessageSource messageSource, ChannelMapper channelMapper,
-      PlaylistEpisodeMapper playlistEpisodeMapper) {
+      PlaylistEpisodeMapper playlistEpisodeMapper, FeedStatsMapper feedStatsMapper,
+      EpisodeDetailMapper episodeDetailMapper, ArtworkService artworkService) {
     this.episodeMapper = episodeMapper;
     this.eventPublisher = eventPublisher;
     this.messageSource = messageSource;
     this.channelMapper = channelMapper;
     this.playlistEpisodeMapper = playlistEpisodeMapper;
+    this.feedStatsMapper = feedStatsMapper;
+    this.episodeDetailMapper = episodeDetailMapper;
+    this.artworkService = artworkService;
   }
 
-  public Page<Episode> episodePage(String feedId, Page<Episode> page) {
+  /**
+   * 按 (published_at, id) 游标分页获取节目，总数取自 feed_stats 缓存
+   *
+   * @param feedId 频道或播放列表ID
+   * @param cursor 上一页返回的游标，为空时从第一页开始
+   * @param size   每页条数
+   * @return 游标分页结果
+   */
+  public CursorPage<Episode> episodePage(String feedId, String cursor, int size) {
+    PageCursor after = decodeCursor(cursor);
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
     Channel channel = channelMapper.selectById(feedId);
     if (channel != null) {
       LambdaQueryWrapper<Episode> queryWrapper = new LambdaQueryWrapper<>();
       queryWrapper.eq(Episode::getChannelId, feedId);
-      queryWrapper.orderByDesc(Episode::getPublishedAt);
-      return episodeMapper.selectPage(page, queryWrapper);
+      if (after != null) {
+        LocalDateTime afterPublishedAt = after.publishedAt();
+        if (afterPublishedAt != null) {
+          queryWrapper.and(w -> w.lt(Episode::getPublishedAt, afterPublishedAt)
+              .or(x -> x.eq(Episode::getPublishedAt, afterPublishedAt)
+                  .lt(Episode::getId, after.id()))
+              .or().isNull(Episode::getPublishedAt));
+        } else {
+          queryWrapper.and(w -> w.isNull(Episode::getPublishedAt).lt(Episode::getId, after.id()));
+        }
+      }
+      queryWrapper.orderByDesc(Episode::getPublishedAt).orderByDesc(Episode::getId);
+      queryWrapper.last("LIMIT " + (pageSize + 1));
+      List<Episode> episodes = episodeMapper.selectList(queryWrapper);
+
+      boolean hasMore = episodes.size() > pageSize;
+      List<Episode> records = hasMore ? episodes.subList(0, pageSize) : episodes;
+      String nextCursor = null;
+      if (hasMore) {
+        Episode last = records.get(records.size() - 1);
+        nextCursor = new PageCursor(last.getPublishedAt(), last.getId()).encode();
+      }
+      return buildCursorPage(FeedType.CHANNEL, feedId, records, nextCursor, hasMore);
+    }
+
+    Long afterId = null;
+    if (after != null) {
+      try {
+        afterId = Long.parseLong(after.id());
+      } catch (NumberFormatException e) {
+        throw invalidCursor(cursor);
+      }
+    }
+    List<PlaylistEpisode> mappings = playlistEpisodeMapper.selectKeysetByPlaylistId(feedId,
+        after == null ? null : after.publishedAt(), afterId, pageSize + 1);
+    boolean hasMore = mappings.size() > pageSize;
+    if (hasMore) {
+      mappings = mappings.subList(0, pageSize);
     }
 
-    long total = playlistEpisodeMapper.countByPlaylistId(feedId);
-    page.setTotal(total);
-    if (total == 0) {
-      page.setRecords(Collections.emptyList());
-      return page;
+    List<Episode> records = new ArrayList<>(mappings.size());
+    if (!mappings.isEmpty()) {
+      Map<String, Episode> episodeById = episodeMapper.selectByIds(
+              mappings.stream().map(PlaylistEpisode::getEpisodeId).toList()).stream()
+          .collect(Collectors.toMap(Episode::getId, Function.identity()));
+      for (PlaylistEpisode mapping : mappings) {
+        Episode episode = episodeById.get(mapping.getEpisodeId());
+        if (episode != null) {
+          records.add(episode);
+        }
+      }
     }
+    String nextCursor = null;
+    if (hasMore) {
+      PlaylistEpisode last = mappings.get(mappings.size() - 1);
+      nextCursor = new PageCursor(last.getPublishedAt(), last.getId()).encode();
+    }
+    return buildCursorPage(FeedType.PLAYLIST, feedId, records, nextCursor, hasMore);
+  }
 
-    long current = page.getCurrent() > 0 ? page.getCurrent() : 1;
-    long size = page.getSize() > 0 ? page.getSize() : 10;
-    long offset = (current - 1) * size;
+  private CursorPage<Episode> buildCursorPage(FeedType feedType, String feedId,
+      List<Episode> records, String nextCursor, boolean hasMore) {
+    fillDetails(records);
+    records.forEach(artworkService::applyArtworkUrl);
+    FeedStats stats = feedStatsMapper.selectByFeed(feedType.name(), feedId);
+    long total = stats == null || stats.getEpisodeCount() == null ? 0 : stats.getEpisodeCount();
+    return CursorPage.<Episode>builder()
+        .records(records)
+        .nextCursor(nextCursor)
+        .hasMore(hasMore)
+        .total(total)
+        .build();
+  }
 
-    List<Episode> episodes = playlistEpisodeMapper.selectEpisodePageByPlaylistId(feedId, offset,
-        size);
-    page.setRecords(episodes);
-    return page;
+  private PageCursor decodeCursor(String cursor) {
+    try {
+      return PageCursor.decode(cursor);
+    } catch (InvalidCursorException e) {
+      throw invalidCursor(cursor);
+    }
+  }
+
+  private BusinessException invalidCursor(String cursor) {
+    return new BusinessException(messageSource.getMessage("page.cursor.invalid",
+        new Object[]{cursor}, LocaleContextHolder.getLocale()));
   }
 
   public List<Episode> findByChannelId(String channelId) {
@@ -93,7 +199,49 @@ public class EpisodeService {
       List<String> existingIds = existingEpisodes.stream().map(Episode::getId).toList();
       episodes.removeIf(episode -> existingIds.contains(episode.getId()));
     }
-    episodes.forEach(episodeMapper::insert);
+    for (Episode episode : episodes) {
+      episodeMapper.insert(episode);
+      if (StringUtils.hasText(episode.getDescription())) {
+        episodeDetailMapper.upsertDescription(episode.getId(), episode.getDescription());
+      }
+    }
+  }
+
+  /**
+   * 从 episode_detail 批量加载简介与错误日志，填充到节目对象上
+   *
+   * @param episodes 需要填充的节目列表
+   */
+  public void fillDetails(List<Episode> episodes) {
+    if (episodes == null || episodes.isEmpty()) {
+      return;
+    }
+    Map<String, EpisodeDetail> details = selectDetails(
+        episodes.stream().map(Episode::getId).toList(), false);
+    for (Episode episode : episodes) {
+      EpisodeDetail detail = details.get(episode.getId());
+      if (detail != null) {
+        episode.setDescription(detail.getDescription());
+        episode.setErrorLog(detail.getErrorLog());
+      }
+    }
+  }
+
+  private Map<String, EpisodeDetail> selectDetails(List<String> episodeIds,
+      boolean errorLogOnly) {
+    Map<String, EpisodeDetail> details = new HashMap<>();
+    for (int from = 0; from < episodeIds.size(); from += DETAIL_BATCH_SIZE) {
+      List<String> batch = episodeIds.subList(from,
+          Math.min(from + DETAIL_BATCH_SIZE, episodeIds.size()));
+      LambdaQueryWrapper<EpisodeDetail> queryWrapper = new LambdaQueryWrapper<>();
+      queryWrapper.in(EpisodeDetail::getEpisodeId, batch);
+      if (errorLogOnly) {
+        queryWrapper.select(EpisodeDetail::getEpisodeId, EpisodeDetail::getErrorLog);
+      }
+      episodeDetailMapper.selectList(queryWrapper)
+          .forEach(detail -> details.put(detail.getEpisodeId(), detail));
+    }
+    return details;
   }
 
   @Transactional
@@ -110,15 +258,47 @@ public class EpisodeService {
                 LocaleContextHolder.getLocale()));
       }
     }
+    // 删除前解析所属的播放列表，删除后关联关系已不存在
+    publishFeedContentChanged(Collections.singletonList(episode));
     return episodeMapper.deleteById(id);
   }
 
   public int deleteEpisodesByChannelId(String channelId) {
     LambdaQueryWrapper<Episode> wrapper = new LambdaQueryWrapper<>();
     wrapper.eq(Episode::getChannelId, channelId);
+    // 频道下的节目也可能出现在播放列表中，直接失效全部订阅源
+    eventPublisher.publishEvent(FeedContentChangedEvent.allFeeds(this));
+    eventPublisher.publishEvent(MediaFileChangedEvent.allEpisodes(this));
     return episodeMapper.delete(wrapper);
   }
 
+  /**
+   * 通知节目所属频道以及包含这些节目的播放列表内容已变化，同时通知这些节目的媒体文件已变化
+   *
+   * @param episodes 发生变化的节目（下载完成、删除或重新下载）
+   */
+  public void publishFeedContentChanged(List<Episode> episodes) {
+    if (episodes == null || episodes.isEmpty()) {
+      return;
+    }
+    Set<String> feedIds = new HashSet<>();
+    List<String> episodeIds = new ArrayList<>();
+    for (Episode episode : episodes) {
+      if (StringUtils.hasText(episode.getChannelId())) {
+        feedIds.add(episode.getChannelId());
+      }
+      episodeIds.add(episode.getId());
+    }
+    for (int from = 0; from < episodeIds.size(); from += DETAIL_BATCH_SIZE) {
+      feedIds.addAll(playlistEpisodeMapper.selectPlaylistIdsByEpisodeIds(
+          episodeIds.subList(from, Math.min(from + DETAIL_BATCH_SIZE, episodeIds.size()))));
+    }
+    if (!feedIds.isEmpty()) {
+      eventPublisher.publishEvent(new FeedContentChangedEvent(this, feedIds));
+    }
+    eventPublisher.publishEvent(new MediaFileChangedEvent(this, episodeIds));
+  }
+
   /**
    * 根据节目ID列表获取节目状态
    *
@@ -132,8 +312,24 @@ public class EpisodeService {
     LambdaQueryWrapper<Episode> queryWrapper = new LambdaQueryWrapper<>();
     queryWrapper.in(Episode::getId, episodeIds);
     // 只选择状态相关的字段，减少网络传输
-    queryWrapper.select(Episode::getId, Episode::getDownloadStatus, Episode::getErrorLog);
-    return episodeMapper.selectList(queryWrapper);
+    queryWrapper.select(Episode::getId, Episode::getDownloadStatus);
+    List<Episode> episodes = episodeMapper.selectList(queryWrapper);
+
+    // 仅失败的节目需要错误日志
+    List<String> failedIds = episodes.stream()
+        .filter(episode -> EpisodeStatus.FAILED.name().equals(episode.getDownloadStatus()))
+        .map(Episode::getId)
+        .toList();
+    if (!failedIds.isEmpty()) {
+      Map<String, EpisodeDetail> details = selectDetails(failedIds, true);
+      for (Episode episode : episodes) {
+        EpisodeDetail detail = details.get(episode.getId());
+        if (detail != null) {
+          episode.setErrorLog(detail.getErrorLog());
+        }
+      }
+    }
+    return episodes;
   }
 
   /**
@@ -167,6 +363,7 @@ public class EpisodeService {
         // 清空数据库中的音频文件路径
         episode.setMediaFilePath(null);
         episodeMapper.updateById(episode);
+        publishFeedContentChanged(Collections.singletonList(episode));
       } catch (Exception e) {
         log.warn("Failed to delete audio file: {} - {}", audioFilePath, e.getMessage());
         // 不抛出异常，继续执行下载流程
@@ -7,6 +7,7 @@ import top.asimov.pigeon.model.Feed;
 import top.asimov.pigeon.model.FeedConfigUpdateResult;
 import top.asimov.pigeon.model.FeedPack;
 import top.asimov.pigeon.model.FeedSaveResult;
+import top.asimov.pigeon.util.PageCursor;
 
 public interface FeedHandler<T extends Feed> {
 
@@ -14,6 +15,8 @@ public interface FeedHandler<T extends Feed> {
 
   List<T> list();
 
+  List<T> page(PageCursor after, int limit);
+
   T detail(String id);
 
   String getSubscribeUrl(String id);
@@ -17,26 +17,38 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import top.asimov.pigeon.constant.FeedType;
 import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.exception.InvalidCursorException;
+import top.asimov.pigeon.mapper.FeedStatsMapper;
+import top.asimov.pigeon.model.CursorPage;
 import top.asimov.pigeon.model.Feed;
 import top.asimov.pigeon.model.FeedConfigUpdateResult;
 import top.asimov.pigeon.model.FeedPack;
 import top.asimov.pigeon.model.FeedSaveResult;
+import top.asimov.pigeon.model.FeedStats;
+import top.asimov.pigeon.util.PageCursor;
 
 @Log4j2
 @Service
 public class FeedService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final Map<FeedType, FeedHandler<? extends Feed>> handlerRegistry;
   private final MessageSource messageSource;
   private final MediaService mediaService;
+  private final FeedStatsMapper feedStatsMapper;
+  private final ArtworkService artworkService;
 
   public FeedService(List<FeedHandler<? extends Feed>> feedHandlers,
-      MessageSource messageSource, MediaService mediaService) {
+      MessageSource messageSource, MediaService mediaService, FeedStatsMapper feedStatsMapper,
+      ArtworkService artworkService) {
     Map<FeedType, FeedHandler<? extends Feed>> registry = new EnumMap<>(FeedType.class);
     feedHandlers.forEach(handler -> registry.put(handler.getType(), handler));
     this.handlerRegistry = Collections.unmodifiableMap(registry);
     this.messageSource = messageSource;
     this.mediaService = mediaService;
+    this.feedStatsMapper = feedStatsMapper;
+    this.artworkService = artworkService;
   }
 
   public FeedType resolveType(String rawType) {
@@ -61,13 +73,7 @@ public class FeedService {
       if (handler != null) {
         List<? extends Feed> list = handler.list();
         for (Feed feed : list) {
-          if (StringUtils.hasText(feed.getCustomCoverExt())) {
-            String coverUrl = "/media/feed/" + feed.getId() + "/cover";
-            if (feed.getLastUpdatedAt() != null) {
-              coverUrl += "?v=" + feed.getLastUpdatedAt().toEpochSecond(java.time.ZoneOffset.UTC);
-            }
-            feed.setCustomCoverUrl(coverUrl);
-          }
+          applyCustomCoverUrl(feed);
           result.add(feed);
         }
       }
@@ -75,16 +81,81 @@ public class FeedService {
     return result;
   }
 
+  /**
+   * 按最后发布时间游标分页获取某类订阅源，总数为订阅源表行数
+   */
+  public CursorPage<Feed> page(FeedType type, String cursor, int size) {
+    PageCursor after;
+    try {
+      after = PageCursor.decode(cursor);
+    } catch (InvalidCursorException e) {
+      throw new BusinessException(messageSource
+          .getMessage("page.cursor.invalid", new Object[]{cursor},
+              LocaleContextHolder.getLocale()));
+    }
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    List<? extends Feed> feeds = resolveHandler(type).page(after, pageSize + 1);
+    boolean hasMore = feeds.size() > pageSize;
+    List<Feed> records = new ArrayList<>(hasMore ? feeds.subList(0, pageSize) : feeds);
+    records.forEach(this::applyCustomCoverUrl);
+
+    String nextCursor = null;
+    if (hasMore) {
+      Feed last = records.get(records.size() - 1);
+      nextCursor = new PageCursor(last.getLastPublishedAt(), last.getId()).encode();
+    }
+    return CursorPage.<Feed>builder()
+        .records(records)
+        .nextCursor(nextCursor)
+        .hasMore(hasMore)
+        .total(feedStatsMapper.countFeeds(type.name()))
+        .build();
+  }
+
   public Feed detail(FeedType type, String id) {
     Feed feed = resolveHandler(type).detail(id);
+    applyCustomCoverUrl(feed);
+    return feed;
+  }
+
+  private void applyCustomCoverUrl(Feed feed) {
     if (StringUtils.hasText(feed.getCustomCoverExt())) {
       String coverUrl = "/media/feed/" + feed.getId() + "/cover";
-      if (feed.getLastUpdatedAt() != null) {
-        coverUrl += "?v=" + feed.getLastUpdatedAt().toEpochSecond(java.time.ZoneOffset.UTC);
+      Long coverVersion = mediaService.getFeedCoverVersion(feed.getId());
+      if (coverVersion != null) {
+        coverUrl += "?v=" + coverVersion;
       }
       feed.setCustomCoverUrl(coverUrl);
     }
-    return feed;
+    artworkService.applyArtworkUrl(feed);
+  }
+
+  /**
+   * 获取所有订阅源的聚合统计
+   */
+  public List<FeedStats> listStats() {
+    return feedStatsMapper.selectSubscribed();
+  }
+
+  /**
+   * 获取单个订阅源的聚合统计，尚无节目时返回全零统计
+   */
+  public FeedStats stats(FeedType type, String id) {
+    FeedStats stats = feedStatsMapper.selectByFeed(type.name(), id);
+    if (stats != null) {
+      return stats;
+    }
+    return FeedStats.builder()
+        .feedId(id)
+        .feedType(type.name())
+        .episodeCount(0L)
+        .pendingCount(0L)
+        .downloadingCount(0L)
+        .completedCount(0L)
+        .failedCount(0L)
+        .totalBytes(0L)
+        .totalDurationSeconds(0L)
+        .build();
   }
 
   public String getSubscribeUrl(FeedType type, String id) {
@@ -0,0 +1,59 @@
+package top.asimov.pigeon.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import org.springframework.stereotype.Component;
+
+/**
+ * 默认的封面下载实现，限制超时与图片大小
+ */
+@Component
+public class HttpArtworkFetcher implements ArtworkFetcher {
+
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  // YouTube 的 maxres 封面通常不超过 1MB，自定义封面上传限制为 10MB
+  private static final int MAX_IMAGE_BYTES = 10 * 1024 * 1024;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(CONNECT_TIMEOUT)
+      .followRedirects(HttpClient.Redirect.NORMAL)
+      .build();
+
+  @Override
+  public byte[] fetch(String url) throws IOException {
+    URI uri = URI.create(url);
+    if (!"https".equalsIgnoreCase(uri.getScheme()) && !"http".equalsIgnoreCase(uri.getScheme())) {
+      throw new IOException("unsupported artwork url: " + url);
+    }
+    HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+    HttpResponse<InputStream> response;
+    try {
+      response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("artwork download interrupted", e);
+    }
+    try (InputStream body = response.body()) {
+      if (response.statusCode() != 200) {
+        throw new IOException("artwork download failed with status " + response.statusCode());
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = body.read(buffer)) != -1) {
+        if (out.size() + read > MAX_IMAGE_BYTES) {
+          throw new IOException("artwork exceeds " + MAX_IMAGE_BYTES + " bytes");
+        }
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+}
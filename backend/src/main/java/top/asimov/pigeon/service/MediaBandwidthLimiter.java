@@ -0,0 +1,338 @@
+package top.asimov.pigeon.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import top.asimov.pigeon.model.ClientBandwidth;
+
+/**
+ * 媒体传输的带宽整形：按客户端 IP 和全局各维护一个令牌桶，超出速率时放慢写出而不是返回错误；
+ * 同时限制单个客户端同时进行的传输数，超出时立即返回 429，不占用请求线程等待。
+ * <p>
+ * 限速需要经过应用写出数据，启用后媒体文件不再使用 Tomcat sendfile。
+ */
+@Log4j2
+@Service
+public class MediaBandwidthLimiter {
+
+  // Tomcat NIO 连接器的 sendfile 约定（org.apache.catalina.Globals）
+  private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+  // 每次写出前按该大小申请令牌，控制单次等待的粒度
+  private static final int CHUNK_SIZE = 16 * 1024;
+  // 令牌桶允许的突发量：0.25 秒的额度，且不少于 64KB
+  private static final long MIN_BURST_BYTES = 64 * 1024;
+  private static final long IDLE_CLIENT_MILLIS = TimeUnit.HOURS.toMillis(1);
+  // 并发已满时短暂等待，只覆盖播放器关闭旧连接后立即发起新请求的情况
+  private static final long STREAM_WAIT_MILLIS = 200;
+
+  private final Map<String, ClientState> clients = new ConcurrentHashMap<>();
+  private TokenBucket globalBucket;
+
+  @Value("${pigeon.media.bandwidth.enabled:false}")
+  private boolean enabled;
+
+  @Value("${pigeon.media.bandwidth.global-mbps:0}")
+  private double globalMbps;
+
+  @Value("${pigeon.media.bandwidth.client-mbps:0}")
+  private double clientMbps;
+
+  @Value("${pigeon.media.bandwidth.client-max-streams:4}")
+  private int clientMaxStreams;
+
+  @Value("${pigeon.media.bandwidth.retry-after-seconds:5}")
+  private int retryAfterSeconds;
+
+  @PostConstruct
+  private void init() {
+    if (!enabled) {
+      return;
+    }
+    globalBucket = TokenBucket.ofMbps(globalMbps);
+    log.info("媒体带宽限制已启用: 全局 {} Mbps, 单客户端 {} Mbps, 单客户端并发 {}",
+        globalMbps > 0 ? globalMbps : "不限", clientMbps > 0 ? clientMbps : "不限",
+        clientMaxStreams > 0 ? clientMaxStreams : "不限");
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 为客户端占用一个传输名额，已达并发上限时返回 null
+   */
+  public Lease acquire(HttpServletRequest request) {
+    ClientState client = clients.computeIfAbsent(clientKey(request), ClientState::new);
+    client.lastSeenAt = System.currentTimeMillis();
+    try {
+      if (client.slots != null
+          && !client.slots.tryAcquire(STREAM_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+        log.debug("客户端 {} 并发传输已达上限 {}", client.key, clientMaxStreams);
+        return null;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    client.activeStreams.incrementAndGet();
+    return new Lease(client);
+  }
+
+  public int getRetryAfterSeconds() {
+    return Math.max(1, retryAfterSeconds);
+  }
+
+  /**
+   * @return 各客户端的传输统计，按当前速率与累计流量降序
+   */
+  public List<ClientBandwidth> getClientStats() {
+    return clients.values().stream()
+        .map(ClientState::snapshot)
+        .sorted(Comparator.comparingLong(ClientBandwidth::getBytesPerSecond)
+            .thenComparingLong(ClientBandwidth::getBytesSent).reversed())
+        .toList();
+  }
+
+  /**
+   * 清理长时间没有请求的客户端
+   */
+  @Scheduled(fixedRate = 10, timeUnit = TimeUnit.MINUTES)
+  public void evictIdleClients() {
+    long threshold = System.currentTimeMillis() - IDLE_CLIENT_MILLIS;
+    clients.values().removeIf(client -> client.activeStreams.get() == 0
+        && client.lastSeenAt < threshold);
+  }
+
+  /**
+   * 只按连接的 IP 区分客户端：请求参数未经校验，客户端可以随意更换以绕过限制。
+   * 部署在反向代理之后时需开启 server.forward-headers-strategy 才能取得真实 IP
+   */
+  private String clientKey(HttpServletRequest request) {
+    return "ip:" + request.getRemoteAddr();
+  }
+
+  private void pace(ClientState client, int bytes) throws IOException {
+    long waitNanos = 0;
+    if (client.bucket != null) {
+      waitNanos = client.bucket.take(bytes);
+    }
+    if (globalBucket != null) {
+      waitNanos = Math.max(waitNanos, globalBucket.take(bytes));
+    }
+    client.record(bytes);
+    if (waitNanos <= 0) {
+      return;
+    }
+    client.throttledNanos.add(waitNanos);
+    try {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("media transfer interrupted while throttled");
+    }
+  }
+
+  /**
+   * 一次媒体传输占用的名额，发送时使用 request() 与 response() 替代原始对象
+   */
+  public final class Lease implements AutoCloseable {
+
+    private final ClientState client;
+    private boolean closed;
+
+    private Lease(ClientState client) {
+      this.client = client;
+    }
+
+    /**
+     * 隐藏 sendfile 支持，使数据经过限速输出流
+     */
+    public HttpServletRequest request(HttpServletRequest request) {
+      return new HttpServletRequestWrapper(request) {
+        @Override
+        public Object getAttribute(String name) {
+          return SENDFILE_SUPPORTED_ATTR.equals(name) ? null : super.getAttribute(name);
+        }
+      };
+    }
+
+    public HttpServletResponse response(HttpServletResponse response) {
+      return new HttpServletResponseWrapper(response) {
+        private PacedOutputStream output;
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+          if (output == null) {
+            output = new PacedOutputStream(super.getOutputStream(), client);
+          }
+          return output;
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      client.activeStreams.decrementAndGet();
+      client.lastSeenAt = System.currentTimeMillis();
+      if (client.slots != null) {
+        client.slots.release();
+      }
+    }
+  }
+
+  private final class PacedOutputStream extends ServletOutputStream {
+
+    private final ServletOutputStream delegate;
+    private final ClientState client;
+
+    private PacedOutputStream(ServletOutputStream delegate, ClientState client) {
+      this.delegate = delegate;
+      this.client = client;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      pace(client, 1);
+      delegate.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        int chunk = Math.min(len, CHUNK_SIZE);
+        pace(client, chunk);
+        delegate.write(b, off, chunk);
+        off += chunk;
+        len -= chunk;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      delegate.setWriteListener(writeListener);
+    }
+  }
+
+  private final class ClientState {
+
+    private final String key;
+    private final Semaphore slots;
+    private final TokenBucket bucket;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder throttledNanos = new LongAdder();
+    private volatile long lastSeenAt;
+    // 按约一秒的窗口计算发送速率
+    private long windowStartNanos = System.nanoTime();
+    private long windowStartBytes;
+    private volatile long bytesPerSecond;
+
+    private ClientState(String key) {
+      this.key = key;
+      this.slots = clientMaxStreams > 0 ? new Semaphore(clientMaxStreams, true) : null;
+      this.bucket = TokenBucket.ofMbps(clientMbps);
+    }
+
+    private void record(int bytes) {
+      bytesSent.add(bytes);
+      long now = System.nanoTime();
+      if (now - windowStartNanos < TimeUnit.SECONDS.toNanos(1)) {
+        return;
+      }
+      synchronized (this) {
+        long elapsed = now - windowStartNanos;
+        if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+          long total = bytesSent.sum();
+          bytesPerSecond = (total - windowStartBytes) * TimeUnit.SECONDS.toNanos(1) / elapsed;
+          windowStartNanos = now;
+          windowStartBytes = total;
+        }
+      }
+    }
+
+    private ClientBandwidth snapshot() {
+      int active = activeStreams.get();
+      return ClientBandwidth.builder()
+          .client(key)
+          .activeStreams(active)
+          .bytesSent(bytesSent.sum())
+          .bytesPerSecond(active > 0 ? bytesPerSecond : 0)
+          .throttledMillis(TimeUnit.NANOSECONDS.toMillis(throttledNanos.sum()))
+          .lastSeenAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(lastSeenAt),
+              ZoneId.systemDefault()))
+          .build();
+    }
+  }
+
+  /**
+   * 令牌桶：令牌不足时记为欠额，返回需要等待的时间，多个线程共享时合计速率不超过上限
+   */
+  private static final class TokenBucket {
+
+    private final double bytesPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    private TokenBucket(double bytesPerSecond) {
+      this.bytesPerNano = bytesPerSecond / TimeUnit.SECONDS.toNanos(1);
+      this.capacity = Math.max(MIN_BURST_BYTES, bytesPerSecond / 4);
+      this.tokens = capacity;
+    }
+
+    /**
+     * @return 速率为 0 或负数时不限速，返回 null
+     */
+    static TokenBucket ofMbps(double mbps) {
+      return mbps > 0 ? new TokenBucket(mbps * 1_000_000 / 8) : null;
+    }
+
+    synchronized long take(int bytes) {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity, tokens + (now - refilledAt) * bytesPerNano);
+      refilledAt = now;
+      tokens -= bytes;
+      return tokens >= 0 ? 0 : (long) (-tokens / bytesPerNano);
+    }
+  }
+}
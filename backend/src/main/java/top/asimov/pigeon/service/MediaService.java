@@ -1,28 +1,49 @@
 package top.asimov.pigeon.service;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import top.asimov.pigeon.event.MediaFileChangedEvent;
 import top.asimov.pigeon.exception.BusinessException;
 import top.asimov.pigeon.mapper.EpisodeMapper;
 import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.util.FeedEpisodeUtils;
+import top.asimov.pigeon.util.MediaPathIndex;
 
 @Log4j2
 @Service
 public class MediaService {
 
+  // 封面地址无需登录即可访问，限制缓存条目数，避免随机 ID 的请求撑大内存
+  private static final int MAX_COVER_CACHE_ENTRIES = 1024;
+
   @Autowired
   private EpisodeMapper episodeMapper;
 
@@ -35,6 +56,17 @@ public class MediaService {
   @Value("${pigeon.cover-path}")
   private String coverStoragePath;
 
+  private volatile String[] allowedRoots;
+
+  private final MediaPathIndex mediaPathIndex = new MediaPathIndex();
+  private final Map<String, Optional<CoverFile>> coverCache = Collections.synchronizedMap(
+      new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Optional<CoverFile>> eldest) {
+          return size() > MAX_COVER_CACHE_ENTRIES;
+        }
+      });
+
   public String saveFeedCover(String feedId, MultipartFile file) throws IOException {
     String contentType = file.getContentType();
     if (!Arrays.asList("image/jpeg", "image/png", "image/webp").contains(contentType)) {
@@ -50,6 +82,7 @@ public class MediaService {
     String filename = feedId + "." + extension;
     Path destinationFile = coverPath.resolve(filename);
     Files.copy(file.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+    coverCache.remove(feedId);
     return extension;
   }
 
@@ -62,34 +95,149 @@ public class MediaService {
       return;
     }
     Path fileToDelete = coverPath.resolve(feedId + "." + extension);
+    coverCache.remove(feedId);
     if (Files.exists(fileToDelete)) {
       Files.delete(fileToDelete);
     }
   }
 
   public File getFeedCover(String feedId) throws IOException {
+    CoverFile cover = getCachedFeedCover(feedId);
+    return cover == null ? null : cover.path().toFile();
+  }
+
+  /**
+   * 获取订阅源的自定义封面，查找结果（包括不存在）缓存在内存中，保存或删除封面时失效
+   *
+   * @param feedId 订阅源ID
+   * @return 封面文件，不存在时返回 null
+   */
+  public CoverFile getCachedFeedCover(String feedId) throws IOException {
+    Optional<CoverFile> cached = coverCache.get(feedId);
+    if (cached == null) {
+      cached = Optional.ofNullable(findFeedCover(feedId));
+      coverCache.put(feedId, cached);
+    }
+    return cached.orElse(null);
+  }
+
+  public void evictFeedCover(String feedId) {
+    coverCache.remove(feedId);
+  }
+
+  /**
+   * 封面文件的修改时间（秒），用作封面地址中的内容版本
+   */
+  public Long getFeedCoverVersion(String feedId) {
+    try {
+      CoverFile cover = getCachedFeedCover(feedId);
+      return cover == null ? null : cover.lastModified() / 1000;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private CoverFile findFeedCover(String feedId) throws IOException {
     Path coverPath = Path.of(coverStoragePath);
     if (!Files.exists(coverPath)) {
       return null;
     }
     try (DirectoryStream<Path> stream = Files.newDirectoryStream(coverPath, feedId + ".*")) {
       for (Path entry : stream) {
-        return entry.toFile();
+        BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+        return new CoverFile(entry, attributes.size(), attributes.lastModifiedTime().toMillis());
       }
     }
     return null;
   }
 
-  public File getAudioFile(String episodeId) throws BusinessException {
-    log.info("获取音频文件，episode ID: {}", episodeId);
-
+  /**
+   * 获取节目的媒体文件。命中索引时不访问数据库，也不重复解析路径
+   *
+   * @param episodeId 节目ID
+   * @return 已校验的媒体文件
+   */
+  public MediaPathIndex.Entry getMediaFile(String episodeId) throws BusinessException {
+    MediaPathIndex.Entry entry = mediaPathIndex.get(episodeId);
+    if (entry != null) {
+      return entry;
+    }
     Episode episode = episodeMapper.selectById(episodeId);
     if (episode == null) {
       log.warn("未找到episode: {}", episodeId);
       throw new BusinessException(messageSource.getMessage("episode.not.found",
           new Object[]{episodeId}, LocaleContextHolder.getLocale()));
     }
+    return indexMediaFile(episode);
+  }
+
+  /**
+   * 发送时发现文件已不存在，移出索引，下次请求重新校验
+   */
+  public void evictMediaFile(String episodeId) {
+    mediaPathIndex.remove(episodeId);
+  }
 
+  /**
+   * 启动后在后台加载所有已下载节目的媒体路径
+   */
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildMediaIndex() {
+    long start = System.currentTimeMillis();
+    for (Episode episode : selectMediaEpisodes(null)) {
+      tryIndex(episode);
+    }
+    log.info("媒体路径索引加载完成: {} 个文件，耗时 {}ms", mediaPathIndex.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onMediaFileChanged(MediaFileChangedEvent event) {
+    if (event.isAllEpisodes()) {
+      // 整体核对：移除已删除的节目，只为新增的节目解析路径
+      List<Episode> episodes = selectMediaEpisodes(null);
+      Set<String> episodeIds = new HashSet<>();
+      for (Episode episode : episodes) {
+        episodeIds.add(episode.getId());
+      }
+      mediaPathIndex.retainAll(episodeIds);
+      for (Episode episode : episodes) {
+        if (!mediaPathIndex.contains(episode.getId())) {
+          tryIndex(episode);
+        }
+      }
+      return;
+    }
+    event.getEpisodeIds().forEach(mediaPathIndex::remove);
+    for (Episode episode : selectMediaEpisodes(event.getEpisodeIds())) {
+      tryIndex(episode);
+    }
+  }
+
+  private List<Episode> selectMediaEpisodes(Collection<String> episodeIds) {
+    LambdaQueryWrapper<Episode> queryWrapper = new LambdaQueryWrapper<Episode>()
+        .select(Episode::getId, Episode::getMediaFilePath, Episode::getMediaType)
+        .isNotNull(Episode::getMediaFilePath);
+    if (episodeIds != null) {
+      queryWrapper.in(Episode::getId, episodeIds);
+    }
+    return episodeMapper.selectList(queryWrapper);
+  }
+
+  private void tryIndex(Episode episode) {
+    try {
+      indexMediaFile(episode);
+    } catch (BusinessException e) {
+      log.debug("跳过媒体文件索引: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * 校验媒体文件存在且位于允许的目录中，记录规范路径、大小、修改时间与 MIME 类型
+   */
+  private MediaPathIndex.Entry indexMediaFile(Episode episode) throws BusinessException {
+    String episodeId = episode.getId();
     String audioFilePath = episode.getMediaFilePath();
     if (!StringUtils.hasText(audioFilePath)) {
       log.warn("Episode {} 没有关联的音频文件路径", episodeId);
@@ -110,22 +258,50 @@ public class MediaService {
           new Object[]{episodeId}, LocaleContextHolder.getLocale()));
     }
 
-    log.info("找到音频文件: {}", audioFilePath);
-    return audioFile;
+    try {
+      Path canonicalPath = audioFile.toPath().toRealPath();
+      BasicFileAttributes attributes = Files.readAttributes(canonicalPath,
+          BasicFileAttributes.class);
+      String mediaType = StringUtils.hasText(episode.getMediaType()) ? episode.getMediaType()
+          : FeedEpisodeUtils.resolveMediaType(audioFilePath);
+      mediaPathIndex.put(episodeId, canonicalPath, attributes.size(),
+          attributes.lastModifiedTime().toMillis(), mediaType);
+      return mediaPathIndex.get(episodeId);
+    } catch (IOException e) {
+      throw new BusinessException(messageSource.getMessage("media.file.not.exists",
+          new Object[]{audioFilePath}, LocaleContextHolder.getLocale()));
+    }
   }
 
   private boolean isFileInAllowedDirectory(File file) {
-    return isFileInAllowedDirectory(file, audioStoragePath) || isFileInAllowedDirectory(file, coverStoragePath);
-  }
-
-  private boolean isFileInAllowedDirectory(File file, String allowedPath) {
     try {
       String canonicalFilePath = file.getCanonicalPath();
-      String canonicalAllowedPath = new File(allowedPath).getCanonicalPath();
-      return canonicalFilePath.startsWith(canonicalAllowedPath);
+      for (String allowedPath : allowedRoots()) {
+        if (canonicalFilePath.startsWith(allowedPath)) {
+          return true;
+        }
+      }
+      return false;
     } catch (IOException e) {
       log.error("安全检查时发生错误", e);
       return false;
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * 允许访问的根目录只解析一次，配置在运行期间不会变化
+   */
+  private String[] allowedRoots() throws IOException {
+    String[] roots = allowedRoots;
+    if (roots == null) {
+      roots = new String[]{new File(audioStoragePath).getCanonicalPath(),
+          new File(coverStoragePath).getCanonicalPath()};
+      allowedRoots = roots;
+    }
+    return roots;
+  }
+
+  public record CoverFile(Path path, long size, long lastModified) {
+
+  }
+}
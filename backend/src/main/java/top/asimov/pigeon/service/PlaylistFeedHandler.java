@@ -8,6 +8,7 @@ import top.asimov.pigeon.constant.FeedType;
 import top.asimov.pigeon.model.FeedConfigUpdateResult;
 import top.asimov.pigeon.model.FeedPack;
 import top.asimov.pigeon.model.FeedSaveResult;
+import top.asimov.pigeon.util.PageCursor;
 import top.asimov.pigeon.model.Playlist;
 
 @Component
@@ -31,6 +32,11 @@ public class PlaylistFeedHandler extends AbstractFeedHandler<Playlist> {
     return playlistService.selectPlaylistList();
   }
 
+  @Override
+  public List<Playlist> page(PageCursor after, int limit) {
+    return playlistService.selectPlaylistPage(after, limit);
+  }
+
   @Override
   public Playlist detail(String id) {
     return playlistService.playlistDetail(id);
@@ -6,6 +6,7 @@ import java.io.File;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -25,6 +26,7 @@ import top.asimov.pigeon.constant.FeedSource;
 import top.asimov.pigeon.constant.PlaylistEpisodeSort;
 import top.asimov.pigeon.constant.Youtube;
 import top.asimov.pigeon.event.DownloadTaskEvent.DownloadTargetType;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
 import top.asimov.pigeon.exception.BusinessException;
 import top.asimov.pigeon.mapper.PlaylistEpisodeMapper;
 import top.asimov.pigeon.mapper.PlaylistMapper;
@@ -35,6 +37,7 @@ import top.asimov.pigeon.model.FeedSaveResult;
 import top.asimov.pigeon.model.Playlist;
 import top.asimov.pigeon.model.PlaylistEpisode;
 import top.asimov.pigeon.util.FeedEpisodeUtils;
+import top.asimov.pigeon.util.PageCursor;
 import top.asimov.pigeon.util.YoutubeHelper;
 import top.asimov.pigeon.util.YoutubeVideoHelper;
 
@@ -49,19 +52,19 @@ public class PlaylistService extends AbstractFeedService<Playlist> {
   private final PlaylistEpisodeMapper playlistEpisodeMapper;
   private final YoutubeHelper youtubeHelper;
   private final YoutubeVideoHelper youtubeVideoHelper;
-  private final AccountService accountService;
+  private final UrlSignatureService urlSignatureService;
   private final MessageSource messageSource;
 
   public PlaylistService(PlaylistMapper playlistMapper, PlaylistEpisodeMapper playlistEpisodeMapper,
       EpisodeService episodeService, ApplicationEventPublisher eventPublisher,
       YoutubeHelper youtubeHelper, YoutubeVideoHelper youtubeVideoHelper,
-      AccountService accountService, MessageSource messageSource) {
+      UrlSignatureService urlSignatureService, MessageSource messageSource) {
     super(episodeService, eventPublisher, messageSource);
     this.playlistMapper = playlistMapper;
     this.playlistEpisodeMapper = playlistEpisodeMapper;
     this.youtubeHelper = youtubeHelper;
     this.youtubeVideoHelper = youtubeVideoHelper;
-    this.accountService = accountService;
+    this.urlSignatureService = urlSignatureService;
     this.messageSource = messageSource;
   }
 
@@ -77,6 +80,11 @@ public class PlaylistService extends AbstractFeedService<Playlist> {
     return playlistMapper.selectPlaylistsByLastPublishedAt();
   }
 
+  public List<Playlist> selectPlaylistPage(PageCursor after, int limit) {
+    return playlistMapper.selectPlaylistPageByLastPublishedAt(
+        after == null ? null : after.publishedAt(), after == null ? null : after.id(), limit);
+  }
+
   public Playlist playlistDetail(String id) {
     Playlist playlist = playlistMapper.selectById(id);
     if (playlist == null) {
@@ -95,13 +103,8 @@ public class PlaylistService extends AbstractFeedService<Playlist> {
           messageSource.getMessage("playlist.not.found", new Object[]{playlistId},
               LocaleContextHolder.getLocale()));
     }
-    String apiKey = accountService.getApiKey();
-    if (ObjectUtils.isEmpty(apiKey)) {
-      throw new BusinessException(
-          messageSource.getMessage("playlist.api.key.failed", null,
-              LocaleContextHolder.getLocale()));
-    }
-    return appBaseUrl + "/api/rss/playlist/" + playlistId + ".xml?apikey=" + apiKey;
+    return appBaseUrl + "/api/rss/playlist/" + playlistId + ".xml?sig="
+        + urlSignatureService.signFeed(playlistId);
   }
 
   @Transactional
@@ -184,6 +187,16 @@ public class PlaylistService extends AbstractFeedService<Playlist> {
         .collect(Collectors.toList());
   }
 
+  /**
+   * 为本轮定时同步批量预取各播放列表的新视频；按位置倒序的播放列表需要读到末尾，不参与预取
+   */
+  public YoutubeVideoHelper.SyncBatch beginSyncBatch(List<Playlist> playlists) {
+    return youtubeVideoHelper.beginSyncBatch(playlists.stream()
+        .filter(p -> !PlaylistEpisodeSort.fromValue(p.getEpisodeSort()).isDescendingPosition())
+        .map(p -> new YoutubeVideoHelper.SyncSource(null, p.getId(), p.getLastSyncVideoId()))
+        .toList());
+  }
+
   @Transactional
   public void deletePlaylist(String playlistId) {
     log.info("开始删除播放列表: {}", playlistId);
@@ -208,6 +221,8 @@ public class PlaylistService extends AbstractFeedService<Playlist> {
     int result = playlistMapper.deleteById(playlistId);
     if (result > 0) {
       log.info("播放列表 {} 删除成功", playlist.getTitle());
+      eventPublisher().publishEvent(
+          new FeedContentChangedEvent(this, Collections.singletonList(playlistId)));
       removeOrphanEpisodes(uniqueEpisodes.values());
     } else {
       log.error("播放列表 {} 删除失败", playlist.getTitle());
@@ -0,0 +1,275 @@
+package top.asimov.pigeon.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.model.ReencodeResult;
+import top.asimov.pigeon.util.FeedEpisodeUtils;
+
+/**
+ * 存储分层：将发布较早、或所属订阅源超出容量配额的高码率音频，用本地 ffmpeg 以低优先级重新编码为
+ * 更节省空间的格式。新文件写入同目录的临时文件后原子替换，再更新节目的路径、大小与 MIME 类型。
+ */
+@Log4j2
+@Service
+public class ReencodeService {
+
+  private static final String TEMP_SUFFIX = ".reencode.tmp";
+  // 原码率至少高出目标码率 25% 才值得重新编码
+  private static final int MIN_BITRATE_RATIO_PERCENT = 125;
+  // 新文件至少比原文件小 10%，否则保留原文件
+  private static final int MAX_SIZE_RATIO_PERCENT = 90;
+
+  private final EpisodeMapper episodeMapper;
+  private final EpisodeService episodeService;
+  private final MessageSource messageSource;
+  private final TaskExecutor reencodeTaskExecutor;
+  private final AtomicBoolean running = new AtomicBoolean(false);
+  // 重新编码失败或没有收益的节目，本次运行期间不再尝试
+  private final Set<String> excluded = ConcurrentHashMap.newKeySet();
+
+  private volatile ReencodeResult lastResult;
+
+  @Value("${pigeon.reencode.min-age-days:365}")
+  private int minAgeDays;
+
+  @Value("${pigeon.reencode.feed-quota-mb:0}")
+  private long feedQuotaMb;
+
+  @Value("${pigeon.reencode.codec:aac}")
+  private String codec;
+
+  @Value("${pigeon.reencode.bitrate-kbps:64}")
+  private int bitrateKbps;
+
+  @Value("${pigeon.reencode.max-episodes-per-run:50}")
+  private int maxEpisodesPerRun;
+
+  @Value("${pigeon.reencode.niceness:19}")
+  private int niceness;
+
+  public ReencodeService(EpisodeMapper episodeMapper, EpisodeService episodeService,
+      MessageSource messageSource,
+      @Qualifier("reencodeTaskExecutor") TaskExecutor reencodeTaskExecutor) {
+    this.episodeMapper = episodeMapper;
+    this.episodeService = episodeService;
+    this.messageSource = messageSource;
+    this.reencodeTaskExecutor = reencodeTaskExecutor;
+  }
+
+  /**
+   * 在后台启动一轮重新编码，已有任务在运行时抛出异常
+   */
+  public void start() {
+    if (!running.compareAndSet(false, true)) {
+      throw new BusinessException(messageSource.getMessage("reencode.in.progress", null,
+          LocaleContextHolder.getLocale()));
+    }
+    try {
+      reencodeTaskExecutor.execute(() -> {
+        try {
+          reencode();
+        } catch (Exception e) {
+          log.error("存储重新编码失败: {}", e.getMessage(), e);
+        } finally {
+          running.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      running.set(false);
+      throw new BusinessException(messageSource.getMessage("reencode.in.progress", null,
+          LocaleContextHolder.getLocale()));
+    }
+  }
+
+  /**
+   * @return 进行中或最近一次的执行结果，尚未执行过时返回 null
+   */
+  public ReencodeResult getLastResult() {
+    return lastResult;
+  }
+
+  private void reencode() {
+    Codec target = Codec.of(codec);
+    long startedAt = System.currentTimeMillis();
+    Long quotaBytes = feedQuotaMb > 0 ? feedQuotaMb * 1024 * 1024 : null;
+    List<Episode> candidates = episodeMapper.selectReencodeCandidates(
+        LocalDateTime.now().minusDays(minAgeDays), quotaBytes,
+        (long) bitrateKbps * 1000 * MIN_BITRATE_RATIO_PERCENT / 100,
+        maxEpisodesPerRun + excluded.size());
+    candidates.removeIf(episode -> excluded.contains(episode.getId()));
+    if (candidates.size() > maxEpisodesPerRun) {
+      candidates = candidates.subList(0, maxEpisodesPerRun);
+    }
+
+    ReencodeResult result = ReencodeResult.builder()
+        .running(true)
+        .candidates(candidates.size())
+        .startedAt(LocalDateTime.now())
+        .build();
+    lastResult = result;
+    log.info("开始存储重新编码: {} 个节目，目标 {} {}kbps", candidates.size(), target.name,
+        bitrateKbps);
+
+    for (Episode episode : candidates) {
+      Path source = Paths.get(episode.getMediaFilePath());
+      try {
+        long before = Files.size(source);
+        Long after = reencode(episode, source, target);
+        if (after == null) {
+          excluded.add(episode.getId());
+          result.setSkipped(result.getSkipped() + 1);
+          continue;
+        }
+        result.setReencoded(result.getReencoded() + 1);
+        result.setBytesBefore(result.getBytesBefore() + before);
+        result.setBytesAfter(result.getBytesAfter() + after);
+        result.setReclaimedBytes(result.getBytesBefore() - result.getBytesAfter());
+      } catch (IOException e) {
+        excluded.add(episode.getId());
+        result.setFailed(result.getFailed() + 1);
+        log.warn("重新编码节目 {} 失败: {}", episode.getId(), e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    result.setDurationMillis(System.currentTimeMillis() - startedAt);
+    result.setRunning(false);
+    log.info("存储重新编码完成，耗时 {} ms: 重新编码 {} 个，跳过 {} 个，失败 {} 个，回收 {} MB",
+        result.getDurationMillis(), result.getReencoded(), result.getSkipped(),
+        result.getFailed(), result.getReclaimedBytes() / 1024 / 1024);
+  }
+
+  /**
+   * 重新编码单个节目并替换文件
+   *
+   * @return 新文件大小；没有收益或节目已变化时返回 null
+   */
+  private Long reencode(Episode episode, Path source, Codec target)
+      throws IOException, InterruptedException {
+    Path temp = source.resolveSibling(source.getFileName() + TEMP_SUFFIX);
+    try {
+      runFfmpeg(source, temp, target);
+      long before = Files.size(source);
+      long after = Files.size(temp);
+      if (after == 0 || after * 100 > before * MAX_SIZE_RATIO_PERCENT) {
+        log.debug("节目 {} 重新编码后体积没有明显减小 ({} -> {})，保留原文件", episode.getId(),
+            before, after);
+        return null;
+      }
+
+      String fileName = source.getFileName().toString();
+      int dot = fileName.lastIndexOf('.');
+      String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+      Path replacement = source.resolveSibling(baseName + "." + target.extension);
+      String previousPath = episode.getMediaFilePath();
+      String mediaFilePath = replacement.equals(source) ? previousPath : replacement.toString();
+      if (!replacement.equals(source) && Files.exists(replacement)) {
+        log.debug("节目 {} 的目标文件已存在，跳过: {}", episode.getId(), replacement);
+        return null;
+      }
+
+      moveAtomically(temp, replacement);
+      int updated = episodeMapper.replaceMediaFile(episode.getId(), previousPath,
+          mediaFilePath, FeedEpisodeUtils.resolveMediaType(mediaFilePath), after);
+      if (updated == 0) {
+        // 节目在重新编码期间被删除或重新下载
+        if (!replacement.equals(source)) {
+          Files.deleteIfExists(replacement);
+        }
+        return null;
+      }
+      // 一轮可能持续数小时，每个节目替换后立即更新媒体索引与 RSS，再删除原文件
+      episodeService.publishFeedContentChanged(List.of(episode));
+      if (!replacement.equals(source)) {
+        Files.deleteIfExists(source);
+      }
+      log.info("节目 {} 已重新编码: {} -> {} KB", episode.getId(), before / 1024, after / 1024);
+      return after;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void runFfmpeg(Path source, Path temp, Codec target)
+      throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>();
+    if (niceness > 0 && !System.getProperty("os.name").toLowerCase(Locale.ROOT)
+        .startsWith("windows")) {
+      command.addAll(List.of("nice", "-n", String.valueOf(niceness)));
+    }
+    command.addAll(List.of("ffmpeg", "-nostdin", "-hide_banner", "-loglevel", "error", "-y",
+        "-i", source.toString(), "-vn", "-map", "0:a:0", "-map_metadata", "0"));
+    command.addAll(target.ffmpegArgs);
+    command.addAll(List.of("-b:a", bitrateKbps + "k", temp.toString()));
+
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    String output = new String(process.getInputStream().readAllBytes(),
+        StandardCharsets.UTF_8).trim();
+    int exitCode = process.waitFor();
+    if (exitCode != 0) {
+      throw new IOException("ffmpeg exited with " + exitCode + ": " + output);
+    }
+  }
+
+  private void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * 重新编码的目标格式，输出可随机访问的完整文件
+   */
+  private enum Codec {
+
+    AAC("aac", "m4a", List.of("-c:a", "aac", "-f", "ipod", "-movflags", "+faststart")),
+    OPUS("opus", "opus", List.of("-c:a", "libopus", "-f", "ogg"));
+
+    private final String name;
+    private final String extension;
+    private final List<String> ffmpegArgs;
+
+    Codec(String name, String extension, List<String> ffmpegArgs) {
+      this.name = name;
+      this.extension = extension;
+      this.ffmpegArgs = ffmpegArgs;
+    }
+
+    static Codec of(String name) {
+      for (Codec codec : values()) {
+        if (codec.name.equalsIgnoreCase(name)) {
+          return codec;
+        }
+      }
+      throw new IllegalArgumentException("unsupported reencode codec: " + name);
+    }
+  }
+}
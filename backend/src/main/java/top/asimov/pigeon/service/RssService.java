@@ -1,63 +1,116 @@
 package top.asimov.pigeon.service;
 
-import com.rometools.modules.itunes.EntryInformation;
-import com.rometools.modules.itunes.EntryInformationImpl;
-import com.rometools.modules.itunes.FeedInformation;
-import com.rometools.modules.itunes.FeedInformationImpl;
 import com.rometools.modules.itunes.types.Duration;
-import com.rometools.rome.feed.synd.SyndContent;
-import com.rometools.rome.feed.synd.SyndContentImpl;
-import com.rometools.rome.feed.synd.SyndEnclosure;
-import com.rometools.rome.feed.synd.SyndEnclosureImpl;
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndEntryImpl;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.feed.synd.SyndFeedImpl;
-import com.rometools.rome.io.SyndFeedOutput;
 import jakarta.annotation.PostConstruct;
-import java.io.File;
-import java.io.StringWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLStreamException;
 import lombok.extern.log4j.Log4j2;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
+import top.asimov.pigeon.constant.TranscodeProfile;
 import top.asimov.pigeon.constant.Youtube;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
 import top.asimov.pigeon.exception.BusinessException;
+import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.mapper.EpisodeRssItemMapper;
 import top.asimov.pigeon.model.Channel;
 import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.model.EpisodeRssItem;
 import top.asimov.pigeon.model.Feed;
 import top.asimov.pigeon.model.Playlist;
+import top.asimov.pigeon.model.RenderedFeed;
+import top.asimov.pigeon.model.RssEpisode;
+import top.asimov.pigeon.util.PageCursor;
+import top.asimov.pigeon.util.RssFeedWriter;
 
 @Log4j2
 @Service
 public class RssService {
 
   private final ChannelService channelService;
-  private final EpisodeService episodeService;
   private final PlaylistService playlistService;
+  private final EpisodeMapper episodeMapper;
+  private final EpisodeRssItemMapper episodeRssItemMapper;
+  private final UrlSignatureService urlSignatureService;
+  private final MediaService mediaService;
+  private final ArtworkService artworkService;
+  private final TransactionTemplate transactionTemplate;
   private final MessageSource messageSource;
+  private final TaskExecutor rssItemTaskExecutor;
+  // 已提交写回、尚未完成的节目片段，避免并发请求重复提交
+  private final Set<String> pendingItems = ConcurrentHashMap.newKeySet();
+
+  // 订阅源版本号：内容变化时递增，缓存条目的版本与当前版本一致才有效
+  private final AtomicLong versionSequence = new AtomicLong();
+  private final Map<String, Long> feedVersions = new ConcurrentHashMap<>();
+  private volatile long allFeedsVersion;
+  // 每个订阅源按条数与 API Key 区分多个首页版本，失效时整体移除
+  private final Map<String, Map<String, RenderedFeed>> feedCache = new ConcurrentHashMap<>();
+  // 频道 handler 到频道ID的映射，命中缓存时无需查询数据库
+  private final Map<String, String> channelAliases = new ConcurrentHashMap<>();
+
+  // item 片段格式变化时递增，使已缓存的片段失效
+  private static final int ITEM_FORMAT_VERSION = 2;
+
+  // 分页订阅源单页条数上限，以及翻页请求未指定条数时的默认值
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_CACHED_VARIANTS = 8;
+  // 后台写回片段时每个事务处理的节目数
+  private static final int ITEM_BATCH_SIZE = 200;
 
   // 从 application.properties 读取应用基础 URL
   @Value("${pigeon.base-url}")
   private String appBaseUrl;
 
-  public RssService(ChannelService channelService, EpisodeService episodeService,
-      PlaylistService playlistService, MessageSource messageSource) {
+  public RssService(ChannelService channelService, PlaylistService playlistService,
+      EpisodeMapper episodeMapper, EpisodeRssItemMapper episodeRssItemMapper,
+      UrlSignatureService urlSignatureService, MediaService mediaService,
+      ArtworkService artworkService, PlatformTransactionManager transactionManager,
+      MessageSource messageSource,
+      @Qualifier("rssItemTaskExecutor") TaskExecutor rssItemTaskExecutor) {
     this.channelService = channelService;
-    this.episodeService = episodeService;
     this.playlistService = playlistService;
+    this.episodeMapper = episodeMapper;
+    this.episodeRssItemMapper = episodeRssItemMapper;
+    this.urlSignatureService = urlSignatureService;
+    this.mediaService = mediaService;
+    this.artworkService = artworkService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
     this.messageSource = messageSource;
+    this.rssItemTaskExecutor = rssItemTaskExecutor;
   }
 
   @PostConstruct
@@ -69,124 +122,408 @@ public class RssService {
     }
   }
 
-  public String generateRssFeed(String channelIdentification) throws MalformedURLException {
-    // 1. 获取频道信息
-    Channel channel = channelService.findChannelByIdentification(channelIdentification);
-    if (ObjectUtils.isEmpty(channel)) {
-      throw new BusinessException(
-          messageSource.getMessage("channel.not.found.handler", new Object[]{channelIdentification},
-              LocaleContextHolder.getLocale()));
+  /**
+   * 获取频道 RSS，内容未变化时直接返回缓存的文档
+   *
+   * @param channelIdentification 频道ID或 handler
+   * @param limit                 请求的节目条数，为空时使用频道设置
+   * @param before                翻页游标，为空时返回最新的一页
+   * @param authQuery             请求使用的认证参数（sig=... 或 apikey=...），写入翻页链接
+   * @param profile               媒体地址使用的低码率版本，为空时使用原始文件
+   * @return 渲染后的 RSS 文档
+   */
+  public RenderedFeed getChannelFeed(String channelIdentification, Integer limit, String before,
+      String authQuery, TranscodeProfile profile) {
+    PageCursor cursor = PageCursor.decode(before);
+    String variant = variantOf(limit, authQuery, profile);
+    String channelId = channelAliases.get(channelIdentification);
+    RenderedFeed cached = channelId == null || cursor != null ? null
+        : getCached(channelId, variant);
+    if (cached != null) {
+      return cached;
     }
 
-    List<Episode> episodes = episodeService.getEpisodeOrderByPublishDateDesc(channel.getId());
-    SyndFeed feed = createFeed(StringUtils.hasText(channel.getCustomTitle()) ?
+    Channel channel = findChannel(channelIdentification);
+    channelAliases.put(channelIdentification, channel.getId());
+    Integer pageSize = resolveLimit(limit, channel, cursor);
+
+    long version = currentVersion(channel.getId());
+    Instant renderedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    String pageUrl = appBaseUrl + "/api/rss/" + channel.getId() + ".xml";
+    byte[] body = render(StringUtils.hasText(channel.getCustomTitle()) ?
             channel.getCustomTitle() : channel.getTitle(),
-        Youtube.CHANNEL_URL + channel.getId(), channel.getDescription(), getCoverUrl(channel));
-    feed.setEntries(buildEntries(episodes));
-    return writeFeed(feed);
+        Youtube.CHANNEL_URL + channel.getId(), channel.getDescription(),
+        toImageUrl(channel.getId(), getCoverUrl(channel)), renderedAt, pageSize,
+        nextPageUrl(pageUrl, pageSize, authQuery, profile), dynamicLinks(profile),
+        renderKey -> episodeMapper.cursorRssEpisodesByChannelId(channel.getId(), renderKey,
+            cursor == null ? null : cursor.publishedAt(), cursor == null ? null : cursor.id(),
+            pageSize == null ? null : pageSize + 1));
+    return cache(channel.getId(), cursor == null ? variant : null, version, body, renderedAt);
   }
 
-  public String generatePlaylistRssFeed(String playlistId) throws MalformedURLException {
+  /**
+   * 获取播放列表 RSS，内容未变化时直接返回缓存的文档
+   *
+   * @param playlistId 播放列表ID
+   * @param limit      请求的节目条数，为空时使用播放列表设置
+   * @param before     翻页游标，为空时返回最新的一页
+   * @param authQuery  请求使用的认证参数（sig=... 或 apikey=...），写入翻页链接
+   * @param profile    媒体地址使用的低码率版本，为空时使用原始文件
+   * @return 渲染后的 RSS 文档
+   */
+  public RenderedFeed getPlaylistFeed(String playlistId, Integer limit, String before,
+      String authQuery, TranscodeProfile profile) {
+    PageCursor cursor = PageCursor.decode(before);
+    Long beforeId = cursor == null ? null : Long.parseLong(cursor.id());
+    String variant = variantOf(limit, authQuery, profile);
+    RenderedFeed cached = cursor != null ? null : getCached(playlistId, variant);
+    if (cached != null) {
+      return cached;
+    }
+
     Playlist playlist = playlistService.playlistDetail(playlistId);
     if (ObjectUtils.isEmpty(playlist)) {
       throw new BusinessException(
           messageSource.getMessage("playlist.not.found", new Object[]{playlistId},
               LocaleContextHolder.getLocale()));
     }
+    Integer pageSize = resolveLimit(limit, playlist, cursor);
 
-    List<Episode> episodes = episodeService.getEpisodesByPlaylistId(playlistId);
-    SyndFeed feed = createFeed(StringUtils.hasText(playlist.getCustomTitle()) ?
+    long version = currentVersion(playlistId);
+    Instant renderedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    String pageUrl = appBaseUrl + "/api/rss/playlist/" + playlistId + ".xml";
+    byte[] body = render(StringUtils.hasText(playlist.getCustomTitle()) ?
             playlist.getCustomTitle() : playlist.getTitle(),
-        Youtube.PLAYLIST_URL + playlist.getId(), playlist.getDescription(), getCoverUrl(playlist));
-    feed.setEntries(buildEntries(episodes));
-    return writeFeed(feed);
-  }
-
-  private SyndFeed createFeed(String title, String link, String description, String coverUrl)
-      throws MalformedURLException {
-    SyndFeed feed = new SyndFeedImpl();
-    feed.setFeedType("rss_2.0");
-    feed.setTitle(title);
-    feed.setLink(link);
-    feed.setDescription(description);
-    feed.setPublishedDate(new Date());
-
-    FeedInformation feedInfo = new FeedInformationImpl();
-    feedInfo.setAuthor(title);
-    feedInfo.setSummary(description);
-    if (coverUrl != null) {
-      feedInfo.setImage(new URL(coverUrl));
-    }
-    feed.getModules().add(feedInfo);
-    return feed;
-  }
-
-  private List<SyndEntry> buildEntries(List<Episode> episodes) {
-    List<SyndEntry> entries = new ArrayList<>();
-    for (Episode episode : episodes) {
-      if (episode == null || episode.getPublishedAt() == null) {
-        continue;
+        Youtube.PLAYLIST_URL + playlist.getId(), playlist.getDescription(),
+        toImageUrl(playlist.getId(), getCoverUrl(playlist)), renderedAt, pageSize,
+        nextPageUrl(pageUrl, pageSize, authQuery, profile), dynamicLinks(profile),
+        renderKey -> episodeMapper.cursorRssEpisodesByPlaylistId(playlistId, renderKey,
+            cursor == null ? null : cursor.publishedAt(), beforeId,
+            pageSize == null ? null : pageSize + 1));
+    return cache(playlistId, cursor == null ? variant : null, version, body, renderedAt);
+  }
+
+  /**
+   * 渲染用于静态发布的 RSS 文档，条数与动态订阅的首页一致（订阅源设置的条数，未设置时为全部），
+   * 不写出翻页链接。封面与媒体地址由发布方提供，媒体地址与动态订阅不同，不复用也不写回 item 片段缓存
+   *
+   * @param feed         频道或播放列表
+   * @param coverUrl     订阅源封面地址
+   * @param enclosureUrl 生成节目媒体地址
+   * @return RSS 文档
+   */
+  public byte[] renderStaticFeed(Feed feed, String coverUrl,
+      Function<Episode, String> enclosureUrl) {
+    boolean isChannel = feed instanceof Channel;
+    Integer pageSize = resolveLimit(null, feed, null);
+    Instant renderedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    return render(StringUtils.hasText(feed.getCustomTitle()) ?
+            feed.getCustomTitle() : feed.getTitle(),
+        (isChannel ? Youtube.CHANNEL_URL : Youtube.PLAYLIST_URL) + feed.getId(),
+        feed.getDescription(), toImageUrl(feed.getId(), coverUrl), renderedAt, pageSize, null,
+        new ItemLinks(null, enclosureUrl, null),
+        renderKey -> isChannel
+            ? episodeMapper.cursorRssEpisodesByChannelId(feed.getId(), renderKey, null, null,
+                pageSize)
+            : episodeMapper.cursorRssEpisodesByPlaylistId(feed.getId(), renderKey, null, null,
+                pageSize));
+  }
+
+  /**
+   * 请求参数优先，其次为订阅源设置；翻页请求未指定条数时使用默认页大小。返回 null 表示不分页
+   */
+  private Integer resolveLimit(Integer requested, Feed feed, PageCursor cursor) {
+    if (requested != null) {
+      return normalizeLimit(requested);
+    }
+    Integer configured = feed.getRssItemLimit();
+    if (configured != null && configured > 0) {
+      return normalizeLimit(configured);
+    }
+    return cursor == null ? null : DEFAULT_PAGE_SIZE;
+  }
+
+  private Integer normalizeLimit(Integer limit) {
+    return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+  }
+
+  /**
+   * 首页缓存按请求参数区分：条数与转码版本不同内容不同，认证参数会写入翻页链接。
+   * 订阅源自身的条数设置变化时会发布内容变更事件，整体失效
+   */
+  private String variantOf(Integer requestedLimit, String authQuery, TranscodeProfile profile) {
+    return (requestedLimit == null ? "" : normalizeLimit(requestedLimit)) + "|"
+        + (authQuery == null ? "" : authQuery) + "|"
+        + (profile == null ? "" : profile.getKey());
+  }
+
+  /**
+   * 生成翻页链接的构造函数，参数为下一页的游标
+   */
+  private Function<String, String> nextPageUrl(String pageUrl, Integer pageSize,
+      String authQuery, TranscodeProfile profile) {
+    if (pageSize == null) {
+      return null;
+    }
+    String query = "?limit=" + pageSize + "&before=";
+    String suffix = (StringUtils.hasText(authQuery) ? "&" + authQuery : "")
+        + (profile == null ? "" : "&profile=" + profile.getKey());
+    return cursor -> pageUrl + query + cursor + suffix;
+  }
+
+  /**
+   * 动态订阅的节目链接。媒体地址带有签名，片段缓存的 key 包含签名密钥版本，轮换后重新生成。
+   * 每个节目只缓存一个片段，低码率版本的订阅不读写片段缓存
+   */
+  private ItemLinks dynamicLinks(TranscodeProfile profile) {
+    if (profile != null) {
+      return new ItemLinks(null,
+          episode -> mediaUrl(episode) + "&profile=" + profile.getKey(), profile);
+    }
+    String renderKey = DigestUtils.md5DigestAsHex((ITEM_FORMAT_VERSION + "|" + appBaseUrl + "|"
+        + urlSignatureService.currentVersion()).getBytes(StandardCharsets.UTF_8));
+    return new ItemLinks(renderKey, this::mediaUrl, null);
+  }
+
+  /**
+   * 事务提交后失效受影响订阅源的缓存，避免并发渲染读到未提交前的数据
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onFeedContentChanged(FeedContentChangedEvent event) {
+    long version = versionSequence.incrementAndGet();
+    if (event.isAllFeeds()) {
+      allFeedsVersion = version;
+      feedCache.clear();
+      channelAliases.clear();
+      return;
+    }
+    for (String feedId : event.getFeedIds()) {
+      feedVersions.put(feedId, version);
+      feedCache.remove(feedId);
+    }
+  }
+
+  private long currentVersion(String feedId) {
+    return Math.max(allFeedsVersion, feedVersions.getOrDefault(feedId, 0L));
+  }
+
+  private RenderedFeed getCached(String feedId, String variant) {
+    Map<String, RenderedFeed> variants = feedCache.get(feedId);
+    RenderedFeed cached = variants == null ? null : variants.get(variant);
+    if (cached != null && cached.getVersion() == currentVersion(feedId)) {
+      return cached;
+    }
+    return null;
+  }
+
+  /**
+   * 生成 ETag 与 gzip 版本并缓存，variant 为 null 时（翻页请求）不缓存
+   */
+  private RenderedFeed cache(String feedId, String variant, long version, byte[] body,
+      Instant renderedAt) {
+    String digest = DigestUtils.md5DigestAsHex(body);
+    RenderedFeed rendered = new RenderedFeed(feedId, body, "\"" + digest + "\"", gzip(body),
+        "\"" + digest + "-gzip\"", renderedAt.toEpochMilli(), version);
+    // 渲染期间版本已变化则不缓存，下次请求重新生成
+    if (variant != null && currentVersion(feedId) == version) {
+      Map<String, RenderedFeed> variants = feedCache.computeIfAbsent(feedId,
+          key -> new ConcurrentHashMap<>());
+      if (variants.size() < MAX_CACHED_VARIANTS || variants.containsKey(variant)) {
+        variants.put(variant, rendered);
       }
+    }
+    return rendered;
+  }
 
-      SyndEntry entry = new SyndEntryImpl();
-      entry.setTitle(episode.getTitle());
-      entry.setLink("https://www.youtube.com/watch?v=" + episode.getId());
-      entry.setPublishedDate(
-          Date.from(episode.getPublishedAt().toInstant(java.time.ZoneOffset.UTC)));
+  /**
+   * 每个版本只压缩一次，使用最高压缩级别
+   */
+  static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+      {
+        def.setLevel(Deflater.BEST_COMPRESSION);
+      }
+    }) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
 
-      SyndContent description = new SyndContentImpl();
-      description.setType("text/html");
-      String episodeDescription = episode.getDescription();
-      description.setValue(episodeDescription == null ? ""
-          : episodeDescription.replaceAll("\n", "<br/>"));
-      entry.setDescription(description);
+  private Channel findChannel(String channelIdentification) {
+    Channel channel = channelService.findChannelByIdentification(channelIdentification);
+    if (ObjectUtils.isEmpty(channel)) {
+      throw new BusinessException(
+          messageSource.getMessage("channel.not.found.handler", new Object[]{channelIdentification},
+              LocaleContextHolder.getLocale()));
+    }
+    return channel;
+  }
 
+  /**
+   * 通过数据库游标逐条读取节目并直接写出 XML，内存占用与节目数量无关。
+   * 已缓存的 &lt;item&gt; 片段直接拼接，缺失的片段渲染后在后台写回 episode_rss_item，
+   * 请求本身只做读事务。
+   * 分页时查询多取一条，存在更早的节目且提供了翻页地址时在频道末尾写出翻页链接
+   */
+  private byte[] render(String title, String link, String description, String coverUrl,
+      Instant publishedAt, Integer pageSize, Function<String, String> nextPageUrl,
+      ItemLinks links, Function<String, Cursor<RssEpisode>> episodes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+    List<String> missingItems = new ArrayList<>();
+    // 游标需要在同一个 SqlSession 中遍历，放在事务内执行
+    transactionTemplate.executeWithoutResult(status -> {
+      try (Cursor<RssEpisode> cursor = episodes.apply(links.renderKey());
+          RssFeedWriter writer = new RssFeedWriter(out)) {
+        writer.writeChannel(
+            new RssFeedWriter.Channel(title, link, description, publishedAt, coverUrl),
+            nextPageUrl != null);
+        int written = 0;
+        RssEpisode last = null;
+        for (RssEpisode episode : cursor) {
+          if (pageSize != null && written == pageSize) {
+            if (nextPageUrl != null) {
+              writer.writeNextPageLink(nextPageUrl.apply(
+                  new PageCursor(last.getSortPublishedAt(), last.getSortId()).encode()));
+            }
+            break;
+          }
+          written++;
+          last = episode;
+          if (episode.getRssItem() != null) {
+            writer.writeRawItem(episode.getRssItem());
+            continue;
+          }
+          RssFeedWriter.Item item = buildItem(episode, links);
+          if (item != null) {
+            byte[] fragment = RssFeedWriter.renderItem(item);
+            writer.writeRawItem(fragment);
+            if (links.renderKey() != null) {
+              missingItems.add(episode.getId());
+            }
+          }
+        }
+        writer.finish();
+      } catch (Exception e) {
+        throw new RuntimeException(messageSource.getMessage("system.generate.rss.failed",
+            null, LocaleContextHolder.getLocale()), e);
+      }
+    });
+    saveRenderedItems(missingItems, links);
+    return out.toByteArray();
+  }
+
+  /**
+   * 在后台重新读取并渲染缺失的片段后写回。读取与写入在同一事务内，若读取之后已有其他写入提交，
+   * SQLite 会拒绝升级为写事务，此时放弃写回，避免缓存基于旧数据渲染的片段
+   */
+  private void saveRenderedItems(List<String> episodeIds, ItemLinks links) {
+    List<String> submitted = episodeIds.stream().filter(pendingItems::add).toList();
+    if (submitted.isEmpty()) {
+      return;
+    }
+    Runnable task = () -> {
       try {
-        String mediaFilePath = episode.getMediaFilePath();
-        if (mediaFilePath == null) {
-          continue;
+        for (int from = 0; from < submitted.size(); from += ITEM_BATCH_SIZE) {
+          List<String> batch = submitted.subList(from,
+              Math.min(from + ITEM_BATCH_SIZE, submitted.size()));
+          transactionTemplate.executeWithoutResult(status -> {
+            for (RssEpisode episode : episodeMapper.selectRssEpisodesByIds(batch)) {
+              RssFeedWriter.Item item = buildItem(episode, links);
+              if (item == null) {
+                continue;
+              }
+              byte[] fragment;
+              try {
+                fragment = RssFeedWriter.renderItem(item);
+              } catch (XMLStreamException e) {
+                throw new IllegalStateException(e);
+              }
+              episodeRssItemMapper.upsert(
+                  new EpisodeRssItem(episode.getId(), links.renderKey(), fragment));
+            }
+          });
         }
+      } catch (Exception e) {
+        log.debug("RSS 片段写回失败，下次生成时重试: {}", e.getMessage());
+      } finally {
+        submitted.forEach(pendingItems::remove);
+      }
+    };
+    try {
+      rssItemTaskExecutor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // 写回任务积压，放弃本次，下次生成时重试
+      submitted.forEach(pendingItems::remove);
+    }
+  }
 
-        SyndEnclosure enclosure = new SyndEnclosureImpl();
-        String suffix = getSuffix(mediaFilePath);
-        String audioUrl = appBaseUrl + "/media/" + episode.getId() + "." + suffix;
-        enclosure.setUrl(audioUrl);
-        String enclosureType = StringUtils.hasText(episode.getMediaType()) ?
-            episode.getMediaType() : "audio/mpeg";
-        enclosure.setType(enclosureType);
-        long fileSize = Files.size(Paths.get(mediaFilePath));
-        enclosure.setLength(fileSize);
-        entry.setEnclosures(Collections.singletonList(enclosure));
+  private RssFeedWriter.Item buildItem(Episode episode, ItemLinks links) {
+    String mediaFilePath = episode.getMediaFilePath();
+    // 文件大小在下载完成时记录，仅历史数据尚未补齐时才读取文件
+    long fileSize;
+    if (episode.getMediaSizeBytes() != null) {
+      fileSize = episode.getMediaSizeBytes();
+    } else {
+      try {
+        fileSize = Files.size(Paths.get(mediaFilePath));
       } catch (Exception e) {
         log.error("无法为 episode {} 创建 enclosure: {}", episode.getId(), e.getMessage());
-        continue;
+        return null;
       }
+    }
+    Duration duration = episode.getDurationSeconds() != null
+        ? new Duration(episode.getDurationSeconds() * 1000L)
+        : convertToRomeDuration(episode.getDuration());
 
-      EntryInformation entryInfo = new EntryInformationImpl();
-      entryInfo.setSummary(episode.getDescription());
-      entryInfo.setDuration(convertToRomeDuration(episode.getDuration()));
-      if (episode.getMaxCoverUrl() != null) {
-        try {
-          entryInfo.setImage(new URL(episode.getMaxCoverUrl()));
-        } catch (MalformedURLException e) {
-          log.warn("Episode {} cover url is invalid: {}", episode.getId(), e.getMessage());
-        }
+    String link = "https://www.youtube.com/watch?v=" + episode.getId();
+    String episodeDescription = episode.getDescription();
+    String audioUrl = links.enclosureUrl().apply(episode);
+    String enclosureType = StringUtils.hasText(episode.getMediaType()) ?
+        episode.getMediaType() : "audio/mpeg";
+    if (links.profile() != null) {
+      // 转码后的大小按码率估算，时长未知时保留原始大小
+      enclosureType = links.profile().getMimeType();
+      if (episode.getDurationSeconds() != null) {
+        fileSize = links.profile().estimateSize(episode.getDurationSeconds());
       }
-      entry.getModules().add(entryInfo);
+    }
+    return new RssFeedWriter.Item(
+        episode.getTitle(),
+        link,
+        episodeDescription == null ? "" : episodeDescription.replace("\n", "<br/>"),
+        audioUrl,
+        fileSize,
+        enclosureType,
+        episode.getPublishedAt().toInstant(ZoneOffset.UTC),
+        duration.toString(),
+        getEpisodeImageUrl(episode),
+        episodeDescription);
+  }
 
-      entries.add(entry);
+  /**
+   * 本地封面生成后使用符合播客规范的版本，此前使用 YouTube 的原图
+   */
+  private String getEpisodeImageUrl(Episode episode) {
+    String artworkUrl = artworkService.getEpisodeArtworkUrl(episode,
+        ArtworkService.Variant.PODCAST);
+    if (artworkUrl != null) {
+      return appBaseUrl + artworkUrl;
     }
-    return entries;
+    return toImageUrl(episode.getId(), episode.getMaxCoverUrl());
   }
 
-  private String writeFeed(SyndFeed feed) {
-    try (StringWriter writer = new StringWriter()) {
-      SyndFeedOutput output = new SyndFeedOutput();
-      output.output(feed, writer);
-      return writer.toString();
-    } catch (Exception e) {
-      throw new RuntimeException(messageSource.getMessage("system.generate.rss.failed",
-          null, LocaleContextHolder.getLocale()), e);
+  private String toImageUrl(String ownerId, String url) {
+    if (url == null) {
+      return null;
+    }
+    try {
+      return new URL(url).toString();
+    } catch (MalformedURLException e) {
+      log.warn("Episode {} cover url is invalid: {}", ownerId, e.getMessage());
+      return null;
     }
   }
 
@@ -209,19 +546,39 @@ public class RssService {
   }
 
   private String getCoverUrl(Feed feed) {
+    String artworkUrl = artworkService.getFeedArtworkUrl(feed, ArtworkService.Variant.PODCAST);
+    if (artworkUrl != null) {
+      return appBaseUrl + artworkUrl;
+    }
     String customCoverExt = feed.getCustomCoverExt();
     if (StringUtils.hasText(customCoverExt)) {
       String coverUrl = appBaseUrl + "/media/feed/" + feed.getId() + "/cover";
-      if (feed.getLastUpdatedAt() != null) {
-        coverUrl += "?v=" + feed.getLastUpdatedAt().toEpochSecond(java.time.ZoneOffset.UTC);
+      // 以封面文件的修改时间作为版本，封面不变时地址不变，可被客户端永久缓存
+      Long coverVersion = mediaService.getFeedCoverVersion(feed.getId());
+      if (coverVersion != null) {
+        coverUrl += "?v=" + coverVersion;
       }
       return coverUrl;
     }
     return feed.getCoverUrl();
   }
 
-  private String getSuffix(String mediaFilePath) {
+  private String mediaUrl(Episode episode) {
+    return appBaseUrl + "/media/" + episode.getId() + "." + getSuffix(episode.getMediaFilePath())
+        + "?sig=" + urlSignatureService.signMedia(episode.getId());
+  }
+
+  static String getSuffix(String mediaFilePath) {
     String[] strings = mediaFilePath.split("\\.");
     return strings[strings.length -1 ];
   }
+
+  /**
+   * 节目媒体地址的生成方式。renderKey 为 null 时不使用 item 片段缓存，profile 不为空时
+   * enclosure 指向低码率版本
+   */
+  private record ItemLinks(String renderKey, Function<Episode, String> enclosureUrl,
+      TranscodeProfile profile) {
+
+  }
 }
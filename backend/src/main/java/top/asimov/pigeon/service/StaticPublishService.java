@@ -0,0 +1,378 @@
+package top.asimov.pigeon.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
+import top.asimov.pigeon.mapper.ChannelMapper;
+import top.asimov.pigeon.mapper.EpisodeMapper;
+import top.asimov.pigeon.mapper.PlaylistMapper;
+import top.asimov.pigeon.model.Channel;
+import top.asimov.pigeon.model.Episode;
+import top.asimov.pigeon.model.Feed;
+import top.asimov.pigeon.model.Playlist;
+
+/**
+ * 静态发布：把每个订阅源的 RSS、封面以及媒体文件的硬链接写入静态目录，由 nginx / CDN 直接提供服务。
+ * 目录名由密钥 HMAC 生成，无法从频道或节目ID推算。所有文件先写入临时文件再原子重命名，
+ * 读取方不会看到写了一半的内容。动态的 /api/rss 与 /media 接口保持不变，作为回退。
+ *
+ * <pre>
+ * {path}/{订阅源令牌}/feed.xml
+ * {path}/{订阅源令牌}/feed.xml.gz
+ * {path}/{订阅源令牌}/cover.{ext}
+ * {path}/media/{节目令牌}.{ext}
+ * </pre>
+ */
+@Log4j2
+@Service
+public class StaticPublishService {
+
+  private static final String MEDIA_DIR = "media";
+  private static final String FEED_FILE = "feed.xml";
+  private static final String COVER_FILE = "cover";
+  private static final String TEMP_SUFFIX = ".tmp";
+  // 令牌取 HMAC 的前 16 字节，base64url 编码后为 22 个字符
+  private static final int TOKEN_BYTES = 16;
+
+  private final RssService rssService;
+  private final MediaService mediaService;
+  private final ChannelMapper channelMapper;
+  private final PlaylistMapper playlistMapper;
+  private final EpisodeMapper episodeMapper;
+
+  // 待发布的订阅源；fullPublish 为 true 时重新发布全部并清理过期文件
+  private final Set<String> pendingFeeds = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean fullPublish = new AtomicBoolean(true);
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  @Value("${pigeon.static-publish.enabled:false}")
+  private boolean enabled;
+
+  @Value("${pigeon.static-publish.path:}")
+  private String publishPath;
+
+  // 静态目录对外的访问地址，例如 https://cdn.example.com/pigeon
+  @Value("${pigeon.static-publish.base-url:}")
+  private String publicBaseUrl;
+
+  @Value("${pigeon.static-publish.secret:}")
+  private String secret;
+
+  private SecretKeySpec signingKey;
+
+  public StaticPublishService(RssService rssService, MediaService mediaService,
+      ChannelMapper channelMapper, PlaylistMapper playlistMapper, EpisodeMapper episodeMapper) {
+    this.rssService = rssService;
+    this.mediaService = mediaService;
+    this.channelMapper = channelMapper;
+    this.playlistMapper = playlistMapper;
+    this.episodeMapper = episodeMapper;
+  }
+
+  @PostConstruct
+  private void init() {
+    if (!enabled) {
+      return;
+    }
+    if (!StringUtils.hasText(publishPath) || !StringUtils.hasText(publicBaseUrl)
+        || !StringUtils.hasText(secret)) {
+      log.warn("静态发布缺少 path、base-url 或 secret 配置，已禁用");
+      enabled = false;
+      return;
+    }
+    if (publicBaseUrl.endsWith("/")) {
+      publicBaseUrl = publicBaseUrl.substring(0, publicBaseUrl.length() - 1);
+    }
+    signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 事务提交后记录需要重新发布的订阅源，由定时任务合并处理
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onFeedContentChanged(FeedContentChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    if (event.isAllFeeds()) {
+      fullPublish.set(true);
+      return;
+    }
+    pendingFeeds.addAll(event.getFeedIds());
+  }
+
+  /**
+   * 获取订阅源的静态 RSS 地址
+   *
+   * @param feedId 频道或播放列表ID
+   * @return 静态地址，未启用静态发布时返回 null
+   */
+  public String getPublishedFeedUrl(String feedId) {
+    if (!enabled) {
+      return null;
+    }
+    return publicBaseUrl + "/" + token("feed", feedId) + "/" + FEED_FILE;
+  }
+
+  /**
+   * 发布所有待处理的订阅源，同一时间只执行一次
+   */
+  public void publishPending() {
+    if (!enabled || !running.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      if (fullPublish.getAndSet(false)) {
+        pendingFeeds.clear();
+        publishAll();
+        return;
+      }
+      Set<String> feedIds = new HashSet<>(pendingFeeds);
+      pendingFeeds.removeAll(feedIds);
+      for (String feedId : feedIds) {
+        publishFeed(feedId);
+      }
+      if (!feedIds.isEmpty()) {
+        pruneMedia();
+      }
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private void publishAll() {
+    long start = System.currentTimeMillis();
+    Set<String> feedTokens = new HashSet<>();
+    List<Channel> channels = channelMapper.selectList(null);
+    List<Playlist> playlists = playlistMapper.selectList(null);
+    for (Channel channel : channels) {
+      publishFeed(channel);
+      feedTokens.add(token("feed", channel.getId()));
+    }
+    for (Playlist playlist : playlists) {
+      publishFeed(playlist);
+      feedTokens.add(token("feed", playlist.getId()));
+    }
+    pruneFeeds(feedTokens);
+    pruneMedia();
+    log.info("静态发布完成: {} 个订阅源，耗时 {}ms", feedTokens.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  private void publishFeed(String feedId) {
+    Feed feed = channelMapper.selectById(feedId);
+    if (feed == null) {
+      feed = playlistMapper.selectById(feedId);
+    }
+    if (feed == null) {
+      // 订阅源已删除，移除其发布目录
+      deleteRecursively(Paths.get(publishPath, token("feed", feedId)));
+      return;
+    }
+    publishFeed(feed);
+  }
+
+  private void publishFeed(Feed feed) {
+    String feedToken = token("feed", feed.getId());
+    Path feedDir = Paths.get(publishPath, feedToken);
+    Path mediaDir = Paths.get(publishPath, MEDIA_DIR);
+    try {
+      Files.createDirectories(feedDir);
+      Files.createDirectories(mediaDir);
+
+      String coverUrl = publishCover(feed, feedDir, feedToken);
+      Map<Path, Path> mediaLinks = new HashMap<>();
+      byte[] body = rssService.renderStaticFeed(feed, coverUrl, episode -> {
+        String fileName = token("media", episode.getId()) + "."
+            + RssService.getSuffix(episode.getMediaFilePath());
+        mediaLinks.put(mediaDir.resolve(fileName), Paths.get(episode.getMediaFilePath()));
+        return publicBaseUrl + "/" + MEDIA_DIR + "/" + fileName;
+      });
+      // 先发布媒体再发布 RSS，客户端读到新的 RSS 时媒体文件已可访问
+      mediaLinks.forEach(this::linkMedia);
+      writeAtomically(feedDir.resolve(FEED_FILE), body);
+      writeAtomically(feedDir.resolve(FEED_FILE + ".gz"), RssService.gzip(body));
+    } catch (Exception e) {
+      log.error("静态发布订阅源 {} 失败: {}", feed.getId(), e.getMessage(), e);
+    }
+  }
+
+  /**
+   * 自定义封面复制到发布目录，否则沿用原始封面地址
+   */
+  private String publishCover(Feed feed, Path feedDir, String feedToken) throws IOException {
+    File coverFile = StringUtils.hasText(feed.getCustomCoverExt())
+        ? mediaService.getFeedCover(feed.getId()) : null;
+    if (coverFile == null) {
+      removeStaleCovers(feedDir, null);
+      return feed.getCoverUrl();
+    }
+    String fileName = COVER_FILE + "." + feed.getCustomCoverExt();
+    writeAtomically(feedDir.resolve(fileName), Files.readAllBytes(coverFile.toPath()));
+    removeStaleCovers(feedDir, fileName);
+    return publicBaseUrl + "/" + feedToken + "/" + fileName;
+  }
+
+  /**
+   * 删除已发布的其他封面文件：自定义封面被删除或换了扩展名后，旧文件不应继续公开
+   *
+   * @param keep 保留的文件名，为 null 时全部删除
+   */
+  private void removeStaleCovers(Path feedDir, String keep) throws IOException {
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(feedDir, COVER_FILE + ".*")) {
+      for (Path entry : stream) {
+        if (!entry.getFileName().toString().equals(keep)) {
+          Files.deleteIfExists(entry);
+        }
+      }
+    }
+  }
+
+  /**
+   * 优先使用硬链接，不占用额外空间；跨文件系统时退回符号链接。
+   * 媒体文件被替换（重新编码、重新下载）后硬链接仍指向旧文件，此时重新链接
+   */
+  private void linkMedia(Path link, Path source) {
+    if (!Files.exists(source)) {
+      return;
+    }
+    Path temp = link.resolveSibling(link.getFileName() + TEMP_SUFFIX);
+    try {
+      if (Files.exists(link) && Files.isSameFile(link, source)) {
+        return;
+      }
+      Files.deleteIfExists(temp);
+      try {
+        Files.createLink(temp, source);
+      } catch (IOException | UnsupportedOperationException e) {
+        Files.createSymbolicLink(temp, source.toAbsolutePath());
+      }
+      moveAtomically(temp, link);
+    } catch (IOException e) {
+      log.warn("无法为媒体文件 {} 创建链接: {}", source, e.getMessage());
+    }
+  }
+
+  /**
+   * 删除已不属于任何订阅源的媒体链接，避免硬链接使已删除的文件继续占用空间
+   */
+  private void pruneMedia() {
+    Set<String> expected = new HashSet<>();
+    List<Episode> episodes = episodeMapper.selectList(new LambdaQueryWrapper<Episode>()
+        .select(Episode::getId, Episode::getMediaFilePath)
+        .isNotNull(Episode::getMediaFilePath));
+    for (Episode episode : episodes) {
+      expected.add(token("media", episode.getId()) + "."
+          + RssService.getSuffix(episode.getMediaFilePath()));
+    }
+    Path mediaDir = Paths.get(publishPath, MEDIA_DIR);
+    if (!Files.isDirectory(mediaDir)) {
+      return;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(mediaDir)) {
+      for (Path entry : stream) {
+        if (!expected.contains(entry.getFileName().toString())) {
+          Files.deleteIfExists(entry);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("清理静态发布媒体目录失败: {}", e.getMessage());
+    }
+  }
+
+  private void pruneFeeds(Set<String> feedTokens) {
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(publishPath))) {
+      for (Path entry : stream) {
+        String name = entry.getFileName().toString();
+        if (Files.isDirectory(entry) && !MEDIA_DIR.equals(name) && !feedTokens.contains(name)) {
+          deleteRecursively(entry);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("清理静态发布目录失败: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * 内容未变化时不重写，保留文件修改时间，便于静态服务器与 CDN 的缓存校验
+   */
+  private void writeAtomically(Path target, byte[] content) throws IOException {
+    if (Files.exists(target) && Files.size(target) == content.length
+        && Arrays.equals(Files.readAllBytes(target), content)) {
+      return;
+    }
+    Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+    Files.write(temp, content);
+    moveAtomically(temp, target);
+  }
+
+  private void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private void deleteRecursively(Path dir) {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      for (Path entry : stream) {
+        Files.deleteIfExists(entry);
+      }
+      Files.deleteIfExists(dir);
+    } catch (IOException e) {
+      log.warn("删除静态发布目录 {} 失败: {}", dir, e.getMessage());
+    }
+  }
+
+  /**
+   * 基于密钥的 HMAC 令牌，用作不可猜测的目录名与文件名
+   */
+  private String token(String kind, String id) {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(signingKey);
+      byte[] digest = mac.doFinal((kind + ":" + id).getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(Arrays.copyOf(digest, TOKEN_BYTES));
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,462 @@
+package top.asimov.pigeon.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.constant.TranscodeProfile;
+import top.asimov.pigeon.event.MediaFileChangedEvent;
+import top.asimov.pigeon.util.MediaFileSender;
+import top.asimov.pigeon.util.MediaPathIndex;
+
+/**
+ * 低码率媒体版本：首次请求时启动 ffmpeg 转码，转码输出边写入临时文件边发送给客户端；
+ * 同一版本的并发请求共用一个转码任务。完成后的文件按最近使用顺序保存在缓存目录，
+ * 超出容量时淘汰最久未使用的版本。
+ * <p>
+ * 缓存文件名包含源文件的大小与修改时间，源文件重新下载后旧版本不再命中。
+ */
+@Log4j2
+@Service
+public class TranscodeService {
+
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final String LOG_SUFFIX = ".log";
+  private static final int PUMP_BUFFER_SIZE = 64 * 1024;
+  // 转码输出停滞超过该时间时中断发送
+  private static final long STALL_TIMEOUT_MILLIS = 60_000;
+
+  private final TaskExecutor transcodeTaskExecutor;
+
+  private final Map<String, TranscodeJob> jobs = new ConcurrentHashMap<>();
+  // 文件名 -> 大小，按访问顺序排列
+  private final LinkedHashMap<String, Long> cache = new LinkedHashMap<>(64, 0.75f, true);
+  private long cacheBytes;
+
+  @Value("${pigeon.transcode.enabled:true}")
+  private boolean enabled;
+
+  @Value("${pigeon.transcode.cache-path:}")
+  private String cachePath;
+
+  @Value("${pigeon.transcode.cache-max-mb:2048}")
+  private long cacheMaxMb;
+
+  @Value("${pigeon.audio-file-path}")
+  private String audioStoragePath;
+
+  private Path cacheDir;
+
+  public TranscodeService(
+      @Qualifier("transcodeTaskExecutor") TaskExecutor transcodeTaskExecutor) {
+    this.transcodeTaskExecutor = transcodeTaskExecutor;
+  }
+
+  /**
+   * 加载缓存目录中已完成的文件，按修改时间近似恢复使用顺序，并清理上次未完成的临时文件
+   */
+  @PostConstruct
+  private void init() {
+    if (!enabled) {
+      return;
+    }
+    cacheDir = StringUtils.hasText(cachePath) ? Paths.get(cachePath)
+        : Paths.get(audioStoragePath).toAbsolutePath().normalize().resolveSibling("transcode");
+    try {
+      Files.createDirectories(cacheDir);
+      List<Path> files = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir)) {
+        for (Path entry : stream) {
+          String name = entry.getFileName().toString();
+          if (name.endsWith(TEMP_SUFFIX) || name.endsWith(LOG_SUFFIX)) {
+            Files.deleteIfExists(entry);
+          } else if (Files.isRegularFile(entry)) {
+            files.add(entry);
+          }
+        }
+      }
+      files.sort(Comparator.comparingLong(this::lastModified));
+      synchronized (cache) {
+        for (Path file : files) {
+          long size = Files.size(file);
+          cache.put(file.getFileName().toString(), size);
+          cacheBytes += size;
+        }
+        evictIfNeeded();
+      }
+      log.info("转码缓存已加载: {} 个文件，共 {} MB", cache.size(), cacheBytes / 1024 / 1024);
+    } catch (IOException e) {
+      log.error("转码缓存目录不可用，已禁用转码: {}", cacheDir, e);
+      enabled = false;
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 输出节目的低码率版本：已缓存时按普通文件发送（支持 Range 与条件请求），
+   * 否则启动或加入转码任务，边转码边发送
+   *
+   * @return 转码任务已满、无法开始新的转码时返回 false，由调用方回退到原始文件
+   */
+  public boolean send(String episodeId, MediaPathIndex.Entry source, TranscodeProfile profile,
+      HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String fileName = episodeId + "." + profile.getKey() + "."
+        + Long.toHexString(source.size()) + "-" + Long.toHexString(source.lastModified())
+        + "." + profile.getExtension();
+    if (touch(fileName)) {
+      try {
+        MediaFileSender.send(request, response, cacheDir.resolve(fileName),
+            profile.getMimeType(), null, MediaFileSender.MEDIA_CACHE_CONTROL);
+        return true;
+      } catch (NoSuchFileException e) {
+        // 文件被外部删除，移出缓存后重新转码
+        remove(fileName);
+      }
+    }
+
+    if (HttpMethod.HEAD.matches(request.getMethod())) {
+      // 长度未知，HEAD 请求不启动转码
+      writeStreamingHeaders(response, profile);
+      return true;
+    }
+
+    TranscodeJob job = jobs.computeIfAbsent(fileName,
+        key -> start(key, episodeId, source.path(), profile));
+    if (job == null) {
+      return false;
+    }
+    writeStreamingHeaders(response, profile);
+    stream(job, fileName, response);
+    return true;
+  }
+
+  /**
+   * 源文件变化时删除对应节目的全部转码版本
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onMediaFileChanged(MediaFileChangedEvent event) {
+    if (!enabled || event.isAllEpisodes()) {
+      // 整体核对时不逐个检查，源文件变化后的旧版本因文件名不再命中，会被逐渐淘汰
+      return;
+    }
+    List<String> stale = new ArrayList<>();
+    synchronized (cache) {
+      for (String fileName : cache.keySet()) {
+        String episodeId = fileName.substring(0, fileName.indexOf('.'));
+        if (event.getEpisodeIds().contains(episodeId)) {
+          stale.add(fileName);
+        }
+      }
+    }
+    stale.forEach(this::remove);
+  }
+
+  private void writeStreamingHeaders(HttpServletResponse response, TranscodeProfile profile) {
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(profile.getMimeType());
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+  }
+
+  /**
+   * 创建临时文件并提交转码任务，线程已满时返回 null
+   */
+  private TranscodeJob start(String fileName, String episodeId, Path source,
+      TranscodeProfile profile) {
+    Path temp = cacheDir.resolve(fileName + TEMP_SUFFIX);
+    TranscodeJob job = new TranscodeJob(temp);
+    try {
+      Files.deleteIfExists(temp);
+      Files.createFile(temp);
+      transcodeTaskExecutor.execute(() -> run(job, fileName, episodeId, source, profile));
+      return job;
+    } catch (RejectedExecutionException e) {
+      log.debug("转码任务已满，{} 使用原始文件", episodeId);
+    } catch (IOException e) {
+      log.warn("无法创建转码临时文件: {}", temp, e);
+    }
+    deleteQuietly(temp);
+    return null;
+  }
+
+  /**
+   * 读取 ffmpeg 的标准输出写入临时文件，每次写入后唤醒等待中的请求
+   */
+  private void run(TranscodeJob job, String fileName, String episodeId, Path source,
+      TranscodeProfile profile) {
+    Path target = cacheDir.resolve(fileName);
+    Path errorLog = cacheDir.resolve(fileName + LOG_SUFFIX);
+    List<String> command = new ArrayList<>(List.of("ffmpeg", "-nostdin", "-hide_banner",
+        "-loglevel", "error", "-i", source.toString(), "-vn", "-map", "0:a:0"));
+    command.addAll(profile.getFfmpegArgs());
+    command.add("pipe:1");
+    long startedAt = System.currentTimeMillis();
+    boolean success = false;
+    try {
+      Process process = new ProcessBuilder(command)
+          .redirectError(errorLog.toFile())
+          .start();
+      try (InputStream output = process.getInputStream();
+          FileChannel channel = FileChannel.open(job.temp, StandardOpenOption.WRITE)) {
+        byte[] buffer = new byte[PUMP_BUFFER_SIZE];
+        int read;
+        while ((read = output.read(buffer)) != -1) {
+          ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+          while (chunk.hasRemaining()) {
+            channel.write(chunk);
+          }
+          job.advance(read);
+        }
+      }
+      int exitCode = process.waitFor();
+      if (exitCode == 0 && job.written > 0) {
+        moveAtomically(job.temp, target);
+        put(fileName, job.written);
+        success = true;
+        log.info("转码完成 {} ({}): {} KB，耗时 {}ms", episodeId, profile.getKey(),
+            job.written / 1024, System.currentTimeMillis() - startedAt);
+      } else {
+        log.warn("转码失败 {} ({})，退出码 {}: {}", episodeId, profile.getKey(), exitCode,
+            readErrorLog(errorLog));
+      }
+    } catch (IOException e) {
+      log.warn("转码失败 {} ({}): {}", episodeId, profile.getKey(), e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (!success) {
+        deleteQuietly(job.temp);
+      }
+      deleteQuietly(errorLog);
+      // 先写入缓存再移除任务，之后的请求直接命中缓存
+      jobs.remove(fileName);
+      job.finish(success);
+    }
+  }
+
+  /**
+   * 从临时文件读取已写入的部分发送给客户端，追上写入进度后等待新的输出。
+   * 客户端断开不影响转码，完成后的文件仍会写入缓存
+   */
+  private void stream(TranscodeJob job, String fileName, HttpServletResponse response)
+      throws IOException {
+    try (FileChannel channel = openOutput(job, fileName)) {
+      WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+      long position = 0;
+      while (true) {
+        long available = job.awaitProgress(position);
+        if (available > position) {
+          long sent = channel.transferTo(position, available - position, target);
+          if (sent <= 0) {
+            throw new IOException("transcode output truncated");
+          }
+          position += sent;
+          response.flushBuffer();
+          continue;
+        }
+        if (job.finished) {
+          if (!job.succeeded) {
+            // 中断连接，客户端可以重试
+            throw new IOException("transcode failed while streaming");
+          }
+          return;
+        }
+        throw new IOException("transcode stalled");
+      }
+    }
+  }
+
+  private FileChannel openOutput(TranscodeJob job, String fileName) throws IOException {
+    try {
+      return FileChannel.open(job.temp, StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      // 打开之前转码刚好结束，临时文件已重命名
+      if (job.awaitFinished() && touch(fileName)) {
+        return FileChannel.open(cacheDir.resolve(fileName), StandardOpenOption.READ);
+      }
+      throw new IOException("transcode failed before streaming started");
+    }
+  }
+
+  private boolean touch(String fileName) {
+    synchronized (cache) {
+      return cache.get(fileName) != null;
+    }
+  }
+
+  private void put(String fileName, long size) {
+    synchronized (cache) {
+      Long previous = cache.put(fileName, size);
+      cacheBytes += size - (previous == null ? 0 : previous);
+      evictIfNeeded();
+    }
+  }
+
+  private void remove(String fileName) {
+    synchronized (cache) {
+      Long size = cache.remove(fileName);
+      if (size != null) {
+        cacheBytes -= size;
+      }
+    }
+    deleteQuietly(cacheDir.resolve(fileName));
+  }
+
+  /**
+   * 淘汰最久未使用的版本。正在通过 sendfile 发送的文件被删除后，已打开的文件句柄仍可读完
+   */
+  private void evictIfNeeded() {
+    long maxBytes = cacheMaxMb * 1024 * 1024;
+    Iterator<Map.Entry<String, Long>> iterator = cache.entrySet().iterator();
+    while (cacheBytes > maxBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> eldest = iterator.next();
+      iterator.remove();
+      cacheBytes -= eldest.getValue();
+      deleteQuietly(cacheDir.resolve(eldest.getKey()));
+      log.debug("转码缓存已淘汰: {}", eldest.getKey());
+    }
+  }
+
+  private void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private String readErrorLog(Path errorLog) {
+    try {
+      String content = Files.readString(errorLog).trim();
+      return content.length() > 500 ? content.substring(content.length() - 500) : content;
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  private long lastModified(Path file) {
+    try {
+      return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime().toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.debug("删除文件失败: {}", file);
+    }
+  }
+
+  /**
+   * 一个正在进行的转码任务，written 为已写入临时文件的字节数
+   */
+  private static final class TranscodeJob {
+
+    private final Path temp;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition progress = lock.newCondition();
+    private volatile long written;
+    private volatile boolean finished;
+    private volatile boolean succeeded;
+
+    private TranscodeJob(Path temp) {
+      this.temp = temp;
+    }
+
+    private void advance(int bytes) {
+      lock.lock();
+      try {
+        written += bytes;
+        progress.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void finish(boolean success) {
+      lock.lock();
+      try {
+        succeeded = success;
+        finished = true;
+        progress.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * 等待写入超过 position 或任务结束，超时后返回当前进度
+     */
+    private long awaitProgress(long position) {
+      lock.lock();
+      try {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STALL_TIMEOUT_MILLIS);
+        while (written <= position && !finished) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            break;
+          }
+          progress.awaitNanos(remaining);
+        }
+        return written;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return written;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean awaitFinished() {
+      while (!finished) {
+        awaitProgress(Long.MAX_VALUE);
+        if (Thread.currentThread().isInterrupted()) {
+          return false;
+        }
+      }
+      return succeeded;
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package top.asimov.pigeon.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.event.FeedContentChangedEvent;
+import top.asimov.pigeon.mapper.UserMapper;
+import top.asimov.pigeon.model.User;
+
+/**
+ * 无状态的 URL 签名：对资源标识与密钥版本做 HMAC，校验时只使用内存中的密钥，不访问数据库。
+ * 签名格式为 {版本}.{HMAC}，轮换时递增版本，旧版本的签名全部失效。
+ */
+@Log4j2
+@Service
+public class UrlSignatureService {
+
+  private static final String FEED_RESOURCE = "rss:";
+  private static final String MEDIA_RESOURCE = "media:";
+  // 签名取 HMAC 的前 16 字节，base64url 编码后为 22 个字符
+  private static final int SIGNATURE_BYTES = 16;
+
+  private final UserMapper userMapper;
+  private final ApplicationEventPublisher eventPublisher;
+
+  // 媒体文件是否必须携带有效签名；关闭时仍会为 enclosure 生成签名，便于平滑切换
+  @Value("${pigeon.media.require-signature:false}")
+  private boolean mediaSignatureRequired;
+
+  private volatile SigningKey signingKey;
+
+  public UrlSignatureService(UserMapper userMapper, ApplicationEventPublisher eventPublisher) {
+    this.userMapper = userMapper;
+    this.eventPublisher = eventPublisher;
+  }
+
+  public String signFeed(String feedId) {
+    return sign(FEED_RESOURCE + feedId);
+  }
+
+  public boolean verifyFeed(String feedId, String signature) {
+    return verify(FEED_RESOURCE + feedId, signature);
+  }
+
+  public String signMedia(String episodeId) {
+    return sign(MEDIA_RESOURCE + episodeId);
+  }
+
+  /**
+   * 未开启媒体签名校验时始终允许访问
+   */
+  public boolean isMediaAccessAllowed(String episodeId, String signature) {
+    return !mediaSignatureRequired || verify(MEDIA_RESOURCE + episodeId, signature);
+  }
+
+  /**
+   * 当前密钥版本，参与 RSS 片段缓存的 key，轮换后片段重新生成
+   */
+  public int currentVersion() {
+    return currentKey().version();
+  }
+
+  /**
+   * 递增密钥版本，之前签发的所有订阅与媒体地址失效
+   */
+  public synchronized void rotate() {
+    SigningKey current = currentKey();
+    int version = current.version() + 1;
+    User user = loadUser();
+    user.setUrlSigningVersion(version);
+    userMapper.updateById(user);
+    signingKey = new SigningKey(version, current.key());
+    log.info("URL 签名密钥已轮换，当前版本: {}", version);
+    eventPublisher.publishEvent(FeedContentChangedEvent.allFeeds(this));
+  }
+
+  private String sign(String resource) {
+    SigningKey key = currentKey();
+    return key.version() + "." + Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(mac(key, resource));
+  }
+
+  private boolean verify(String resource, String signature) {
+    if (!StringUtils.hasText(signature)) {
+      return false;
+    }
+    int separator = signature.indexOf('.');
+    if (separator <= 0) {
+      return false;
+    }
+    SigningKey key = currentKey();
+    if (!Integer.toString(key.version()).equals(signature.substring(0, separator))) {
+      return false;
+    }
+    try {
+      byte[] provided = Base64.getUrlDecoder().decode(signature.substring(separator + 1));
+      return MessageDigest.isEqual(provided, mac(key, resource));
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private byte[] mac(SigningKey key, String resource) {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(key.key());
+      byte[] digest = mac.doFinal((key.version() + ":" + resource)
+          .getBytes(StandardCharsets.UTF_8));
+      return Arrays.copyOf(digest, SIGNATURE_BYTES);
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private SigningKey currentKey() {
+    SigningKey key = signingKey;
+    if (key == null) {
+      key = loadKey();
+    }
+    return key;
+  }
+
+  /**
+   * 首次使用时从数据库加载密钥，尚未生成时随机生成并保存
+   */
+  private synchronized SigningKey loadKey() {
+    if (signingKey != null) {
+      return signingKey;
+    }
+    User user = loadUser();
+    if (!StringUtils.hasText(user.getUrlSigningKey())) {
+      byte[] secret = new byte[32];
+      new SecureRandom().nextBytes(secret);
+      user.setUrlSigningKey(HexFormat.of().formatHex(secret));
+      userMapper.updateById(user);
+    }
+    int version = user.getUrlSigningVersion() == null ? 1 : user.getUrlSigningVersion();
+    signingKey = new SigningKey(version, new SecretKeySpec(
+        user.getUrlSigningKey().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    return signingKey;
+  }
+
+  private User loadUser() {
+    return userMapper.selectOne(new LambdaQueryWrapper<User>()
+        .orderByAsc(User::getId).last("LIMIT 1"));
+  }
+
+  private record SigningKey(int version, SecretKeySpec key) {
+
+  }
+}
@@ -0,0 +1,240 @@
+package top.asimov.pigeon.service;
+
+import com.google.api.client.json.jackson2.JacksonFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import top.asimov.pigeon.mapper.YoutubeMetadataMapper;
+import top.asimov.pigeon.model.YoutubeMetadata;
+
+/**
+ * YouTube API 数据缓存：内存 LRU 在前，SQLite 表在后，按资源类型设置过期时间。
+ * 上传播放列表 ID 几乎不会变化，频道与视频详情在过期前直接复用，减少同步时的配额消耗。
+ * 缓存读写失败时直接调用 API，不影响同步。
+ */
+@Log4j2
+@Service
+public class YoutubeMetadataCache {
+
+  private static final JacksonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+  // SQLite 单条语句的参数上限为 999
+  private static final int QUERY_BATCH_SIZE = 500;
+
+  private final YoutubeMetadataMapper youtubeMetadataMapper;
+  private final Map<CacheKey, CachedValue> memory = Collections.synchronizedMap(
+      new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedValue> eldest) {
+          return size() > memoryEntries;
+        }
+      });
+
+  @Value("${pigeon.youtube.cache.enabled:true}")
+  private boolean enabled;
+
+  @Value("${pigeon.youtube.cache.memory-entries:5000}")
+  private int memoryEntries;
+
+  @Value("${pigeon.youtube.cache.uploads-playlist-ttl-days:30}")
+  private int uploadsPlaylistTtlDays;
+
+  @Value("${pigeon.youtube.cache.channel-ttl-hours:24}")
+  private int channelTtlHours;
+
+  @Value("${pigeon.youtube.cache.video-ttl-hours:24}")
+  private int videoTtlHours;
+
+  public YoutubeMetadataCache(YoutubeMetadataMapper youtubeMetadataMapper) {
+    this.youtubeMetadataMapper = youtubeMetadataMapper;
+  }
+
+  /**
+   * 读取单个资源，缓存未命中时调用 loader，loader 返回 null 时不缓存
+   */
+  public <T> T get(Resource resource, String id, Class<T> type, Loader<T> loader)
+      throws IOException {
+    return getAll(resource, List.of(id), type, missingIds -> {
+      T value = loader.load(id);
+      return value == null ? Collections.emptyMap() : Map.of(id, value);
+    }, value -> true).get(id);
+  }
+
+  /**
+   * 批量读取资源，只对缓存中没有的 ID 调用一次 bulkLoader
+   *
+   * @param cacheable 返回 false 的结果不写入缓存（例如尚未结束的直播）
+   * @return ID 到资源的映射，API 也没有返回的 ID 不包含在内
+   */
+  public <T> Map<String, T> getAll(Resource resource, Collection<String> ids, Class<T> type,
+      BulkLoader<T> bulkLoader, Predicate<T> cacheable) throws IOException {
+    Set<String> requested = new LinkedHashSet<>(ids);
+    if (requested.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    if (!enabled) {
+      return bulkLoader.load(new ArrayList<>(requested));
+    }
+
+    long now = System.currentTimeMillis();
+    Map<String, T> result = new HashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String id : requested) {
+      CachedValue cached = memory.get(new CacheKey(resource, id));
+      if (cached != null && cached.expiresAt() > now) {
+        result.put(id, type.cast(cached.value()));
+      } else {
+        missing.add(id);
+      }
+    }
+    if (!missing.isEmpty()) {
+      loadFromDatabase(resource, missing, type, now, result);
+      missing.removeIf(result::containsKey);
+    }
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    Map<String, T> loaded = bulkLoader.load(missing);
+    result.putAll(loaded);
+    store(resource, loaded, cacheable, now);
+    log.debug("YouTube 缓存 {}: 请求 {} 个，命中 {} 个", resource, requested.size(),
+        requested.size() - missing.size());
+    return result;
+  }
+
+  /**
+   * 直接写入缓存，例如查询频道信息时顺带取得的上传播放列表 ID
+   */
+  public <T> void put(Resource resource, String id, T value) {
+    if (!enabled || value == null) {
+      return;
+    }
+    store(resource, Map.of(id, value), v -> true, System.currentTimeMillis());
+  }
+
+  /**
+   * 清理已过期的缓存行
+   */
+  @Scheduled(fixedRate = 6, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+  public void purgeExpired() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      int deleted = youtubeMetadataMapper.deleteExpired(System.currentTimeMillis());
+      if (deleted > 0) {
+        log.info("已清理 {} 条过期的 YouTube 缓存", deleted);
+      }
+    } catch (Exception e) {
+      log.warn("清理 YouTube 缓存失败: {}", e.getMessage());
+    }
+  }
+
+  private <T> void loadFromDatabase(Resource resource, List<String> ids, Class<T> type,
+      long now, Map<String, T> result) {
+    try {
+      for (int from = 0; from < ids.size(); from += QUERY_BATCH_SIZE) {
+        List<YoutubeMetadata> rows = youtubeMetadataMapper.selectValid(resource.name(),
+            ids.subList(from, Math.min(from + QUERY_BATCH_SIZE, ids.size())), now);
+        for (YoutubeMetadata row : rows) {
+          T value = deserialize(row.getPayload(), type);
+          result.put(row.getResourceId(), value);
+          memory.put(new CacheKey(resource, row.getResourceId()),
+              new CachedValue(value, row.getExpiresAt()));
+        }
+      }
+    } catch (Exception e) {
+      log.warn("读取 YouTube 缓存失败: {}", e.getMessage());
+    }
+  }
+
+  private <T> void store(Resource resource, Map<String, T> values, Predicate<T> cacheable,
+      long now) {
+    long expiresAt = now + ttlMillis(resource);
+    List<YoutubeMetadata> rows = new ArrayList<>();
+    try {
+      for (Map.Entry<String, T> entry : values.entrySet()) {
+        if (entry.getValue() == null || !cacheable.test(entry.getValue())) {
+          continue;
+        }
+        memory.put(new CacheKey(resource, entry.getKey()),
+            new CachedValue(entry.getValue(), expiresAt));
+        rows.add(YoutubeMetadata.builder()
+            .resource(resource.name())
+            .resourceId(entry.getKey())
+            .payload(serialize(entry.getValue()))
+            .fetchedAt(now)
+            .expiresAt(expiresAt)
+            .build());
+      }
+      // 每行 5 个参数，分批避免超出 SQLite 参数上限
+      for (int from = 0; from < rows.size(); from += QUERY_BATCH_SIZE / 5) {
+        youtubeMetadataMapper.upsertBatch(
+            rows.subList(from, Math.min(from + QUERY_BATCH_SIZE / 5, rows.size())));
+      }
+    } catch (Exception e) {
+      log.warn("写入 YouTube 缓存失败: {}", e.getMessage());
+    }
+  }
+
+  private long ttlMillis(Resource resource) {
+    return switch (resource) {
+      case UPLOADS_PLAYLIST -> TimeUnit.DAYS.toMillis(uploadsPlaylistTtlDays);
+      case CHANNEL -> TimeUnit.HOURS.toMillis(channelTtlHours);
+      case VIDEO -> TimeUnit.HOURS.toMillis(videoTtlHours);
+    };
+  }
+
+  /**
+   * 字符串原样保存，API 模型对象保存为 JSON
+   */
+  private String serialize(Object value) throws IOException {
+    return value instanceof String text ? text : JSON_FACTORY.toString(value);
+  }
+
+  private <T> T deserialize(String payload, Class<T> type) throws IOException {
+    if (type == String.class) {
+      return type.cast(payload);
+    }
+    return JSON_FACTORY.fromString(payload, type);
+  }
+
+  public enum Resource {
+    UPLOADS_PLAYLIST,
+    CHANNEL,
+    VIDEO
+  }
+
+  @FunctionalInterface
+  public interface Loader<T> {
+
+    T load(String id) throws IOException;
+  }
+
+  @FunctionalInterface
+  public interface BulkLoader<T> {
+
+    Map<String, T> load(List<String> ids) throws IOException;
+  }
+
+  private record CacheKey(Resource resource, String id) {
+
+  }
+
+  private record CachedValue(Object value, long expiresAt) {
+
+  }
+}
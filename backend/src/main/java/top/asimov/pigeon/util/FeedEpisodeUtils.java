@@ -1,7 +1,9 @@
 package top.asimov.pigeon.util;
 
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.context.ApplicationEventPublisher;
@@ -18,6 +20,39 @@ public final class FeedEpisodeUtils {
         .max(Comparator.comparing(Episode::getPublishedAt));
   }
 
+  /**
+   * 将 ISO 8601 时长（如 PT1H2M3S）解析为秒数，无法解析时返回 null
+   */
+  public static Integer parseDurationSeconds(String duration) {
+    if (duration == null || duration.isBlank()) {
+      return null;
+    }
+    try {
+      return Math.toIntExact(Duration.parse(duration).getSeconds());
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * 根据媒体文件扩展名推断 MIME 类型，与下载时记录的类型保持一致
+   */
+  public static String resolveMediaType(String mediaFilePath) {
+    if (mediaFilePath == null) {
+      return null;
+    }
+    String extension = mediaFilePath.substring(mediaFilePath.lastIndexOf('.') + 1)
+        .toLowerCase(Locale.ROOT);
+    return switch (extension) {
+      case "mp4" -> "video/mp4";
+      case "m4a" -> "audio/aac";
+      case "mp3" -> "audio/mpeg";
+      case "webm" -> "video/webm";
+      case "opus", "ogg" -> "audio/ogg";
+      default -> null;
+    };
+  }
+
   public static List<String> extractEpisodeIds(List<Episode> episodes) {
     return episodes.stream()
         .map(Episode::getId)
@@ -0,0 +1,131 @@
+package top.asimov.pigeon.util;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * 基于 ImageIO 的封面缩放：缩小超过一半时逐级减半再插值，避免一次缩放产生锯齿；
+ * 透明背景铺白后统一输出为 JPEG。
+ */
+public final class ImageResizer {
+
+  // 解码前检查像素数量，避免超大图片耗尽内存
+  private static final long MAX_PIXELS = 40_000_000L;
+
+  private ImageResizer() {
+  }
+
+  /**
+   * 解码图片，格式不受支持（例如未安装 WebP 插件）或尺寸过大时抛出异常
+   */
+  public static BufferedImage read(byte[] data) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(
+        new ByteArrayInputStream(data))) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+      if (!readers.hasNext()) {
+        throw new IOException("unsupported image format");
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+          throw new IOException("image too large: " + reader.getWidth(0) + "x"
+              + reader.getHeight(0));
+        }
+        return reader.read(0);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * 居中裁剪为正方形，边长限制在 [minSide, maxSide] 之间，原图过小时放大
+   */
+  public static BufferedImage squareCrop(BufferedImage source, int minSide, int maxSide) {
+    int crop = Math.min(source.getWidth(), source.getHeight());
+    int side = Math.max(minSide, Math.min(crop, maxSide));
+    return scale(source, (source.getWidth() - crop) / 2, (source.getHeight() - crop) / 2,
+        crop, crop, side, side);
+  }
+
+  /**
+   * 保持宽高比缩小到指定宽度以内，不放大
+   */
+  public static BufferedImage fitWidth(BufferedImage source, int maxWidth) {
+    int width = Math.min(source.getWidth(), maxWidth);
+    int height = Math.max(1, (int) Math.round(
+        (double) source.getHeight() * width / source.getWidth()));
+    return scale(source, 0, 0, source.getWidth(), source.getHeight(), width, height);
+  }
+
+  public static byte[] writeJpeg(BufferedImage image, float quality) throws IOException {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+    try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+      writer.setOutput(output);
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(quality);
+      param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * 将源图的 (x, y, width, height) 区域缩放为 targetWidth x targetHeight 的 RGB 图片
+   */
+  private static BufferedImage scale(BufferedImage source, int x, int y, int width, int height,
+      int targetWidth, int targetHeight) {
+    BufferedImage current = draw(source, x, y, width, height, width, height);
+    int currentWidth = width;
+    int currentHeight = height;
+    // 逐级减半，直到与目标尺寸相差不足一倍
+    while (currentWidth / 2 >= targetWidth && currentHeight / 2 >= targetHeight) {
+      currentWidth /= 2;
+      currentHeight /= 2;
+      current = draw(current, 0, 0, current.getWidth(), current.getHeight(), currentWidth,
+          currentHeight);
+    }
+    if (currentWidth == targetWidth && currentHeight == targetHeight) {
+      return current;
+    }
+    return draw(current, 0, 0, current.getWidth(), current.getHeight(), targetWidth,
+        targetHeight);
+  }
+
+  private static BufferedImage draw(BufferedImage source, int x, int y, int width, int height,
+      int targetWidth, int targetHeight) {
+    BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+        BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = target.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+          RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.setColor(Color.WHITE);
+      graphics.fillRect(0, 0, targetWidth, targetHeight);
+      graphics.drawImage(source, 0, 0, targetWidth, targetHeight, x, y, x + width, y + height,
+          null);
+    } finally {
+      graphics.dispose();
+    }
+    return target;
+  }
+}
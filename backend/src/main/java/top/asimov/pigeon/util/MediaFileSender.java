@@ -0,0 +1,270 @@
+package top.asimov.pigeon.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+
+/**
+ * 媒体文件输出：强 ETag 与 Last-Modified 只依赖文件属性，条件请求无需打开文件即可返回 304；
+ * HEAD 只写响应头；完整内容与单个 Range 交给 Tomcat sendfile，多个 Range 使用
+ * FileChannel.transferTo 输出 multipart/byteranges。
+ */
+public final class MediaFileSender {
+
+  // Tomcat NIO 连接器的 sendfile 约定（org.apache.catalina.Globals）
+  private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+  // 下载完成后文件内容不再变化，允许客户端与 CDN 长期缓存，过期后用 ETag 校验
+  public static final String MEDIA_CACHE_CONTROL = "public, max-age=2592000";
+  // 地址中带有内容版本时使用，内容变化后地址也会变化
+  public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+  // 超过该数量的 Range 请求直接返回完整内容，避免被拆成大量小片段
+  private static final int MAX_RANGES = 16;
+
+  private MediaFileSender() {
+  }
+
+  /**
+   * 按请求头输出文件
+   *
+   * @param file         媒体文件，需已通过访问校验
+   * @param contentType  响应的 Content-Type
+   * @param disposition  Content-Disposition，可为 null
+   * @param cacheControl Cache-Control
+   */
+  public static void send(HttpServletRequest request, HttpServletResponse response, Path file,
+      String contentType, String disposition, String cacheControl) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    send(request, response, file, attributes.size(), attributes.lastModifiedTime().toMillis(),
+        contentType, disposition, cacheControl);
+  }
+
+  /**
+   * 使用已知的文件大小与修改时间输出，不再读取文件属性
+   */
+  public static void send(HttpServletRequest request, HttpServletResponse response, Path file,
+      long length, long lastModified, String contentType, String disposition,
+      String cacheControl) throws IOException {
+    String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+    if (isNotModified(request, etag, lastModified)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    if (disposition != null) {
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition);
+    }
+    boolean head = HttpMethod.HEAD.matches(request.getMethod());
+    List<long[]> ranges = isRangeApplicable(request, etag, lastModified)
+        ? parseRanges(request.getHeader(HttpHeaders.RANGE), length) : null;
+
+    if (ranges == null) {
+      response.setStatus(HttpServletResponse.SC_OK);
+      response.setContentType(contentType);
+      response.setContentLengthLong(length);
+      if (!head) {
+        sendRange(request, response, file, 0, length);
+      }
+      return;
+    }
+    if (ranges.isEmpty()) {
+      response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+      return;
+    }
+
+    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    if (ranges.size() == 1) {
+      long start = ranges.get(0)[0];
+      long end = ranges.get(0)[1];
+      response.setContentType(contentType);
+      response.setContentLengthLong(end - start + 1);
+      response.setHeader(HttpHeaders.CONTENT_RANGE,
+          "bytes " + start + "-" + end + "/" + length);
+      if (!head) {
+        sendRange(request, response, file, start, end + 1);
+      }
+      return;
+    }
+
+    String boundary = UUID.randomUUID().toString().replace("-", "");
+    List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+    long contentLength = 0;
+    for (long[] range : ranges) {
+      byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+          + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+          + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + length
+          + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+      partHeaders.add(partHeader);
+      contentLength += partHeader.length + range[1] - range[0] + 1;
+    }
+    byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    contentLength += closing.length;
+    response.setContentType("multipart/byteranges; boundary=" + boundary);
+    response.setContentLengthLong(contentLength);
+    if (head) {
+      return;
+    }
+    OutputStream out = response.getOutputStream();
+    WritableByteChannel target = Channels.newChannel(out);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      for (int i = 0; i < ranges.size(); i++) {
+        out.write(partHeaders.get(i));
+        transfer(channel, ranges.get(i)[0], ranges.get(i)[1] + 1, target);
+      }
+    }
+    out.write(closing);
+    out.flush();
+  }
+
+  /**
+   * 支持 sendfile 时由 Tomcat 直接从文件发送，否则用 transferTo 写入响应流
+   */
+  private static void sendRange(HttpServletRequest request, HttpServletResponse response,
+      Path file, long start, long end) throws IOException {
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+      request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START_ATTR, start);
+      request.setAttribute(SENDFILE_END_ATTR, end);
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      transfer(channel, start, end, Channels.newChannel(response.getOutputStream()));
+    }
+  }
+
+  private static void transfer(FileChannel channel, long start, long end,
+      WritableByteChannel target) throws IOException {
+    long position = start;
+    while (position < end) {
+      long sent = channel.transferTo(position, end - position, target);
+      if (sent <= 0) {
+        // 文件在发送过程中被截断
+        throw new IOException("media file truncated while sending");
+      }
+      position += sent;
+    }
+  }
+
+  /**
+   * If-None-Match 优先；没有时才比较 If-Modified-Since（HTTP 日期精确到秒）
+   */
+  private static boolean isNotModified(HttpServletRequest request, String etag,
+      long lastModified) {
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null) {
+      return matchesEtag(ifNoneMatch, etag);
+    }
+    long ifModifiedSince = getDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+    return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+  }
+
+  /**
+   * If-Range 与当前版本不一致时忽略 Range，返回完整内容
+   */
+  private static boolean isRangeApplicable(HttpServletRequest request, String etag,
+      long lastModified) {
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (!StringUtils.hasText(ifRange)) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      return ifRange.trim().equals(etag);
+    }
+    long date = getDateHeader(request, HttpHeaders.IF_RANGE);
+    return date >= 0 && lastModified / 1000 == date / 1000;
+  }
+
+  private static boolean matchesEtag(String header, String etag) {
+    for (String candidate : header.split(",")) {
+      String value = candidate.trim();
+      if (value.startsWith("W/")) {
+        value = value.substring(2);
+      }
+      if ("*".equals(value) || etag.equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long getDateHeader(HttpServletRequest request, String name) {
+    try {
+      return request.getDateHeader(name);
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * 解析 bytes Range。返回 null 表示忽略该头（不存在、格式错误或片段过多），
+   * 返回空列表表示所有片段都无法满足
+   */
+  private static List<long[]> parseRanges(String header, long length) {
+    if (header == null || !header.startsWith("bytes=")) {
+      return null;
+    }
+    String[] specs = header.substring(6).split(",");
+    if (specs.length > MAX_RANGES) {
+      return null;
+    }
+    List<long[]> ranges = new ArrayList<>(specs.length);
+    for (String spec : specs) {
+      String value = spec.trim();
+      int dash = value.indexOf('-');
+      if (dash < 0) {
+        return null;
+      }
+      long start;
+      long end;
+      try {
+        if (dash == 0) {
+          // bytes=-N 表示最后 N 个字节
+          long suffix = Long.parseLong(value.substring(1));
+          if (suffix == 0) {
+            continue;
+          }
+          start = Math.max(0, length - suffix);
+          end = length - 1;
+        } else {
+          start = Long.parseLong(value.substring(0, dash));
+          end = dash == value.length() - 1 ? length - 1
+              : Math.min(Long.parseLong(value.substring(dash + 1)), length - 1);
+          if (end < start && dash != value.length() - 1) {
+            return null;
+          }
+        }
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      if (start < length && start <= end) {
+        ranges.add(new long[]{start, end});
+      }
+    }
+    return ranges;
+  }
+}
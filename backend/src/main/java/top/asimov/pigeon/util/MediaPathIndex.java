@@ -0,0 +1,217 @@
+package top.asimov.pigeon.util;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 节目ID到已校验媒体文件的内存索引。使用开放寻址与基本类型数组存储，
+ * 目录前缀与 MIME 类型各自去重后以下标引用，十万级节目也只占用少量内存。
+ */
+public class MediaPathIndex {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // 去重的目录前缀与 MIME 类型
+  private final List<String> directories = new ArrayList<>();
+  private final Map<String, Integer> directoryIds = new HashMap<>();
+  private final List<String> mediaTypes = new ArrayList<>();
+  private final Map<String, Integer> mediaTypeIds = new HashMap<>();
+
+  private String[] keys = new String[INITIAL_CAPACITY];
+  private int[] directoryOf = new int[INITIAL_CAPACITY];
+  private String[] fileNames = new String[INITIAL_CAPACITY];
+  private long[] sizes = new long[INITIAL_CAPACITY];
+  private long[] lastModified = new long[INITIAL_CAPACITY];
+  private short[] mediaTypeOf = new short[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * @return 索引中的媒体文件，不存在时返回 null
+   */
+  public Entry get(String episodeId) {
+    lock.readLock().lock();
+    try {
+      int slot = find(episodeId);
+      if (slot < 0) {
+        return null;
+      }
+      return new Entry(Paths.get(directories.get(directoryOf[slot]), fileNames[slot]),
+          sizes[slot], lastModified[slot], mediaTypes.get(mediaTypeOf[slot]));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 写入或替换索引，file 需为已校验的规范路径
+   */
+  public void put(String episodeId, Path file, long fileSize, long modifiedAt, String mediaType) {
+    Path parent = file.getParent();
+    String directory = parent == null ? "" : parent.toString();
+    lock.writeLock().lock();
+    try {
+      if ((size + 1) * 2 > keys.length) {
+        resize(keys.length * 2);
+      }
+      int slot = find(episodeId);
+      if (slot < 0) {
+        slot = -slot - 1;
+        keys[slot] = episodeId;
+        size++;
+      }
+      directoryOf[slot] = intern(directories, directoryIds, directory);
+      fileNames[slot] = file.getFileName().toString();
+      sizes[slot] = fileSize;
+      lastModified[slot] = modifiedAt;
+      mediaTypeOf[slot] = (short) intern(mediaTypes, mediaTypeIds, mediaType);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(String episodeId) {
+    lock.writeLock().lock();
+    try {
+      int slot = find(episodeId);
+      if (slot >= 0) {
+        removeSlot(slot);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 移除不在给定集合中的节目
+   */
+  public void retainAll(Set<String> episodeIds) {
+    lock.writeLock().lock();
+    try {
+      int slot = 0;
+      while (slot < keys.length) {
+        if (keys[slot] != null && !episodeIds.contains(keys[slot])) {
+          // 删除后后续元素可能前移到当前位置，需要重新检查
+          removeSlot(slot);
+        } else {
+          slot++;
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean contains(String episodeId) {
+    lock.readLock().lock();
+    try {
+      return find(episodeId) >= 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 线性探测查找，命中返回槽位，未命中返回 -(插入位置 + 1)
+   */
+  private int find(String episodeId) {
+    int mask = keys.length - 1;
+    int slot = mix(episodeId.hashCode()) & mask;
+    while (keys[slot] != null) {
+      if (keys[slot].equals(episodeId)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -slot - 1;
+  }
+
+  /**
+   * 删除后把同一探测链上的元素前移，不使用墓碑标记
+   */
+  private void removeSlot(int slot) {
+    int mask = keys.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (keys[next] != null) {
+      int home = mix(keys[next].hashCode()) & mask;
+      // home 不在 (hole, next] 区间内时，该元素可以移动到空位
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        moveSlot(next, hole);
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = null;
+    fileNames[hole] = null;
+    size--;
+  }
+
+  private void moveSlot(int from, int to) {
+    keys[to] = keys[from];
+    directoryOf[to] = directoryOf[from];
+    fileNames[to] = fileNames[from];
+    sizes[to] = sizes[from];
+    lastModified[to] = lastModified[from];
+    mediaTypeOf[to] = mediaTypeOf[from];
+  }
+
+  private void resize(int capacity) {
+    String[] oldKeys = keys;
+    int[] oldDirectoryOf = directoryOf;
+    String[] oldFileNames = fileNames;
+    long[] oldSizes = sizes;
+    long[] oldLastModified = lastModified;
+    short[] oldMediaTypeOf = mediaTypeOf;
+    keys = new String[capacity];
+    directoryOf = new int[capacity];
+    fileNames = new String[capacity];
+    sizes = new long[capacity];
+    lastModified = new long[capacity];
+    mediaTypeOf = new short[capacity];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] == null) {
+        continue;
+      }
+      int slot = -find(oldKeys[i]) - 1;
+      keys[slot] = oldKeys[i];
+      directoryOf[slot] = oldDirectoryOf[i];
+      fileNames[slot] = oldFileNames[i];
+      sizes[slot] = oldSizes[i];
+      lastModified[slot] = oldLastModified[i];
+      mediaTypeOf[slot] = oldMediaTypeOf[i];
+    }
+  }
+
+  private static int intern(List<String> values, Map<String, Integer> ids, String value) {
+    return ids.computeIfAbsent(value, key -> {
+      values.add(key);
+      return values.size() - 1;
+    });
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  public record Entry(Path path, long size, long lastModified, String mediaType) {
+
+  }
+}
@@ -0,0 +1,54 @@
+package top.asimov.pigeon.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.exception.InvalidCursorException;
+
+/**
+ * 基于 (published_at, id) 的不透明分页游标，对外以 base64url 字符串传递
+ *
+ * @param publishedAt 上一页最后一条记录的发布时间，可能为 null
+ * @param id          上一页最后一条记录的 ID，用于同一时间下的排序
+ */
+public record PageCursor(LocalDateTime publishedAt, String id) {
+
+  private static final String VERSION = "v1";
+  private static final String SEPARATOR = "|";
+
+  public String encode() {
+    String raw = VERSION + SEPARATOR + (publishedAt == null ? "" : publishedAt.toString())
+        + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 解析游标，空值表示从第一页开始
+   *
+   * @throws InvalidCursorException 游标格式不合法
+   */
+  public static PageCursor decode(String token) {
+    if (!StringUtils.hasText(token)) {
+      return null;
+    }
+    String[] parts;
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      parts = raw.split("\\|", 3);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException("malformed cursor", e);
+    }
+    if (parts.length != 3 || !VERSION.equals(parts[0]) || !StringUtils.hasText(parts[2])) {
+      throw new InvalidCursorException("malformed cursor");
+    }
+    try {
+      LocalDateTime publishedAt = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+      return new PageCursor(publishedAt, parts[2]);
+    } catch (DateTimeParseException e) {
+      throw new InvalidCursorException("malformed cursor", e);
+    }
+  }
+}
@@ -0,0 +1,328 @@
+package top.asimov.pigeon.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * 基于 XMLStreamWriter 的 RSS 2.0 + iTunes 流式输出，逐条写出节目，无需在内存中构建整个文档。
+ * 元素顺序、文本裁剪和换行处理与 ROME 的 rss_2.0 输出保持一致。
+ */
+public class RssFeedWriter implements AutoCloseable {
+
+  private static final String DC_NAMESPACE = "http://purl.org/dc/elements/1.1/";
+  private static final String ITUNES_NAMESPACE = "http://www.itunes.com/dtds/podcast-1.0.dtd";
+  private static final String ATOM_NAMESPACE = "http://www.w3.org/2005/Atom";
+  private static final String LINE_SEPARATOR = "\r\n";
+  private static final String INDENT = "  ";
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+  private static final DateTimeFormatter RFC822 = DateTimeFormatter.ofPattern(
+      "EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+  private static final DateTimeFormatter W3C = DateTimeFormatter.ofPattern(
+      "yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US).withZone(ZoneOffset.UTC);
+
+  // item 在文档中的缩进层级（rss > channel > item）
+  private static final int ITEM_DEPTH = 2;
+
+  private final OutputStream out;
+  private final XMLStreamWriter writer;
+  private int depth;
+
+  public RssFeedWriter(OutputStream out) throws XMLStreamException {
+    this.out = out;
+    this.writer = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+  }
+
+  /**
+   * 单独渲染一个 &lt;item&gt; 片段，包含前导换行与缩进，可直接通过 {@link #writeRawItem(byte[])} 拼接
+   */
+  public static byte[] renderItem(Item item) throws XMLStreamException {
+    ByteArrayOutputStream fragment = new ByteArrayOutputStream(1024);
+    RssFeedWriter itemWriter = new RssFeedWriter(fragment);
+    itemWriter.depth = ITEM_DEPTH;
+    itemWriter.writeItem(item);
+    itemWriter.writer.flush();
+    itemWriter.close();
+    return fragment.toByteArray();
+  }
+
+  /**
+   * 写出文档头与频道信息，之后可逐条调用 {@link #writeItem(Item)}
+   */
+  public void writeChannel(Channel channel) throws XMLStreamException {
+    writeChannel(channel, false);
+  }
+
+  /**
+   * 写出文档头与频道信息
+   *
+   * @param paged 是否为分页订阅源，分页时声明 atom 命名空间以便写出翻页链接
+   */
+  public void writeChannel(Channel channel, boolean paged) throws XMLStreamException {
+    writer.writeStartDocument("UTF-8", "1.0");
+    writer.writeCharacters(LINE_SEPARATOR);
+    writer.writeStartElement("rss");
+    if (paged) {
+      writer.writeNamespace("atom", ATOM_NAMESPACE);
+    }
+    writer.writeNamespace("dc", DC_NAMESPACE);
+    writer.writeNamespace("itunes", ITUNES_NAMESPACE);
+    writer.writeAttribute("version", "2.0");
+    depth++;
+    startElement(null, "channel");
+
+    textElement(null, "title", channel.title());
+    textElement(null, "link", channel.link());
+    textElement(null, "description", channel.description() == null ? "" : channel.description());
+    textElement(null, "pubDate", RFC822.format(channel.publishedAt()));
+    textElement("dc", "date", W3C.format(channel.publishedAt()));
+    startElement("itunes", "owner");
+    emptyElement("itunes", "email");
+    emptyElement("itunes", "name");
+    endElement();
+    textElement("itunes", "author", channel.title());
+    if (channel.imageUrl() != null) {
+      emptyElement("itunes", "image", "href", channel.imageUrl());
+    }
+    emptyElement("itunes", "keywords");
+    textElement("itunes", "summary", channel.description());
+  }
+
+  public void writeItem(Item item) throws XMLStreamException {
+    startElement(null, "item");
+    textElement(null, "title", item.title());
+    textElement(null, "link", item.link());
+    textElement(null, "description", item.description());
+    emptyElement(null, "enclosure", "url", item.enclosureUrl(),
+        "length", Long.toString(item.enclosureLength()), "type", item.enclosureType());
+    textElement(null, "pubDate", RFC822.format(item.publishedAt()));
+    textElement(null, "guid", item.link());
+    textElement("dc", "date", W3C.format(item.publishedAt()));
+    textElement("itunes", "duration", item.duration());
+    if (item.imageUrl() != null) {
+      emptyElement("itunes", "image", "href", item.imageUrl());
+    }
+    emptyElement("itunes", "keywords");
+    textElement("itunes", "summary", item.summary());
+    endElement();
+  }
+
+  /**
+   * 写入由 {@link #renderItem(Item)} 生成的片段
+   */
+  public void writeRawItem(byte[] fragment) throws XMLStreamException {
+    writeRaw(fragment);
+  }
+
+  /**
+   * 写出指向更早节目的翻页链接（RFC 5005 分页订阅源），需以 paged 方式写出频道
+   */
+  public void writeNextPageLink(String href) throws XMLStreamException {
+    emptyElement("atom", "link", "rel", "next", "type", "application/rss+xml", "href", href);
+  }
+
+  /**
+   * 结束频道与文档并刷新输出
+   */
+  public void finish() throws XMLStreamException {
+    endElement();
+    depth--;
+    newLine();
+    writer.writeEndElement();
+    writer.writeCharacters(LINE_SEPARATOR);
+    writer.writeEndDocument();
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws XMLStreamException {
+    writer.close();
+  }
+
+  private void startElement(String prefix, String name) throws XMLStreamException {
+    newLine();
+    if (prefix == null) {
+      writer.writeStartElement(name);
+    } else {
+      writer.writeStartElement(prefix, name, namespaceOf(prefix));
+    }
+    depth++;
+  }
+
+  private void endElement() throws XMLStreamException {
+    depth--;
+    newLine();
+    writer.writeEndElement();
+  }
+
+  /**
+   * 空元素直接写入输出流：XMLStreamWriter 只能输出 "&lt;a/&gt;"，ROME（JDOM）输出的是 "&lt;a /&gt;"
+   *
+   * @param attributes 依次为属性名与属性值
+   */
+  private void emptyElement(String prefix, String name, String... attributes)
+      throws XMLStreamException {
+    newLine();
+    StringBuilder tag = new StringBuilder("<");
+    if (prefix != null) {
+      tag.append(prefix).append(':');
+    }
+    tag.append(name);
+    for (int i = 0; i < attributes.length; i += 2) {
+      tag.append(' ').append(attributes[i]).append("=\"");
+      appendAttributeValue(tag, attributes[i + 1]);
+      tag.append('"');
+    }
+    tag.append(" />");
+    writeRaw(tag.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeRaw(byte[] bytes) throws XMLStreamException {
+    // 写入空文本以闭合尚未结束的开始标签，再把缓冲内容刷到输出流
+    writer.writeCharacters("");
+    writer.flush();
+    try {
+      out.write(bytes);
+    } catch (IOException e) {
+      throw new XMLStreamException(e);
+    }
+  }
+
+  /**
+   * 值为 null 时不输出元素；裁剪后为空时输出空元素
+   */
+  private void textElement(String prefix, String name, String value) throws XMLStreamException {
+    if (value == null) {
+      return;
+    }
+    String text = trimXmlWhitespace(value);
+    if (text.isEmpty()) {
+      emptyElement(prefix, name);
+      return;
+    }
+    newLine();
+    if (prefix == null) {
+      writer.writeStartElement(name);
+    } else {
+      writer.writeStartElement(prefix, name, namespaceOf(prefix));
+    }
+    writeText(text);
+    writer.writeEndElement();
+  }
+
+  /**
+   * 换行统一输出为 CRLF，回车与非 BMP 字符使用字符引用，跳过 XML 不允许的控制字符
+   */
+  private void writeText(String text) throws XMLStreamException {
+    char[] chars = text.toCharArray();
+    int start = 0;
+    int length = chars.length;
+    for (int i = 0; i < length; i++) {
+      char c = chars[i];
+      if (c == '\n') {
+        writer.writeCharacters(chars, start, i - start);
+        writer.writeCharacters(LINE_SEPARATOR);
+        start = i + 1;
+      } else if (c == '\r') {
+        writer.writeCharacters(chars, start, i - start);
+        writer.writeEntityRef("#xD");
+        start = i + 1;
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(chars[i + 1])) {
+        writer.writeCharacters(chars, start, i - start);
+        writer.writeEntityRef("#x" + Integer.toHexString(Character.toCodePoint(c,
+            chars[i + 1])));
+        i++;
+        start = i + 1;
+      } else if (!isXmlChar(c)) {
+        writer.writeCharacters(chars, start, i - start);
+        start = i + 1;
+      }
+    }
+    writer.writeCharacters(chars, start, length - start);
+  }
+
+  private void newLine() throws XMLStreamException {
+    writer.writeCharacters(LINE_SEPARATOR);
+    for (int i = 0; i < depth; i++) {
+      writer.writeCharacters(INDENT);
+    }
+  }
+
+  /**
+   * 与 JDOM 的属性转义一致，非 BMP 字符同样使用字符引用
+   */
+  private static void appendAttributeValue(StringBuilder tag, String value) {
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '<' -> tag.append("&lt;");
+        case '>' -> tag.append("&gt;");
+        case '"' -> tag.append("&quot;");
+        case '&' -> tag.append("&amp;");
+        case '\r' -> tag.append("&#xD;");
+        case '\t' -> tag.append("&#x9;");
+        case '\n' -> tag.append("&#xA;");
+        default -> {
+          if (Character.isHighSurrogate(c) && i + 1 < length
+              && Character.isLowSurrogate(value.charAt(i + 1))) {
+            tag.append("&#x")
+                .append(Integer.toHexString(Character.toCodePoint(c, value.charAt(i + 1))))
+                .append(';');
+            i++;
+          } else if (isXmlChar(c)) {
+            tag.append(c);
+          }
+        }
+      }
+    }
+  }
+
+  private static String namespaceOf(String prefix) {
+    return switch (prefix) {
+      case "dc" -> DC_NAMESPACE;
+      case "atom" -> ATOM_NAMESPACE;
+      default -> ITUNES_NAMESPACE;
+    };
+  }
+
+  private static boolean isXmlChar(char c) {
+    return c == '\t' || (c >= 0x20 && c <= 0xD7FF) || (c >= 0xE000 && c <= 0xFFFD);
+  }
+
+  private static boolean isXmlWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+  }
+
+  private static String trimXmlWhitespace(String value) {
+    int start = 0;
+    int end = value.length();
+    while (start < end && isXmlWhitespace(value.charAt(start))) {
+      start++;
+    }
+    while (end > start && isXmlWhitespace(value.charAt(end - 1))) {
+      end--;
+    }
+    return value.substring(start, end);
+  }
+
+  public record Channel(String title, String link, String description, Instant publishedAt,
+                        String imageUrl) {
+
+  }
+
+  public record Item(String title, String link, String description, String enclosureUrl,
+                     long enclosureLength, String enclosureType, Instant publishedAt,
+                     String duration, String imageUrl, String summary) {
+
+  }
+}
@@ -0,0 +1,46 @@
+package top.asimov.pigeon.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.util.StringUtils;
+import top.asimov.pigeon.exception.InvalidCursorException;
+
+/**
+ * 全文搜索结果的不透明分页游标，按 (score, rowid) 排序
+ *
+ * @param score 上一页最后一条结果的 bm25 分值（越小越相关）
+ * @param rowid 上一页最后一条结果在 episode_fts 中的 rowid
+ */
+public record SearchCursor(double score, long rowid) {
+
+  private static final String VERSION = "s1";
+  private static final String SEPARATOR = "|";
+
+  public String encode() {
+    String raw = VERSION + SEPARATOR + Double.toHexString(score) + SEPARATOR + rowid;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 解析游标，空值表示从第一页开始
+   *
+   * @throws InvalidCursorException 游标格式不合法
+   */
+  public static SearchCursor decode(String token) {
+    if (!StringUtils.hasText(token)) {
+      return null;
+    }
+    // Base64 与数字解析失败都抛出 IllegalArgumentException 的子类
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", 3);
+      if (parts.length != 3 || !VERSION.equals(parts[0])) {
+        throw new InvalidCursorException("malformed cursor");
+      }
+      return new SearchCursor(Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException("malformed cursor", e);
+    }
+  }
+}
@@ -21,6 +21,7 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import top.asimov.pigeon.exception.BusinessException;
 import top.asimov.pigeon.service.AccountService;
+import top.asimov.pigeon.service.YoutubeMetadataCache;
 
 @Log4j2
 @Component
@@ -31,11 +32,14 @@ public class YoutubeHelper {
 
   private final AccountService accountService;
   private final MessageSource messageSource;
+  private final YoutubeMetadataCache metadataCache;
   private final YouTube youtubeService;
 
-  public YoutubeHelper(AccountService accountService, MessageSource messageSource) {
+  public YoutubeHelper(AccountService accountService, MessageSource messageSource,
+      YoutubeMetadataCache metadataCache) {
     this.accountService = accountService;
     this.messageSource = messageSource;
+    this.metadataCache = metadataCache;
 
     try {
       this.youtubeService = new YouTube.Builder(
@@ -193,32 +197,20 @@ public class YoutubeHelper {
   }
 
   /**
-   * 使用频道 ID 获取频道详细信息
+   * 使用频道 ID 获取频道详细信息，同时取得上传播放列表 ID 写入缓存
    *
    * @param channelId 频道 ID
    * @return 频道信息
    */
   private Channel fetchYoutubeChannelByYoutubeChannelId(String channelId) {
     try {
-      String youtubeApiKey = accountService.getYoutubeApiKey();
-
-      // 使用Channel ID获取频道的详细信息
-      YouTube.Channels.List channelRequest = youtubeService.channels()
-          .list("snippet,statistics,brandingSettings");
-      channelRequest.setId(channelId);
-      channelRequest.setKey(youtubeApiKey);
-
-      log.info("[YouTube API] channels.list(snippet,statistics,brandingSettings) channelId={}",
-          channelId);
-      ChannelListResponse response = channelRequest.execute();
-      List<com.google.api.services.youtube.model.Channel> channels = response.getItems();
-
-      if (ObjectUtils.isEmpty(channels)) {
+      Channel channel = metadataCache.get(YoutubeMetadataCache.Resource.CHANNEL, channelId,
+          Channel.class, this::requestYoutubeChannel);
+      if (channel == null) {
         throw new BusinessException(messageSource.getMessage("youtube.channel.not.found", null,
             LocaleContextHolder.getLocale()));
       }
-
-      return channels.get(0);
+      return channel;
     } catch (IOException e) {
       throw new BusinessException(
           messageSource.getMessage("youtube.fetch.channel.failed", new Object[]{e.getMessage()},
@@ -226,6 +218,32 @@ public class YoutubeHelper {
     }
   }
 
+  private Channel requestYoutubeChannel(String channelId) throws IOException {
+    String youtubeApiKey = accountService.getYoutubeApiKey();
+
+    // 使用Channel ID获取频道的详细信息，contentDetails 不额外消耗配额
+    YouTube.Channels.List channelRequest = youtubeService.channels()
+        .list("snippet,statistics,brandingSettings,contentDetails");
+    channelRequest.setId(channelId);
+    channelRequest.setKey(youtubeApiKey);
+
+    log.info("[YouTube API] channels.list(snippet,statistics,brandingSettings,contentDetails) "
+        + "channelId={}", channelId);
+    ChannelListResponse response = channelRequest.execute();
+    List<Channel> channels = response.getItems();
+    if (ObjectUtils.isEmpty(channels)) {
+      return null;
+    }
+
+    Channel channel = channels.get(0);
+    if (channel.getContentDetails() != null
+        && channel.getContentDetails().getRelatedPlaylists() != null) {
+      metadataCache.put(YoutubeMetadataCache.Resource.UPLOADS_PLAYLIST, channelId,
+          channel.getContentDetails().getRelatedPlaylists().getUploads());
+    }
+    return channel;
+  }
+
   private Playlist fetchYoutubePlaylistById(String playlistId) {
     try {
       String youtubeApiKey = accountService.getYoutubeApiKey();
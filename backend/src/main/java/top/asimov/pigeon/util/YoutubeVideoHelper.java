@@ -19,12 +19,15 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
@@ -36,6 +39,7 @@ import top.asimov.pigeon.exception.BusinessException;
 import top.asimov.pigeon.model.Episode;
 import top.asimov.pigeon.model.Episode.EpisodeBuilder;
 import top.asimov.pigeon.service.AccountService;
+import top.asimov.pigeon.service.YoutubeMetadataCache;
 
 @Log4j2
 @Component
@@ -43,14 +47,21 @@ public class YoutubeVideoHelper {
 
   private static final String APPLICATION_NAME = "My YouTube App";
   private static final JacksonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+  // playlistItems.list 与 videos.list 单次请求的上限
+  private static final int MAX_RESULTS_PER_REQUEST = 50;
 
   private final AccountService accountService;
   private final MessageSource messageSource;
+  private final YoutubeMetadataCache metadataCache;
   private final YouTube youtubeService;
+  // 当前线程正在进行的定时同步批次
+  private final ThreadLocal<SyncBatch> currentBatch = new ThreadLocal<>();
 
-  public YoutubeVideoHelper(AccountService accountService, MessageSource messageSource) {
+  public YoutubeVideoHelper(AccountService accountService, MessageSource messageSource,
+      YoutubeMetadataCache metadataCache) {
     this.accountService = accountService;
     this.messageSource = messageSource;
+    this.metadataCache = metadataCache;
 
     try {
       this.youtubeService = new YouTube.Builder(
@@ -284,6 +295,59 @@ public class YoutubeVideoHelper {
     log.info("最终获取到 {} 个符合条件的视频", result.size());
     return result;
   }
+
+  /**
+   * 定时同步前批量预取：读取每个订阅源播放列表的第一页，收集上次同步之后的新视频，
+   * 跨订阅源每 50 个一批获取详情。在返回的批次关闭前，当前线程中各订阅源的增量抓取
+   * 直接复用预取的第一页与视频详情。预取失败的订阅源在抓取时照常请求 API。
+   *
+   * @param sources 需要同步的订阅源，按播放列表倒序抓取的订阅源不需要预取
+   * @return 同步批次，同步结束后需要关闭
+   */
+  public SyncBatch beginSyncBatch(List<SyncSource> sources) {
+    SyncBatch batch = new SyncBatch();
+    if (CollectionUtils.isEmpty(sources)) {
+      return batch;
+    }
+    String youtubeApiKey;
+    try {
+      youtubeApiKey = accountService.getYoutubeApiKey();
+    } catch (Exception e) {
+      log.warn("无法预取同步数据: {}", e.getMessage());
+      return batch;
+    }
+
+    List<String> videoIds = new ArrayList<>();
+    for (SyncSource source : sources) {
+      try {
+        String playlistId = source.playlistId() != null ? source.playlistId()
+            : getUploadsPlaylistId(source.channelId(), youtubeApiKey);
+        PlaylistItemListResponse page = fetchPlaylistPage(playlistId, MAX_RESULTS_PER_REQUEST, "",
+            youtubeApiKey);
+        batch.firstPages.put(playlistId, page);
+        for (PlaylistItem item : Optional.ofNullable(page.getItems()).orElse(List.of())) {
+          String videoId = item.getSnippet().getResourceId().getVideoId();
+          if (videoId.equals(source.lastSyncedVideoId())) {
+            break;
+          }
+          videoIds.add(videoId);
+        }
+      } catch (Exception e) {
+        log.warn("预取订阅源 {} 的播放列表失败: {}",
+            source.playlistId() != null ? source.playlistId() : source.channelId(), e.getMessage());
+      }
+    }
+
+    try {
+      batch.videos.putAll(fetchVideoDetailsInBulk(videoIds, youtubeApiKey));
+      batch.resolvedIds.addAll(videoIds);
+    } catch (Exception e) {
+      log.warn("批量获取视频详情失败: {}", e.getMessage());
+    }
+    log.info("同步预取完成: {} 个订阅源，{} 个新视频", batch.firstPages.size(), videoIds.size());
+    currentBatch.set(batch);
+    return batch;
+  }
   /* ------------------------ Public API ----------------------- */
 
 
@@ -480,18 +544,35 @@ public class YoutubeVideoHelper {
       return resultEpisodes;
     }
 
-    List<PlaylistItem> candidateItems = new ArrayList<>(tailItems);
-    for (int i = candidateItems.size() - 1;
-         i >= 0 && resultEpisodes.size() < config.fetchNum();
-         i--) {
-      PlaylistItem item = candidateItems.get(i);
+    // 从最新的一端开始，遇到上次同步的视频为止
+    List<PlaylistItem> candidateItems = new ArrayList<>();
+    for (Iterator<PlaylistItem> it = tailItems.descendingIterator(); it.hasNext(); ) {
+      PlaylistItem item = it.next();
       if (stopCondition.test(item)) {
         break;
       }
-
-      // Revert to calling the old buildEpisodeIfMatches with apiKey
-      Optional<Episode> episodeOptional = buildEpisodeIfMatches(item, config, youtubeApiKey);
-      episodeOptional.ifPresent(resultEpisodes::add);
+      candidateItems.add(item);
+    }
+
+    // 标题匹配的视频每 50 个一批获取详情，凑够数量后不再请求
+    for (int from = 0;
+         from < candidateItems.size() && resultEpisodes.size() < config.fetchNum();
+         from += MAX_RESULTS_PER_REQUEST) {
+      List<PlaylistItem> chunk = candidateItems.subList(from,
+          Math.min(from + MAX_RESULTS_PER_REQUEST, candidateItems.size()));
+      List<String> videoIds = chunk.stream()
+          .filter(item -> matchesKeywordFilter(item.getSnippet().getTitle(),
+              config.containKeywords(), config.excludeKeywords()))
+          .map(item -> item.getSnippet().getResourceId().getVideoId())
+          .toList();
+      Map<String, Video> videoDetailsMap = fetchVideoDetailsInBulk(videoIds, youtubeApiKey);
+      for (PlaylistItem item : chunk) {
+        if (resultEpisodes.size() >= config.fetchNum()) {
+          break;
+        }
+        Video video = videoDetailsMap.get(item.getSnippet().getResourceId().getVideoId());
+        buildEpisodeIfMatches(item, video, config).ifPresent(resultEpisodes::add);
+      }
     }
 
     return resultEpisodes;
@@ -501,75 +582,33 @@ public class YoutubeVideoHelper {
   /* ------------------------ Util Functions ----------------------- */
 
   /**
-   * 获取频道的上传播放列表ID
+   * 获取频道的上传播放列表ID，该 ID 不会变化，优先使用缓存
    */
   private String getUploadsPlaylistId(String channelId, String youtubeApiKey) throws IOException {
-    YouTube.Channels.List channelRequest = youtubeService.channels().list("contentDetails");
-    channelRequest.setId(channelId).setKey(youtubeApiKey);
-    log.info("[YouTube API] channels.list(contentDetails) channelId={}", channelId);
-    ChannelListResponse channelResponse = channelRequest.execute();
-    return channelResponse.getItems().get(0).getContentDetails().getRelatedPlaylists().getUploads();
-  }
-
-  private Video fetchVideoDetails(YouTube youtubeService, String apiKey, String videoId)
-      throws IOException {
-    log.info("[YouTube API] videos.list(contentDetails,snippet,liveStreamingDetails) videoId={}",
-        videoId);
-    VideoListResponse videoResponse = youtubeService.videos()
-        .list("contentDetails,snippet,liveStreamingDetails")
-        .setId(videoId)
-        .setKey(apiKey)
-        .execute();
-
-    List<Video> videos = videoResponse.getItems();
-    if (CollectionUtils.isEmpty(videos)) {
-      return null;
-    }
-
-    return videos.get(0);
-  }
-
-  private Optional<Episode> buildEpisodeIfMatches(PlaylistItem item, VideoFetchConfig config,
-      String youtubeApiKey) throws IOException {
-    String title = item.getSnippet().getTitle();
-
-    if (!matchesKeywordFilter(title, config.containKeywords(), config.excludeKeywords())) {
-      return Optional.empty();
-    }
-
-    String videoId = item.getSnippet().getResourceId().getVideoId();
-    Video video = fetchVideoDetails(youtubeService, youtubeApiKey, videoId);
-    if (video == null || video.getSnippet() == null) {
-      return Optional.empty();
-    }
-
-    if (shouldSkipLiveContent(video)) {
-      return Optional.empty();
-    }
-
-    String duration = (video.getContentDetails() != null)
-        ? video.getContentDetails().getDuration()
-        : null;
-    if (!StringUtils.hasText(duration)) {
-      log.warn("无法读取视频时长: {} - {}", videoId, video.getSnippet().getTitle());
-      return Optional.empty();
-    }
-
-    if (!matchesDurationFilter(duration, config.minimalDuration())) {
-      return Optional.empty();
-    }
-
-    String channelId = config.channelId() != null ? config.channelId()
-        : video.getSnippet().getChannelId();
-    Episode episode = buildEpisodeFromVideo(video, channelId, duration);
-    return Optional.of(episode);
+    return metadataCache.get(YoutubeMetadataCache.Resource.UPLOADS_PLAYLIST, channelId,
+        String.class, id -> {
+          YouTube.Channels.List channelRequest = youtubeService.channels().list("contentDetails");
+          channelRequest.setId(id).setKey(youtubeApiKey);
+          log.info("[YouTube API] channels.list(contentDetails) channelId={}", id);
+          ChannelListResponse channelResponse = channelRequest.execute();
+          return channelResponse.getItems().get(0).getContentDetails().getRelatedPlaylists()
+              .getUploads();
+        });
   }
 
   /**
-   * 获取播放列表的一页数据
+   * 获取播放列表的一页数据，同步批次中已预取的第一页直接使用
    */
   private PlaylistItemListResponse fetchPlaylistPage(String playlistId, long pageSize,
       String nextPageToken, String youtubeApiKey) throws IOException {
+    SyncBatch batch = currentBatch.get();
+    if (batch != null && !StringUtils.hasText(nextPageToken)
+        && pageSize == MAX_RESULTS_PER_REQUEST) {
+      PlaylistItemListResponse prefetched = batch.firstPages.remove(playlistId);
+      if (prefetched != null) {
+        return prefetched;
+      }
+    }
     YouTube.PlaylistItems.List request = youtubeService.playlistItems()
         .list("snippet")
         .setPlaylistId(playlistId)
@@ -629,6 +668,7 @@ public class YoutubeVideoHelper {
         .description(video.getSnippet().getDescription())
         .publishedAt(publishedAt)
         .duration(duration)
+        .durationSeconds(FeedEpisodeUtils.parseDurationSeconds(duration))
         .downloadStatus(EpisodeStatus.PENDING.name())
         .createdAt(LocalDateTime.now());
 
@@ -723,23 +763,52 @@ public class YoutubeVideoHelper {
 
   // 保留最小外部 API 调用：不再提供基于 videoId 的时长查询入口
 
+  /**
+   * 批量获取视频详情，同步批次或缓存中已有的视频不再请求；直播与预告的状态会变化，不写入缓存
+   */
   private Map<String, Video> fetchVideoDetailsInBulk(List<String> videoIds, String apiKey) throws IOException {
     if (CollectionUtils.isEmpty(videoIds)) {
         return Collections.emptyMap();
     }
-    log.info("[YouTube API] videos.list(contentDetails,snippet,liveStreamingDetails) videoIds=[...](count: {})", videoIds.size());
-    VideoListResponse videoResponse = youtubeService.videos()
-            .list("contentDetails,snippet,liveStreamingDetails")
-            .setId(String.join(",", videoIds))
-            .setKey(apiKey)
-            .execute();
-
-    if (CollectionUtils.isEmpty(videoResponse.getItems())) {
-        return Collections.emptyMap();
+    Map<String, Video> result = new HashMap<>();
+    List<String> remaining = videoIds;
+    SyncBatch batch = currentBatch.get();
+    if (batch != null) {
+      remaining = new ArrayList<>();
+      for (String videoId : videoIds) {
+        Video video = batch.videos.get(videoId);
+        if (video != null) {
+          result.put(videoId, video);
+        } else if (!batch.resolvedIds.contains(videoId)) {
+          remaining.add(videoId);
+        }
+      }
     }
+    result.putAll(metadataCache.getAll(YoutubeMetadataCache.Resource.VIDEO, remaining,
+        Video.class, missingIds -> requestVideoDetails(missingIds, apiKey),
+        video -> !isLiveOrUpcoming(video)));
+    return result;
+  }
 
-    return videoResponse.getItems().stream()
-            .collect(Collectors.toMap(Video::getId, Function.identity()));
+  /**
+   * 按 API 上限每 50 个 ID 请求一次
+   */
+  private Map<String, Video> requestVideoDetails(List<String> videoIds, String apiKey) throws IOException {
+    Map<String, Video> videos = new HashMap<>();
+    for (int from = 0; from < videoIds.size(); from += MAX_RESULTS_PER_REQUEST) {
+      List<String> chunk = videoIds.subList(from,
+          Math.min(from + MAX_RESULTS_PER_REQUEST, videoIds.size()));
+      log.info("[YouTube API] videos.list(contentDetails,snippet,liveStreamingDetails) videoIds=[...](count: {})", chunk.size());
+      VideoListResponse videoResponse = youtubeService.videos()
+              .list("contentDetails,snippet,liveStreamingDetails")
+              .setId(String.join(",", chunk))
+              .setKey(apiKey)
+              .execute();
+      if (!CollectionUtils.isEmpty(videoResponse.getItems())) {
+        videoResponse.getItems().forEach(video -> videos.put(video.getId(), video));
+      }
+    }
+    return videos;
   }
 
   /**
@@ -749,23 +818,30 @@ public class YoutubeVideoHelper {
    * @return 如果是 live 节目返回 true，否则返回 false
    */
   private boolean shouldSkipLiveContent(Video video) {
-    String title = video.getSnippet().getTitle();
-    String videoId = video.getId();
+    if (!isLiveOrUpcoming(video)) {
+      return false;
+    }
     String liveBroadcastContent = video.getSnippet().getLiveBroadcastContent();
-
     if ("live".equals(liveBroadcastContent) || "upcoming".equals(liveBroadcastContent)) {
-      log.info("跳过 live 节目: {} - {}", videoId, title);
-      return true;
+      log.info("跳过 live 节目: {} - {}", video.getId(), video.getSnippet().getTitle());
+    } else {
+      log.info("跳过即将开始的 live 节目: {} - {}", video.getId(), video.getSnippet().getTitle());
     }
+    return true;
+  }
 
-    if (video.getLiveStreamingDetails() != null &&
-        video.getLiveStreamingDetails().getScheduledStartTime() != null &&
-        video.getLiveStreamingDetails().getActualEndTime() == null) {
-      log.info("跳过即将开始的 live 节目: {} - {}", videoId, title);
+  /**
+   * 是否为正在直播或即将开始的直播
+   */
+  private boolean isLiveOrUpcoming(Video video) {
+    String liveBroadcastContent = video.getSnippet() != null
+        ? video.getSnippet().getLiveBroadcastContent() : null;
+    if ("live".equals(liveBroadcastContent) || "upcoming".equals(liveBroadcastContent)) {
       return true;
     }
-
-    return false;
+    return video.getLiveStreamingDetails() != null &&
+        video.getLiveStreamingDetails().getScheduledStartTime() != null &&
+        video.getLiveStreamingDetails().getActualEndTime() == null;
   }
 
   /**
@@ -820,4 +896,36 @@ public class YoutubeVideoHelper {
 
   }
 
+  /**
+   * 定时同步中需要预取的订阅源
+   *
+   * @param channelId         频道 ID，抓取频道上传列表时使用
+   * @param playlistId        播放列表 ID，直接抓取播放列表时使用
+   * @param lastSyncedVideoId 上次同步的视频 ID
+   */
+  public record SyncSource(String channelId, String playlistId, String lastSyncedVideoId) {
+
+  }
+
+  /**
+   * 一轮定时同步预取的数据，只在创建它的线程中生效
+   */
+  public final class SyncBatch implements AutoCloseable {
+
+    private final Map<String, PlaylistItemListResponse> firstPages = new HashMap<>();
+    private final Map<String, Video> videos = new HashMap<>();
+    // 已经请求过详情的视频，API 没有返回的视频（已删除或私享）不再重复请求
+    private final Set<String> resolvedIds = new HashSet<>();
+
+    private SyncBatch() {
+    }
+
+    @Override
+    public void close() {
+      if (currentBatch.get() == this) {
+        currentBatch.remove();
+      }
+    }
+  }
+
 }
\ No newline at end of file
@@ -6,7 +6,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,12 +23,16 @@ import org.springframework.util.StringUtils;
 import top.asimov.pigeon.constant.DownloadType;
 import top.asimov.pigeon.constant.EpisodeStatus;
 import top.asimov.pigeon.mapper.ChannelMapper;
+import top.asimov.pigeon.mapper.EpisodeDetailMapper;
 import top.asimov.pigeon.mapper.EpisodeMapper;
 import top.asimov.pigeon.mapper.PlaylistMapper;
 import top.asimov.pigeon.model.Channel;
 import top.asimov.pigeon.model.Episode;
 import top.asimov.pigeon.model.Playlist;
+import top.asimov.pigeon.service.AudioExtractionService;
 import top.asimov.pigeon.service.CookiesService;
+import top.asimov.pigeon.service.EpisodeService;
+import top.asimov.pigeon.util.FeedEpisodeUtils;
 
 @Log4j2
 @Component
@@ -33,17 +41,25 @@ public class DownloadWorker {
   @Value("${pigeon.audio-file-path}")
   private String audioStoragePath;
   private final EpisodeMapper episodeMapper;
+  private final EpisodeDetailMapper episodeDetailMapper;
   private final CookiesService cookiesService;
   private final ChannelMapper channelMapper;
   private final PlaylistMapper playlistMapper;
+  private final EpisodeService episodeService;
+  private final AudioExtractionService audioExtractionService;
   private final MessageSource messageSource;
 
-  public DownloadWorker(EpisodeMapper episodeMapper, CookiesService cookiesService,
-      ChannelMapper channelMapper, PlaylistMapper playlistMapper, MessageSource messageSource) {
+  public DownloadWorker(EpisodeMapper episodeMapper, EpisodeDetailMapper episodeDetailMapper,
+      CookiesService cookiesService, ChannelMapper channelMapper, PlaylistMapper playlistMapper,
+      EpisodeService episodeService, AudioExtractionService audioExtractionService,
+      MessageSource messageSource) {
     this.episodeMapper = episodeMapper;
+    this.episodeDetailMapper = episodeDetailMapper;
     this.cookiesService = cookiesService;
     this.channelMapper = channelMapper;
     this.playlistMapper = playlistMapper;
+    this.episodeService = episodeService;
+    this.audioExtractionService = audioExtractionService;
     this.messageSource = messageSource;
   }
 
@@ -72,9 +88,6 @@ public class DownloadWorker {
     String tempCookiesFile = null;
 
     try {
-      // 单用户系统，直接使用默认用户的cookies
-      tempCookiesFile = cookiesService.createTempCookiesFile("0");
-
       FeedContext feedContext = resolveFeedContext(episode);
       String feedName = feedContext.title();
       String safeTitle = getSafeTitle(episode.getTitle());
@@ -82,6 +95,14 @@ public class DownloadWorker {
       // 构建输出目录：audioStoragePath/{feed name}/
       String outputDirPath = audioStoragePath + sanitizeFileName(feedName) + File.separator;
 
+      if (feedContext.downloadType() == DownloadType.AUDIO
+          && extractFromLocalVideo(episode, outputDirPath, safeTitle)) {
+        return;
+      }
+
+      // 单用户系统，直接使用默认用户的cookies
+      tempCookiesFile = cookiesService.createTempCookiesFile("0");
+
       int exitCode;
       StringBuilder errorLog = new StringBuilder();
 
@@ -115,11 +136,7 @@ public class DownloadWorker {
         String finalPath =
             audioStoragePath + sanitizeFileName(feedName) + File.separator + safeTitle + "." + extension;
 
-        episode.setMediaFilePath(finalPath);
-        episode.setMediaType(mimeType);
-        episode.setDownloadStatus(EpisodeStatus.COMPLETED.name());
-        // 如果之前有错误日志，下载成功后清空
-        episode.setErrorLog(null);
+        markCompleted(episode, finalPath, mimeType);
         log.info("下载成功: {}", episode.getTitle());
       } else {
         episode.setDownloadStatus(EpisodeStatus.FAILED.name());
@@ -139,6 +156,77 @@ public class DownloadWorker {
       }
       // 无论成功失败，都保存最终状态（使用重试机制）
       updateEpisodeWithRetry(episode);
+      saveErrorLog(episode);
+      if (EpisodeStatus.COMPLETED.name().equals(episode.getDownloadStatus())) {
+        episodeService.publishFeedContentChanged(Collections.singletonList(episode));
+      }
+    }
+  }
+
+  /**
+   * 节目此前已下载为视频且文件仍在本地时，直接复制音轨生成音频，不再从网络下载，成功后删除原视频。
+   * 频道与播放列表共用同一节目的媒体文件，仍被视频类型订阅源引用时不提取，
+   * 因此同一视频同时属于视频和音频订阅源时仍按订阅源类型从网络下载
+   *
+   * @return 是否已从本地视频生成音频
+   */
+  private boolean extractFromLocalVideo(Episode episode, String outputDirPath, String safeTitle) {
+    String currentPath = episode.getMediaFilePath();
+    if (!StringUtils.hasText(currentPath)) {
+      return false;
+    }
+    String currentType = FeedEpisodeUtils.resolveMediaType(currentPath);
+    if (currentType == null || !currentType.startsWith("video/")) {
+      return false;
+    }
+    Path video = Paths.get(currentPath);
+    if (!Files.isRegularFile(video)
+        || episodeMapper.countVideoFeedReferences(episode.getId()) > 0) {
+      return false;
+    }
+
+    prepareOutputDirectory(outputDirPath);
+    String finalPath = outputDirPath + safeTitle + ".m4a";
+    if (!audioExtractionService.extract(video, Paths.get(finalPath))) {
+      return false;
+    }
+    try {
+      Files.deleteIfExists(video);
+    } catch (IOException e) {
+      log.warn("删除原视频文件失败: {}", video, e);
+    }
+    markCompleted(episode, finalPath, "audio/aac");
+    log.info("已从本地视频提取音频: {}", episode.getTitle());
+    return true;
+  }
+
+  private void markCompleted(Episode episode, String finalPath, String mimeType) {
+    episode.setMediaFilePath(finalPath);
+    episode.setMediaType(mimeType);
+    File mediaFile = new File(finalPath);
+    if (mediaFile.isFile()) {
+      episode.setMediaSizeBytes(mediaFile.length());
+    }
+    if (episode.getDurationSeconds() == null) {
+      episode.setDurationSeconds(FeedEpisodeUtils.parseDurationSeconds(episode.getDuration()));
+    }
+    episode.setDownloadStatus(EpisodeStatus.COMPLETED.name());
+    // 如果之前有错误日志，下载成功后清空
+    episode.setErrorLog(null);
+  }
+
+  /**
+   * 错误日志单独压缩存放在 episode_detail，避免每次状态更新都改写大字段
+   */
+  private void saveErrorLog(Episode episode) {
+    try {
+      if (StringUtils.hasText(episode.getErrorLog())) {
+        episodeDetailMapper.upsertErrorLog(episode.getId(), episode.getErrorLog());
+      } else if (EpisodeStatus.COMPLETED.name().equals(episode.getDownloadStatus())) {
+        episodeDetailMapper.clearErrorLog(episode.getId());
+      }
+    } catch (Exception e) {
+      log.warn("保存 Episode 错误日志失败: {}, 错误: {}", episode.getId(), e.getMessage());
     }
   }
 
@@ -0,0 +1,249 @@
+-- Per-episode numeric metadata used by the feed aggregates
+ALTER TABLE episode ADD COLUMN duration_seconds INTEGER NULL;
+ALTER TABLE episode ADD COLUMN media_size_bytes INTEGER NULL;
+
+CREATE INDEX IF NOT EXISTS idx_episode_channel_published ON episode (channel_id, published_at);
+CREATE INDEX IF NOT EXISTS idx_playlist_episode_playlist_published ON playlist_episode (playlist_id, published_at);
+CREATE INDEX IF NOT EXISTS idx_playlist_episode_episode ON playlist_episode (episode_id);
+
+-- Denormalised per-feed aggregates, maintained by the triggers below in the same
+-- transaction as the episode / playlist_episode write that changes them.
+CREATE TABLE IF NOT EXISTS feed_stats
+(
+    feed_id                TEXT      NOT NULL,
+    feed_type              TEXT      NOT NULL,
+    episode_count          INTEGER   NOT NULL DEFAULT 0,
+    pending_count          INTEGER   NOT NULL DEFAULT 0,
+    downloading_count      INTEGER   NOT NULL DEFAULT 0,
+    completed_count        INTEGER   NOT NULL DEFAULT 0,
+    failed_count           INTEGER   NOT NULL DEFAULT 0,
+    total_bytes            INTEGER   NOT NULL DEFAULT 0,
+    total_duration_seconds INTEGER   NOT NULL DEFAULT 0,
+    last_published_at      TIMESTAMP NULL,
+    PRIMARY KEY (feed_id, feed_type)
+);
+
+INSERT OR REPLACE INTO feed_stats (feed_id, feed_type, episode_count, pending_count,
+                                   downloading_count, completed_count, failed_count, total_bytes,
+                                   total_duration_seconds, last_published_at)
+SELECT channel_id,
+       'CHANNEL',
+       COUNT(1),
+       COALESCE(SUM(download_status = 'PENDING'), 0),
+       COALESCE(SUM(download_status = 'DOWNLOADING'), 0),
+       COALESCE(SUM(download_status = 'COMPLETED'), 0),
+       COALESCE(SUM(download_status = 'FAILED'), 0),
+       COALESCE(SUM(media_size_bytes), 0),
+       COALESCE(SUM(duration_seconds), 0),
+       MAX(published_at)
+FROM episode
+WHERE channel_id IS NOT NULL
+GROUP BY channel_id;
+
+INSERT OR REPLACE INTO feed_stats (feed_id, feed_type, episode_count, pending_count,
+                                   downloading_count, completed_count, failed_count, total_bytes,
+                                   total_duration_seconds, last_published_at)
+SELECT pe.playlist_id,
+       'PLAYLIST',
+       COUNT(e.id),
+       COALESCE(SUM(e.download_status = 'PENDING'), 0),
+       COALESCE(SUM(e.download_status = 'DOWNLOADING'), 0),
+       COALESCE(SUM(e.download_status = 'COMPLETED'), 0),
+       COALESCE(SUM(e.download_status = 'FAILED'), 0),
+       COALESCE(SUM(e.media_size_bytes), 0),
+       COALESCE(SUM(e.duration_seconds), 0),
+       MAX(pe.published_at)
+FROM playlist_episode pe
+         LEFT JOIN episode e ON e.id = pe.episode_id
+GROUP BY pe.playlist_id;
+
+-- Channel aggregates follow episode.channel_id
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_episode_insert
+    AFTER INSERT
+    ON episode
+BEGIN
+    INSERT OR IGNORE INTO feed_stats (feed_id, feed_type)
+    SELECT NEW.channel_id, 'CHANNEL'
+    WHERE NEW.channel_id IS NOT NULL;
+    UPDATE feed_stats
+    SET episode_count          = episode_count + 1,
+        pending_count          = pending_count + (NEW.download_status = 'PENDING'),
+        downloading_count      = downloading_count + (NEW.download_status = 'DOWNLOADING'),
+        completed_count        = completed_count + (NEW.download_status = 'COMPLETED'),
+        failed_count           = failed_count + (NEW.download_status = 'FAILED'),
+        total_bytes            = total_bytes + COALESCE(NEW.media_size_bytes, 0),
+        total_duration_seconds = total_duration_seconds + COALESCE(NEW.duration_seconds, 0),
+        last_published_at      = CASE
+                                     WHEN last_published_at IS NULL
+                                         OR NEW.published_at > last_published_at
+                                         THEN NEW.published_at
+                                     ELSE last_published_at END
+    WHERE feed_id = NEW.channel_id
+      AND feed_type = 'CHANNEL';
+
+    -- mappings written ahead of their episode start counting once it exists
+    UPDATE feed_stats
+    SET episode_count          = episode_count + 1,
+        pending_count          = pending_count + (NEW.download_status = 'PENDING'),
+        downloading_count      = downloading_count + (NEW.download_status = 'DOWNLOADING'),
+        completed_count        = completed_count + (NEW.download_status = 'COMPLETED'),
+        failed_count           = failed_count + (NEW.download_status = 'FAILED'),
+        total_bytes            = total_bytes + COALESCE(NEW.media_size_bytes, 0),
+        total_duration_seconds = total_duration_seconds + COALESCE(NEW.duration_seconds, 0)
+    WHERE feed_type = 'PLAYLIST'
+      AND feed_id IN (SELECT playlist_id FROM playlist_episode WHERE episode_id = NEW.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_episode_delete
+    AFTER DELETE
+    ON episode
+BEGIN
+    UPDATE feed_stats
+    SET episode_count          = episode_count - 1,
+        pending_count          = pending_count - (OLD.download_status = 'PENDING'),
+        downloading_count      = downloading_count - (OLD.download_status = 'DOWNLOADING'),
+        completed_count        = completed_count - (OLD.download_status = 'COMPLETED'),
+        failed_count           = failed_count - (OLD.download_status = 'FAILED'),
+        total_bytes            = total_bytes - COALESCE(OLD.media_size_bytes, 0),
+        total_duration_seconds = total_duration_seconds - COALESCE(OLD.duration_seconds, 0),
+        last_published_at      = (SELECT MAX(published_at)
+                                  FROM episode
+                                  WHERE channel_id = OLD.channel_id)
+    WHERE feed_id = OLD.channel_id
+      AND feed_type = 'CHANNEL';
+
+    -- playlists still mapping the episode lose its contribution now; the mapping rows
+    -- deleted later find no episode and change nothing
+    UPDATE feed_stats
+    SET episode_count          = episode_count - 1,
+        pending_count          = pending_count - (OLD.download_status = 'PENDING'),
+        downloading_count      = downloading_count - (OLD.download_status = 'DOWNLOADING'),
+        completed_count        = completed_count - (OLD.download_status = 'COMPLETED'),
+        failed_count           = failed_count - (OLD.download_status = 'FAILED'),
+        total_bytes            = total_bytes - COALESCE(OLD.media_size_bytes, 0),
+        total_duration_seconds = total_duration_seconds - COALESCE(OLD.duration_seconds, 0)
+    WHERE feed_type = 'PLAYLIST'
+      AND feed_id IN (SELECT playlist_id FROM playlist_episode WHERE episode_id = OLD.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_episode_update
+    AFTER UPDATE OF channel_id, published_at, download_status, media_size_bytes, duration_seconds
+    ON episode
+BEGIN
+    UPDATE feed_stats
+    SET episode_count          = episode_count - 1,
+        pending_count          = pending_count - (OLD.download_status = 'PENDING'),
+        downloading_count      = downloading_count - (OLD.download_status = 'DOWNLOADING'),
+        completed_count        = completed_count - (OLD.download_status = 'COMPLETED'),
+        failed_count           = failed_count - (OLD.download_status = 'FAILED'),
+        total_bytes            = total_bytes - COALESCE(OLD.media_size_bytes, 0),
+        total_duration_seconds = total_duration_seconds - COALESCE(OLD.duration_seconds, 0)
+    WHERE feed_id = OLD.channel_id
+      AND feed_type = 'CHANNEL';
+
+    INSERT OR IGNORE INTO feed_stats (feed_id, feed_type)
+    SELECT NEW.channel_id, 'CHANNEL'
+    WHERE NEW.channel_id IS NOT NULL;
+    UPDATE feed_stats
+    SET episode_count          = episode_count + 1,
+        pending_count          = pending_count + (NEW.download_status = 'PENDING'),
+        downloading_count      = downloading_count + (NEW.download_status = 'DOWNLOADING'),
+        completed_count        = completed_count + (NEW.download_status = 'COMPLETED'),
+        failed_count           = failed_count + (NEW.download_status = 'FAILED'),
+        total_bytes            = total_bytes + COALESCE(NEW.media_size_bytes, 0),
+        total_duration_seconds = total_duration_seconds + COALESCE(NEW.duration_seconds, 0)
+    WHERE feed_id = NEW.channel_id
+      AND feed_type = 'CHANNEL';
+
+    UPDATE feed_stats
+    SET last_published_at = (SELECT MAX(published_at)
+                             FROM episode
+                             WHERE channel_id = feed_stats.feed_id)
+    WHERE feed_id IN (OLD.channel_id, NEW.channel_id)
+      AND feed_type = 'CHANNEL'
+      AND OLD.published_at IS NOT NEW.published_at;
+
+    UPDATE feed_stats
+    SET pending_count          = pending_count - (OLD.download_status = 'PENDING')
+                                     + (NEW.download_status = 'PENDING'),
+        downloading_count      = downloading_count - (OLD.download_status = 'DOWNLOADING')
+                                     + (NEW.download_status = 'DOWNLOADING'),
+        completed_count        = completed_count - (OLD.download_status = 'COMPLETED')
+                                     + (NEW.download_status = 'COMPLETED'),
+        failed_count           = failed_count - (OLD.download_status = 'FAILED')
+                                     + (NEW.download_status = 'FAILED'),
+        total_bytes            = total_bytes - COALESCE(OLD.media_size_bytes, 0)
+                                     + COALESCE(NEW.media_size_bytes, 0),
+        total_duration_seconds = total_duration_seconds - COALESCE(OLD.duration_seconds, 0)
+                                     + COALESCE(NEW.duration_seconds, 0)
+    WHERE feed_type = 'PLAYLIST'
+      AND feed_id IN (SELECT playlist_id FROM playlist_episode WHERE episode_id = NEW.id);
+END;
+
+-- Playlist aggregates follow playlist_episode, ordered by the mapping's published_at
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_playlist_episode_insert
+    AFTER INSERT
+    ON playlist_episode
+BEGIN
+    INSERT OR IGNORE INTO feed_stats (feed_id, feed_type) VALUES (NEW.playlist_id, 'PLAYLIST');
+    UPDATE feed_stats
+    SET episode_count          = episode_count
+        + (SELECT COUNT(1) FROM episode WHERE id = NEW.episode_id),
+        pending_count          = pending_count
+            + COALESCE((SELECT download_status = 'PENDING' FROM episode WHERE id = NEW.episode_id), 0),
+        downloading_count      = downloading_count
+            + COALESCE((SELECT download_status = 'DOWNLOADING' FROM episode WHERE id = NEW.episode_id), 0),
+        completed_count        = completed_count
+            + COALESCE((SELECT download_status = 'COMPLETED' FROM episode WHERE id = NEW.episode_id), 0),
+        failed_count           = failed_count
+            + COALESCE((SELECT download_status = 'FAILED' FROM episode WHERE id = NEW.episode_id), 0),
+        total_bytes            = total_bytes
+            + COALESCE((SELECT media_size_bytes FROM episode WHERE id = NEW.episode_id), 0),
+        total_duration_seconds = total_duration_seconds
+            + COALESCE((SELECT duration_seconds FROM episode WHERE id = NEW.episode_id), 0),
+        last_published_at      = CASE
+                                     WHEN last_published_at IS NULL
+                                         OR NEW.published_at > last_published_at
+                                         THEN NEW.published_at
+                                     ELSE last_published_at END
+    WHERE feed_id = NEW.playlist_id
+      AND feed_type = 'PLAYLIST';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_playlist_episode_delete
+    AFTER DELETE
+    ON playlist_episode
+BEGIN
+    UPDATE feed_stats
+    SET episode_count          = episode_count
+        - (SELECT COUNT(1) FROM episode WHERE id = OLD.episode_id),
+        pending_count          = pending_count
+            - COALESCE((SELECT download_status = 'PENDING' FROM episode WHERE id = OLD.episode_id), 0),
+        downloading_count      = downloading_count
+            - COALESCE((SELECT download_status = 'DOWNLOADING' FROM episode WHERE id = OLD.episode_id), 0),
+        completed_count        = completed_count
+            - COALESCE((SELECT download_status = 'COMPLETED' FROM episode WHERE id = OLD.episode_id), 0),
+        failed_count           = failed_count
+            - COALESCE((SELECT download_status = 'FAILED' FROM episode WHERE id = OLD.episode_id), 0),
+        total_bytes            = total_bytes
+            - COALESCE((SELECT media_size_bytes FROM episode WHERE id = OLD.episode_id), 0),
+        total_duration_seconds = total_duration_seconds
+            - COALESCE((SELECT duration_seconds FROM episode WHERE id = OLD.episode_id), 0),
+        last_published_at      = (SELECT MAX(published_at)
+                                  FROM playlist_episode
+                                  WHERE playlist_id = OLD.playlist_id)
+    WHERE feed_id = OLD.playlist_id
+      AND feed_type = 'PLAYLIST';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_playlist_episode_update
+    AFTER UPDATE OF published_at
+    ON playlist_episode
+BEGIN
+    UPDATE feed_stats
+    SET last_published_at = (SELECT MAX(published_at)
+                             FROM playlist_episode
+                             WHERE playlist_id = NEW.playlist_id)
+    WHERE feed_id = NEW.playlist_id
+      AND feed_type = 'PLAYLIST';
+END;
@@ -0,0 +1,4 @@
+-- Keyset pagination orders channel episodes by (published_at, id); include id so ties
+-- are resolved from the index instead of a temp b-tree sort
+DROP INDEX IF EXISTS idx_episode_channel_published;
+CREATE INDEX IF NOT EXISTS idx_episode_channel_published_id ON episode (channel_id, published_at, id);
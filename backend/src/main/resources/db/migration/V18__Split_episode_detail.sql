@@ -0,0 +1,25 @@
+-- Move the large, rarely read episode columns out of the hot episode row.
+-- error_log is written as a zlib-deflated blob by the application; rows migrated
+-- here keep their plain text and are read back through the legacy fallback.
+CREATE TABLE IF NOT EXISTS episode_detail
+(
+    episode_id  TEXT PRIMARY KEY NOT NULL,
+    description TEXT             NULL,
+    error_log   BLOB             NULL
+);
+
+INSERT OR REPLACE INTO episode_detail (episode_id, description, error_log)
+SELECT id, description, error_log
+FROM episode
+WHERE description IS NOT NULL
+   OR error_log IS NOT NULL;
+
+ALTER TABLE episode DROP COLUMN description;
+ALTER TABLE episode DROP COLUMN error_log;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_detail_episode_delete
+    AFTER DELETE
+    ON episode
+BEGIN
+    DELETE FROM episode_detail WHERE episode_id = OLD.id;
+END;
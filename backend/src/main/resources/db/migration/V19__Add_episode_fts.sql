@@ -0,0 +1,56 @@
+-- Full-text index over episode titles and descriptions. The trigram tokenizer
+-- serves substring matches (including CJK text) that B-tree indexes cannot.
+-- Rows are keyed by episode.rowid; description comes from episode_detail.
+CREATE VIRTUAL TABLE IF NOT EXISTS episode_fts USING fts5
+(
+    episode_id UNINDEXED,
+    title,
+    description,
+    tokenize = 'trigram'
+);
+
+INSERT INTO episode_fts (rowid, episode_id, title, description)
+SELECT e.rowid, e.id, e.title, d.description
+FROM episode e
+         LEFT JOIN episode_detail d ON d.episode_id = e.id;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_fts_insert
+    AFTER INSERT
+    ON episode
+BEGIN
+    INSERT INTO episode_fts (rowid, episode_id, title, description)
+    VALUES (NEW.rowid, NEW.id, NEW.title,
+            (SELECT description FROM episode_detail WHERE episode_id = NEW.id));
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_fts_update
+    AFTER UPDATE OF title
+    ON episode
+BEGIN
+    UPDATE episode_fts SET title = NEW.title WHERE rowid = NEW.rowid;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_fts_delete
+    AFTER DELETE
+    ON episode
+BEGIN
+    DELETE FROM episode_fts WHERE rowid = OLD.rowid;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_fts_detail_insert
+    AFTER INSERT
+    ON episode_detail
+BEGIN
+    UPDATE episode_fts
+    SET description = NEW.description
+    WHERE rowid = (SELECT rowid FROM episode WHERE id = NEW.episode_id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_fts_detail_update
+    AFTER UPDATE OF description
+    ON episode_detail
+BEGIN
+    UPDATE episode_fts
+    SET description = NEW.description
+    WHERE rowid = (SELECT rowid FROM episode WHERE id = NEW.episode_id);
+END;
@@ -0,0 +1,46 @@
+-- Rendered RSS <item> fragments, one per episode. Feeds are assembled by
+-- splicing these in order; render_key changes when the base URL or item
+-- format changes. Triggers drop a fragment whenever its inputs change.
+CREATE TABLE IF NOT EXISTS episode_rss_item
+(
+    episode_id TEXT PRIMARY KEY,
+    render_key TEXT NOT NULL,
+    xml        BLOB NOT NULL
+);
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_rss_item_update
+    AFTER UPDATE
+    ON episode
+    WHEN OLD.title IS NOT NEW.title
+        OR OLD.published_at IS NOT NEW.published_at
+        OR OLD.duration IS NOT NEW.duration
+        OR OLD.duration_seconds IS NOT NEW.duration_seconds
+        OR OLD.max_cover_url IS NOT NEW.max_cover_url
+        OR OLD.media_file_path IS NOT NEW.media_file_path
+        OR OLD.media_type IS NOT NEW.media_type
+        OR OLD.media_size_bytes IS NOT NEW.media_size_bytes
+BEGIN
+    DELETE FROM episode_rss_item WHERE episode_id = NEW.id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_rss_item_delete
+    AFTER DELETE
+    ON episode
+BEGIN
+    DELETE FROM episode_rss_item WHERE episode_id = OLD.id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_rss_item_detail_insert
+    AFTER INSERT
+    ON episode_detail
+BEGIN
+    DELETE FROM episode_rss_item WHERE episode_id = NEW.episode_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_rss_item_detail_update
+    AFTER UPDATE OF description
+    ON episode_detail
+    WHEN OLD.description IS NOT NEW.description
+BEGIN
+    DELETE FROM episode_rss_item WHERE episode_id = NEW.episode_id;
+END;
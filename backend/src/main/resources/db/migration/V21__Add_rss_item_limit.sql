@@ -0,0 +1,2 @@
+ALTER TABLE channel ADD COLUMN rss_item_limit INTEGER;
+ALTER TABLE playlist ADD COLUMN rss_item_limit INTEGER;
@@ -0,0 +1,2 @@
+ALTER TABLE user ADD COLUMN url_signing_key TEXT;
+ALTER TABLE user ADD COLUMN url_signing_version INTEGER NOT NULL DEFAULT 1;
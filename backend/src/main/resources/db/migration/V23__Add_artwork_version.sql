@@ -0,0 +1,24 @@
+-- Version of the locally generated artwork variants (hash of the source image
+-- identity). NULL until the variants have been generated.
+ALTER TABLE episode ADD COLUMN artwork_version TEXT;
+ALTER TABLE channel ADD COLUMN artwork_version TEXT;
+ALTER TABLE playlist ADD COLUMN artwork_version TEXT;
+
+-- Cached <item> fragments embed the artwork URL, drop them when it changes.
+DROP TRIGGER IF EXISTS trg_episode_rss_item_update;
+
+CREATE TRIGGER IF NOT EXISTS trg_episode_rss_item_update
+    AFTER UPDATE
+    ON episode
+    WHEN OLD.title IS NOT NEW.title
+        OR OLD.published_at IS NOT NEW.published_at
+        OR OLD.duration IS NOT NEW.duration
+        OR OLD.duration_seconds IS NOT NEW.duration_seconds
+        OR OLD.max_cover_url IS NOT NEW.max_cover_url
+        OR OLD.media_file_path IS NOT NEW.media_file_path
+        OR OLD.media_type IS NOT NEW.media_type
+        OR OLD.media_size_bytes IS NOT NEW.media_size_bytes
+        OR OLD.artwork_version IS NOT NEW.artwork_version
+BEGIN
+    DELETE FROM episode_rss_item WHERE episode_id = NEW.id;
+END;
@@ -0,0 +1,14 @@
+-- Hourly access rollups: feed polls, episode downloads / bytes served and
+-- client user agents. Counters are aggregated in memory and added to the
+-- current hour's row once a minute.
+CREATE TABLE IF NOT EXISTS access_stats
+(
+    kind        TEXT    NOT NULL,
+    target_id   TEXT    NOT NULL,
+    bucket_hour INTEGER NOT NULL, -- epoch seconds / 3600
+    hits        INTEGER NOT NULL DEFAULT 0,
+    bytes       INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (kind, target_id, bucket_hour)
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_access_stats_kind_bucket ON access_stats (kind, bucket_hour);
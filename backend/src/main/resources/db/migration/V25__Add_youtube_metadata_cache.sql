@@ -0,0 +1,14 @@
+-- Cached YouTube Data API responses (uploads playlist ids, channel and video
+-- details) so repeated syncs do not spend quota on data that rarely changes.
+-- payload holds the raw value or the API model serialized as JSON.
+CREATE TABLE IF NOT EXISTS youtube_metadata_cache
+(
+    resource    TEXT    NOT NULL,
+    resource_id TEXT    NOT NULL,
+    payload     TEXT    NOT NULL,
+    fetched_at  INTEGER NOT NULL, -- epoch millis
+    expires_at  INTEGER NOT NULL, -- epoch millis
+    PRIMARY KEY (resource, resource_id)
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_youtube_metadata_cache_expires ON youtube_metadata_cache (expires_at);
@@ -0,0 +1,24 @@
+-- feed_stats rows are created by the episode / playlist_episode triggers but were
+-- never removed with their feed; drop them together with the channel or playlist.
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_channel_delete
+    AFTER DELETE
+    ON channel
+BEGIN
+    DELETE FROM feed_stats WHERE feed_id = OLD.id AND feed_type = 'CHANNEL';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_feed_stats_playlist_delete
+    AFTER DELETE
+    ON playlist
+BEGIN
+    DELETE FROM feed_stats WHERE feed_id = OLD.id AND feed_type = 'PLAYLIST';
+END;
+
+-- rows left behind by feeds deleted before this migration
+DELETE FROM feed_stats
+WHERE feed_type = 'CHANNEL'
+  AND feed_id NOT IN (SELECT id FROM channel);
+
+DELETE FROM feed_stats
+WHERE feed_type = 'PLAYLIST'
+  AND feed_id NOT IN (SELECT id FROM playlist);
@@ -0,0 +1,156 @@
+package top.asimov.pigeon.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.rometools.modules.itunes.EntryInformation;
+import com.rometools.modules.itunes.EntryInformationImpl;
+import com.rometools.modules.itunes.FeedInformation;
+import com.rometools.modules.itunes.FeedInformationImpl;
+import com.rometools.modules.itunes.types.Duration;
+import com.rometools.rome.feed.synd.SyndContent;
+import com.rometools.rome.feed.synd.SyndContentImpl;
+import com.rometools.rome.feed.synd.SyndEnclosure;
+import com.rometools.rome.feed.synd.SyndEnclosureImpl;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndEntryImpl;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.feed.synd.SyndFeedImpl;
+import com.rometools.rome.io.SyndFeedOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 以 ROME rss_2.0 的输出为基准，校验 RssFeedWriter 逐字节一致
+ */
+class RssFeedWriterTest {
+
+  private static final Instant FEED_PUBLISHED_AT = Instant.parse("2024-05-01T08:30:00Z");
+
+  private static final RssFeedWriter.Channel CHANNEL = new RssFeedWriter.Channel(
+      "Pigeon & <Friends>", "https://www.youtube.com/channel/UC123",
+      "  频道简介\nsecond line \"quoted\"  ", FEED_PUBLISHED_AT,
+      "https://example.com/cover.jpg?a=1&b=2");
+
+  private static final List<RssFeedWriter.Item> ITEMS = List.of(
+      new RssFeedWriter.Item("Episode 1 😀 <live>",
+          "https://www.youtube.com/watch?v=abc",
+          "line one\r\nline two & more\n",
+          "https://pod.example.com/media/abc.m4a", 123456L, "audio/mp4",
+          Instant.parse("2024-04-30T12:00:00Z"), new Duration(3_723_000L).toString(),
+          "https://i.ytimg.com/vi/abc/maxresdefault.jpg",
+          "line one\r\nline two & more\n"),
+      new RssFeedWriter.Item("Episode 2", "https://www.youtube.com/watch?v=def", "",
+          "https://pod.example.com/media/def.mp3?t=\"a\"&x=<y>\t😀", 0L, "audio/mpeg",
+          Instant.parse("2024-04-29T00:00:05Z"), new Duration().toString(), null, null));
+
+  @Test
+  void writesSameDocumentAsRome() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RssFeedWriter writer = new RssFeedWriter(out)) {
+      writer.writeChannel(CHANNEL);
+      for (RssFeedWriter.Item item : ITEMS) {
+        writer.writeItem(item);
+      }
+      writer.finish();
+    }
+
+    assertEquals(romeOutput(CHANNEL, ITEMS), out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void renderedItemsMatchInlineItems() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RssFeedWriter writer = new RssFeedWriter(out)) {
+      writer.writeChannel(CHANNEL);
+      for (RssFeedWriter.Item item : ITEMS) {
+        writer.writeRawItem(RssFeedWriter.renderItem(item));
+      }
+      writer.finish();
+    }
+
+    assertEquals(romeOutput(CHANNEL, ITEMS), out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void writesChannelWithoutImageOrItems() throws Exception {
+    RssFeedWriter.Channel channel = new RssFeedWriter.Channel("Empty", "https://example.com",
+        "", FEED_PUBLISHED_AT, null);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RssFeedWriter writer = new RssFeedWriter(out)) {
+      writer.writeChannel(channel);
+      writer.finish();
+    }
+
+    assertEquals(romeOutput(channel, List.of()), out.toString(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 按改用 RssFeedWriter 之前 RssService 的方式用 ROME 生成同一订阅源
+   */
+  private static String romeOutput(RssFeedWriter.Channel channel,
+      List<RssFeedWriter.Item> items) throws Exception {
+    SyndFeed feed = new SyndFeedImpl();
+    feed.setFeedType("rss_2.0");
+    feed.setTitle(channel.title());
+    feed.setLink(channel.link());
+    feed.setDescription(channel.description());
+    feed.setPublishedDate(Date.from(channel.publishedAt()));
+
+    FeedInformation feedInfo = new FeedInformationImpl();
+    feedInfo.setAuthor(channel.title());
+    feedInfo.setSummary(channel.description());
+    if (channel.imageUrl() != null) {
+      feedInfo.setImage(new URL(channel.imageUrl()));
+    }
+    feed.getModules().add(feedInfo);
+
+    List<SyndEntry> entries = new ArrayList<>();
+    for (RssFeedWriter.Item item : items) {
+      SyndEntry entry = new SyndEntryImpl();
+      entry.setTitle(item.title());
+      entry.setLink(item.link());
+      entry.setPublishedDate(Date.from(item.publishedAt()));
+
+      SyndContent description = new SyndContentImpl();
+      description.setType("text/html");
+      description.setValue(item.description());
+      entry.setDescription(description);
+
+      SyndEnclosure enclosure = new SyndEnclosureImpl();
+      enclosure.setUrl(item.enclosureUrl());
+      enclosure.setType(item.enclosureType());
+      enclosure.setLength(item.enclosureLength());
+      entry.setEnclosures(List.of(enclosure));
+
+      EntryInformation entryInfo = new EntryInformationImpl();
+      entryInfo.setSummary(item.summary());
+      entryInfo.setDuration(parseDuration(item.duration()));
+      if (item.imageUrl() != null) {
+        entryInfo.setImage(new URL(item.imageUrl()));
+      }
+      entry.getModules().add(entryInfo);
+      entries.add(entry);
+    }
+    feed.setEntries(entries);
+
+    StringWriter writer = new StringWriter();
+    new SyndFeedOutput().output(feed, writer);
+    return writer.toString();
+  }
+
+  /**
+   * 解析 Duration#toString 输出的 HH:MM:SS
+   */
+  private static Duration parseDuration(String text) {
+    String[] parts = text.split(":");
+    return new Duration(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+        Float.parseFloat(parts[2]));
+  }
+}
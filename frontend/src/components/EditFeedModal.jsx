@@ -115,6 +115,16 @@ const EditFeedModal = ({
           onChange={(value) => handleFieldChange('maximumEpisodes', value)}
         />
 
+        <NumberInput
+          label={t('rss_item_limit')}
+          name="rssItemLimit"
+          placeholder={t('unlimited')}
+          min={0}
+          max={1000}
+          value={feed?.rssItemLimit}
+          onChange={(value) => handleFieldChange('rssItemLimit', value)}
+        />
+
         {isPlaylist && (
           <Select
             label={t('episode_sort_label')}
@@ -103,6 +103,22 @@ export function showNotice(message) {
   });
 }
 
+/**
+ * 格式化节目时长，优先使用后端记录的秒数，缺失时解析 ISO 8601
+ */
+export function formatEpisodeDuration(episode) {
+  if (episode && episode.durationSeconds != null) {
+    const total = episode.durationSeconds;
+    return formatDurationParts(
+      0,
+      Math.floor(total / 3600),
+      Math.floor((total % 3600) / 60),
+      total % 60,
+    );
+  }
+  return formatISODuration(episode && episode.duration);
+}
+
 /**
  * 解析 ISO 8601 Duration (例如 PT1H11M52S)
  * 秒数四舍五入到分钟，不直接显示秒
@@ -116,11 +132,15 @@ export function formatISODuration(isoDuration) {
 
   if (!matches) return isoDuration;
 
-  const days = parseInt(matches[1] || 0, 10);
-  const hours = parseInt(matches[2] || 0, 10);
-  let minutes = parseInt(matches[3] || 0, 10);
-  const seconds = parseInt(matches[4] || 0, 10);
+  return formatDurationParts(
+    parseInt(matches[1] || 0, 10),
+    parseInt(matches[2] || 0, 10),
+    parseInt(matches[3] || 0, 10),
+    parseInt(matches[4] || 0, 10),
+  );
+}
 
+function formatDurationParts(days, hours, minutes, seconds) {
   // 四舍五入秒 → 分钟
   if (seconds >= 30) {
     minutes += 1;
@@ -40,7 +40,7 @@ import {
 import {
   API,
   formatISODateTime,
-  formatISODuration,
+  formatEpisodeDuration,
   showError,
   showSuccess,
   copyToClipboard,
@@ -66,6 +66,7 @@ const FeedDetail = () => {
   const [loadingEpisodes, setLoadingEpisodes] = useState(false);
   const observerRef = useRef();
   const loadingRef = useRef(false); // Use ref to track loading state without causing re-renders
+  const nextCursorRef = useRef(null); // Opaque keyset cursor returned by the previous page
   const [
     confirmDeleteFeedOpened,
     { open: openConfirmDeleteFeed, close: closeConfirmDeleteFeed },
@@ -131,15 +132,18 @@ const FeedDetail = () => {
   }, [feedId, type]);
 
   const fetchEpisodes = useCallback(
-    async (page = 1, isInitialLoad = false) => {
+    async (isInitialLoad = false) => {
       // Prevent duplicate requests using ref
       if (loadingRef.current) return;
+      if (!isInitialLoad && !nextCursorRef.current) return;
 
       loadingRef.current = true;
       setLoadingEpisodes(true);
 
       try {
-        const res = await API.get(`/api/episode/list/${feedId}?page=${page}&size=10`);
+        const cursor = isInitialLoad ? null : nextCursorRef.current;
+        const cursorParam = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+        const res = await API.get(`/api/episode/list/${feedId}?size=10${cursorParam}`);
         const { code, msg, data } = res.data;
 
         if (code !== 200) {
@@ -147,9 +151,9 @@ const FeedDetail = () => {
           return;
         }
 
-        // MyBatis Plus Page object has 'records' for data and 'pages' for total pages
+        // Cursor page: 'records' for data, 'nextCursor' to continue from the last record
         const episodes = data.records || [];
-        const totalPages = data.pages || 0;
+        nextCursorRef.current = data.nextCursor || null;
 
         if (isInitialLoad) {
           setEpisodes(episodes);
@@ -159,7 +163,7 @@ const FeedDetail = () => {
         }
 
         // Check if there are more episodes to load
-        setHasMoreEpisodes(page < totalPages);
+        setHasMoreEpisodes(Boolean(data.hasMore));
       } catch (error) {
         showError('Failed to load episodes');
         console.error('Fetch episodes error:', error);
@@ -173,12 +177,12 @@ const FeedDetail = () => {
 
   useEffect(() => {
     fetchFeedDetail();
-    fetchEpisodes(1, true); // Initial load
+    fetchEpisodes(true); // Initial load
   }, [fetchFeedDetail, fetchEpisodes]);
 
   useEffect(() => {
     if (currentPage > 1) {
-      fetchEpisodes(currentPage, false); // Load more episodes
+      fetchEpisodes(false); // Load more episodes
     }
   }, [currentPage, fetchEpisodes]);
 
@@ -418,7 +422,7 @@ const FeedDetail = () => {
     }
 
     showSuccess(t('episode_deleted_success'));
-    await fetchEpisodes(1, true); // 重新拉取第一页
+    await fetchEpisodes(true); // 重新拉取第一页
     setCurrentPage(1); // 重置分页
   };
 
@@ -431,7 +435,7 @@ const FeedDetail = () => {
       return;
     }
     showSuccess(t('retry_submitted'));
-    await fetchEpisodes(1, true); // 重新拉取第一页
+    await fetchEpisodes(true); // 重新拉取第一页
     setCurrentPage(1); // 重置分页
   };
 
@@ -464,7 +468,7 @@ const FeedDetail = () => {
             <Center>
               <Box pos="relative" style={{ display: 'inline-block' }}>
                 <Avatar
-                  src={feed.customCoverUrl || feed.coverUrl}
+                  src={feed.artworkUrl || feed.customCoverUrl || feed.coverUrl}
                   alt={feed.customTitle || feed.title}
                   size={isSmallScreen ? 100 : 180}
                   radius="md"
@@ -605,7 +609,7 @@ const FeedDetail = () => {
                       className="episode-image-container"
                     >
                       <Image
-                        src={episode.maxCoverUrl || episode.defaultCoverUrl}
+                        src={episode.artworkUrl || episode.maxCoverUrl || episode.defaultCoverUrl}
                         alt={episode.title}
                         radius="md"
                         height={160}
@@ -666,7 +670,7 @@ const FeedDetail = () => {
                             </Title>
                           </Box>
                           <Text c="dimmed" style={{ whiteSpace: 'nowrap' }}>
-                            {formatISODuration(episode.duration)}
+                            {formatEpisodeDuration(episode)}
                           </Text>
                         </Group>
 
@@ -2,7 +2,7 @@ import React, { useEffect, useState } from 'react';
 import {
   API,
   formatISODateTime,
-  formatISODuration,
+  formatEpisodeDuration,
   showError,
   showSuccess,
 } from '../../helpers';
@@ -182,7 +182,7 @@ const Home = () => {
                     <Box pos="relative">
                       <AspectRatio ratio={1}>
                         <Image
-                          src={feed.customCoverUrl || feed.coverUrl}
+                          src={feed.artworkUrl || feed.customCoverUrl || feed.coverUrl}
                           alt={feed.name}
                           w="100%"
                           h="100%"
@@ -295,7 +295,7 @@ const Home = () => {
                       {/* Episode thumbnail */}
                       <Grid.Col span={{ base: 12, sm: 3 }}>
                         <Image
-                          src={episode.maxCoverUrl || episode.defaultCoverUrl}
+                          src={episode.artworkUrl || episode.maxCoverUrl || episode.defaultCoverUrl}
                           alt={episode.title}
                           radius="md"
                           w="100%"
@@ -339,7 +339,7 @@ const Home = () => {
                               : t('unknown_date')}
                           </Text>
                           <Text c="dimmed" size="sm">
-                            {formatISODuration(episode.duration)}
+                            {formatEpisodeDuration(episode)}
                           </Text>
                         </Group>
                       </Grid.Col>